@@ -0,0 +1,66 @@
+package com.scentedbliss.config;
+
+import jakarta.servlet.ServletContext;
+
+/**
+ * AppConfig holds application settings read from the context parameters in web.xml.
+ * It is initialized once at startup by AppContextListener; every setting has a default,
+ * so a missing or invalid context parameter never prevents the application from starting.
+ */
+public class AppConfig {
+
+	private static ServletContext context; // Source of the context parameters, null before startup
+
+	/**
+	 * Initializes the configuration from the servlet context.
+	 *
+	 * @param servletContext the ServletContext of the web application
+	 */
+	public static void init(ServletContext servletContext) {
+		context = servletContext;
+	}
+
+	/**
+	 * Returns a context parameter as a string.
+	 *
+	 * @param name         the context parameter name
+	 * @param defaultValue the value to use if the parameter is not set
+	 * @return the configured value, or the default
+	 */
+	public static String getString(String name, String defaultValue) {
+		String value = context != null ? context.getInitParameter(name) : null;
+		return value != null && !value.trim().isEmpty() ? value.trim() : defaultValue;
+	}
+
+	/**
+	 * Returns a context parameter as an integer.
+	 *
+	 * @param name         the context parameter name
+	 * @param defaultValue the value to use if the parameter is not set or not a number
+	 * @return the configured value, or the default
+	 */
+	public static int getInt(String name, int defaultValue) {
+		String value = getString(name, null);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			System.err.println("AppConfig: Invalid number for " + name + ": " + value + ", using " + defaultValue);
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * Returns a context parameter as a boolean ("true" is true, anything else is false).
+	 *
+	 * @param name         the context parameter name
+	 * @param defaultValue the value to use if the parameter is not set
+	 * @return the configured value, or the default
+	 */
+	public static boolean getBoolean(String name, boolean defaultValue) {
+		String value = getString(name, null);
+		return value != null ? Boolean.parseBoolean(value) : defaultValue;
+	}
+}
@@ -0,0 +1,135 @@
+package com.scentedbliss.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConnectionPool keeps a small number of open database connections for short queries
+ * that would otherwise open a new connection through DbConfig every time.
+ * Connections handed out by {@link #getConnection()} are returned to the pool when
+ * closed, so callers use them with try-with-resources exactly like a normal connection.
+ * The pool size is read from the db.poolSize context parameter (default 10).
+ */
+public class ConnectionPool {
+
+	private static final int VALIDATION_TIMEOUT_SECONDS = 2; // Time allowed for checking an idle connection
+	private static final long BORROW_TIMEOUT_SECONDS = 10; // Time a caller waits when all connections are in use
+
+	private static BlockingQueue<Connection> idle; // Open connections not in use
+	private static Semaphore permits; // Limits the number of connections in use or idle
+
+	/**
+	 * Borrows a connection from the pool, opening a new one if no idle connection is
+	 * available and the pool is not full.
+	 *
+	 * @return a pooled connection; closing it returns it to the pool
+	 * @throws SQLException           if no connection becomes available or the database cannot be reached
+	 * @throws ClassNotFoundException if the JDBC driver class is not found
+	 */
+	public static Connection getConnection() throws SQLException, ClassNotFoundException {
+		init();
+		try {
+			if (!permits.tryAcquire(BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+				throw new SQLException("Timed out waiting for a pooled database connection");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a pooled database connection", e);
+		}
+		try {
+			Connection connection;
+			while ((connection = idle.poll()) != null) {
+				if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+					return wrap(connection);
+				}
+				closeQuietly(connection); // Dropped by the server, open a fresh one instead
+			}
+			return wrap(DbConfig.getDbConnection());
+		} catch (SQLException | ClassNotFoundException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Closes all idle connections. Called when the application stops.
+	 */
+	public static synchronized void shutdown() {
+		if (idle != null) {
+			Connection connection;
+			while ((connection = idle.poll()) != null) {
+				closeQuietly(connection);
+			}
+		}
+	}
+
+	private static synchronized void init() {
+		if (idle == null) {
+			int size = Math.max(AppConfig.getInt("db.poolSize", 10), 1);
+			idle = new ArrayBlockingQueue<>(size);
+			permits = new Semaphore(size);
+		}
+	}
+
+	/**
+	 * Wraps a physical connection so that close() puts it back into the pool.
+	 */
+	private static Connection wrap(Connection connection) {
+		boolean[] isReturned = {false};
+		return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+					String name = method.getName();
+					if ("close".equals(name)) {
+						if (!isReturned[0]) {
+							isReturned[0] = true;
+							release(connection);
+						}
+						return null;
+					}
+					if ("isClosed".equals(name) && isReturned[0]) {
+						return true;
+					}
+					if (isReturned[0]) {
+						throw new SQLException("Connection has been returned to the pool");
+					}
+					try {
+						return method.invoke(connection, args);
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+				});
+	}
+
+	/**
+	 * Resets a connection's state and makes it available again.
+	 */
+	private static void release(Connection connection) {
+		try {
+			if (!connection.getAutoCommit()) {
+				connection.rollback(); // Do not leak an unfinished transaction to the next borrower
+				connection.setAutoCommit(true);
+			}
+			if (connection.isClosed() || !idle.offer(connection)) {
+				closeQuietly(connection);
+			}
+		} catch (SQLException e) {
+			closeQuietly(connection);
+		} finally {
+			permits.release();
+		}
+	}
+
+	private static void closeQuietly(Connection connection) {
+		try {
+			connection.close();
+		} catch (SQLException e) {
+			System.err.println("ConnectionPool: Error closing connection: " + e.getMessage());
+		}
+	}
+}
@@ -11,13 +11,17 @@ import java.sql.SQLException;
  */
 public class DbConfig {
 
-	// Database configuration information
-	private static final String URL = "jdbc:mysql://localhost:3306/scented_bliss" ;
+	// Database configuration information. useServerPrepStmts makes the statements kept open by
+	// StatementCache real server-side prepared statements, parsed once per connection;
+	// cachePrepStmts lets the driver reuse them too when StatementCache prepares a statement again
+	private static final String URL = "jdbc:mysql://localhost:3306/scented_bliss"
+			+ "?useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=250&prepStmtCacheSqlLimit=2048";
 	private static final String USERNAME = "root";
 	private static final String PASSWORD = "";
 
 	/**
-	 * Establishes a connection to the database.
+	 * Establishes a connection to the database. Prepared statements of the connection are
+	 * cached for reuse (see StatementCache).
 	 *
 	 * @return Connection object for the database
 	 * @throws SQLException           if a database access error occurs
@@ -25,6 +29,6 @@ public class DbConfig {
 	 */
 	public static Connection getDbConnection() throws SQLException, ClassNotFoundException {
 		Class.forName("com.mysql.cj.jdbc.Driver");
-		return DriverManager.getConnection(URL, USERNAME, PASSWORD);
+		return StatementCache.wrap(DriverManager.getConnection(URL, USERNAME, PASSWORD));
 	}
 }
\ No newline at end of file
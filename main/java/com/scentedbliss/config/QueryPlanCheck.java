@@ -0,0 +1,123 @@
+package com.scentedbliss.config;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.scentedbliss.service.AbandonedCartSweeper;
+import com.scentedbliss.service.CartService;
+import com.scentedbliss.service.DashboardService;
+import com.scentedbliss.service.OrderService;
+import com.scentedbliss.service.ProductService;
+import com.scentedbliss.service.UserService;
+
+/**
+ * QueryPlanCheck runs EXPLAIN on the frequent lookups of the services and reports every
+ * query whose plan reads a whole table (access type ALL). It is meant to be enabled on a
+ * database seeded with a realistic amount of data, where a missing index shows up as a full
+ * scan; on a nearly empty database the optimizer may scan tables that are too small to be
+ * worth an index lookup.
+ *
+ * The check is controlled by the db.queryPlanCheck context parameter:
+ * - off (default): not run
+ * - warn: full scans are logged
+ * - fail: full scans are logged and stop the application from starting
+ *
+ * Queries that intentionally read every row (e.g. the full product list) are not listed.
+ */
+public class QueryPlanCheck {
+
+	/**
+	 * The checked queries, taken from the services' own SQL constants, with sample parameter values.
+	 */
+	private static final Object[][] HOT_QUERIES = {
+			{ "CartService.getUserIdByUsername", CartService.USER_ID_BY_USERNAME_QUERY, "admin" },
+			{ "CartService.getCartIdByUserId", CartService.CART_ID_BY_USER_ID_QUERY, 1 },
+			{ "CartService.getCartProducts", CartService.CART_PRODUCTS_QUERY, 1 },
+			{ "CartService.getCartQuantities", CartService.CART_QUANTITIES_QUERY, 1 },
+			{ "CartService.addProductsToCart", CartService.UPSERT_CART_PRODUCT_QUERY, 1, 1, 1 },
+			{ "CartService.saveCartQuantities", CartService.SET_CART_PRODUCT_QUERY, 1, 1, 1 },
+			{ "OrderService.getOrderItems", OrderService.ORDER_ITEMS_QUERY, 1 },
+			{ "DashboardService.getWeeklySales", DashboardService.WEEKLY_SALES_QUERY },
+			{ "DashboardService.getTotalCustomers", DashboardService.TOTAL_CUSTOMERS_QUERY },
+			{ "ProductService.getAllBrands", ProductService.BRANDS_QUERY },
+			searchQuery("ProductService.getFilteredProducts", null, "low-high", "Dior", null),
+			searchQuery("ProductService.getFilteredProducts (full-text)", "sauvage", "default", "all", "BOOLEAN MODE"),
+			{ "UserService.getUserByUsername", UserService.USER_BY_USERNAME_QUERY, "admin" },
+			{ "AbandonedCartSweeper.selectBatch", AbandonedCartSweeper.SELECT_IDLE_CARTS_QUERY,
+					Timestamp.valueOf(LocalDateTime.now()), new Timestamp(0), new Timestamp(0), 0, 200 },
+	};
+
+	/**
+	 * Builds the entry of a shop search, with the parameters ProductService would bind.
+	 */
+	private static Object[] searchQuery(String name, String searchTerm, String sort, String filter, String fullTextMode) {
+		List<Object> parameters = new ArrayList<>();
+		String query = ProductService.buildSearchQuery(searchTerm, sort, filter, fullTextMode, parameters);
+		List<Object> entry = new ArrayList<>();
+		entry.add(name);
+		entry.add(query);
+		entry.addAll(parameters);
+		return entry.toArray();
+	}
+
+	/**
+	 * Runs the check if enabled.
+	 *
+	 * @throws IllegalStateException if the mode is fail and a query does a full scan
+	 */
+	public static void run() {
+		String mode = AppConfig.getString("db.queryPlanCheck", "off");
+		if ("off".equalsIgnoreCase(mode)) {
+			return;
+		}
+		List<String> fullScans = findFullScans();
+		if (fullScans == null) {
+			return; // Database unavailable, already logged
+		}
+		for (String fullScan : fullScans) {
+			System.err.println("QueryPlanCheck: Full scan in " + fullScan);
+		}
+		System.out.println("QueryPlanCheck: " + HOT_QUERIES.length + " queries checked, " + fullScans.size() + " full scan(s)");
+		if (!fullScans.isEmpty() && "fail".equalsIgnoreCase(mode)) {
+			throw new IllegalStateException("QueryPlanCheck: " + fullScans.size() + " hot query/queries do a full table scan");
+		}
+	}
+
+	/**
+	 * Explains every hot query.
+	 *
+	 * @return "query name (table)" for each full table scan, or null if the database cannot be reached
+	 */
+	public static List<String> findFullScans() {
+		List<String> fullScans = new ArrayList<>();
+		try (Connection conn = DbConfig.getDbConnection()) {
+			for (Object[] query : HOT_QUERIES) {
+				try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + query[1])) {
+					for (int i = 2; i < query.length; i++) {
+						stmt.setObject(i - 1, query[i]);
+					}
+					try (ResultSet rs = stmt.executeQuery()) {
+						while (rs.next()) {
+							// An INSERT row is listed with type ALL but reads nothing; ON DUPLICATE KEY finds the row by its key
+							if ("ALL".equalsIgnoreCase(rs.getString("type")) && !"INSERT".equalsIgnoreCase(rs.getString("select_type"))) {
+								fullScans.add(query[0] + " (" + rs.getString("table") + ")");
+							}
+						}
+					}
+				} catch (SQLException e) {
+					fullScans.add(query[0] + " (could not be explained: " + e.getMessage() + ")");
+				}
+			}
+			return fullScans;
+		} catch (SQLException | ClassNotFoundException e) {
+			System.err.println("QueryPlanCheck: Database not available: " + e.getMessage());
+			return null;
+		}
+	}
+}
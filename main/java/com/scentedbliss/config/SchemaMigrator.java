@@ -0,0 +1,160 @@
+package com.scentedbliss.config;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import jakarta.servlet.ServletContext;
+
+/**
+ * SchemaMigrator brings the database schema up to date when the application starts.
+ * Migrations are SQL files in /WEB-INF/db/migration named V&lt;version&gt;__&lt;description&gt;.sql;
+ * they are applied in version order, and each applied version is recorded in the
+ * schema_version table so it runs only once. Statements are separated by a semicolon at
+ * the end of a line, and lines starting with -- are comments.
+ *
+ * Migrations should be written with IF NOT EXISTS where possible: MySQL commits DDL
+ * statements immediately, so a migration that fails halfway is simply run again on the
+ * next start.
+ */
+public class SchemaMigrator {
+
+	private static final String MIGRATION_PATH = "/WEB-INF/db/migration/"; // Folder holding the migration files
+	private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql"); // V2__covering_indexes.sql
+
+	private static final String CREATE_VERSION_TABLE = "CREATE TABLE IF NOT EXISTS `schema_version` ("
+			+ "`version` int(11) NOT NULL PRIMARY KEY, "
+			+ "`description` varchar(200) NOT NULL, "
+			+ "`appliedAt` datetime NOT NULL DEFAULT current_timestamp()"
+			+ ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci";
+
+	/**
+	 * Applies all migrations that have not been applied yet. Stops at the first failing
+	 * migration, so later migrations never run against an incomplete schema.
+	 *
+	 * @param servletContext the ServletContext used to read the migration files
+	 * @return true if the schema is up to date, false if a migration failed or the database is unavailable
+	 */
+	public static boolean migrate(ServletContext servletContext) {
+		TreeMap<Integer, String> migrations = findMigrations(servletContext);
+		try (Connection conn = DbConfig.getDbConnection()) {
+			try (Statement stmt = conn.createStatement()) {
+				stmt.execute(CREATE_VERSION_TABLE);
+			}
+			Set<Integer> applied = getAppliedVersions(conn);
+			int count = 0;
+			for (Integer version : migrations.keySet()) {
+				if (applied.contains(version)) {
+					continue;
+				}
+				String path = migrations.get(version);
+				try {
+					for (String sql : readStatements(servletContext, path)) {
+						try (Statement stmt = conn.createStatement()) {
+							stmt.execute(sql);
+						}
+					}
+				} catch (SQLException | IOException e) {
+					System.err.println("SchemaMigrator: Migration " + path + " failed: " + e.getMessage());
+					return false;
+				}
+				recordVersion(conn, version, path);
+				count++;
+				System.out.println("SchemaMigrator: Applied " + path);
+			}
+			System.out.println("SchemaMigrator: Schema up to date (" + count + " migration(s) applied)");
+			return true;
+		} catch (SQLException | ClassNotFoundException e) {
+			System.err.println("SchemaMigrator: Could not migrate the schema: " + e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * Lists the migration files by version.
+	 */
+	private static TreeMap<Integer, String> findMigrations(ServletContext servletContext) {
+		TreeMap<Integer, String> migrations = new TreeMap<>();
+		Set<String> paths = servletContext.getResourcePaths(MIGRATION_PATH);
+		if (paths == null) {
+			return migrations;
+		}
+		for (String path : paths) {
+			Matcher matcher = FILE_NAME.matcher(path.substring(MIGRATION_PATH.length()));
+			if (!matcher.matches()) {
+				System.err.println("SchemaMigrator: Ignoring " + path + ", not named V<version>__<description>.sql");
+				continue;
+			}
+			String previous = migrations.put(Integer.parseInt(matcher.group(1)), path);
+			if (previous != null) {
+				throw new IllegalStateException("SchemaMigrator: " + previous + " and " + path + " have the same version");
+			}
+		}
+		return migrations;
+	}
+
+	private static Set<Integer> getAppliedVersions(Connection conn) throws SQLException {
+		Set<Integer> versions = new HashSet<>();
+		try (PreparedStatement stmt = conn.prepareStatement("SELECT version FROM schema_version");
+				ResultSet rs = stmt.executeQuery()) {
+			while (rs.next()) {
+				versions.add(rs.getInt("version"));
+			}
+		}
+		return versions;
+	}
+
+	private static void recordVersion(Connection conn, int version, String path) throws SQLException {
+		try (PreparedStatement stmt = conn
+				.prepareStatement("INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+			stmt.setInt(1, version);
+			stmt.setString(2, path.substring(MIGRATION_PATH.length()));
+			stmt.executeUpdate();
+		}
+	}
+
+	/**
+	 * Splits a migration file into statements, skipping comment lines.
+	 */
+	private static List<String> readStatements(ServletContext servletContext, String path) throws IOException {
+		List<String> statements = new ArrayList<>();
+		try (InputStream in = servletContext.getResourceAsStream(path)) {
+			if (in == null) {
+				throw new IOException("Not found");
+			}
+			BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+			StringBuilder statement = new StringBuilder();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String trimmed = line.trim();
+				if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+					continue;
+				}
+				statement.append(line).append('\n');
+				if (trimmed.endsWith(";")) {
+					statement.setLength(statement.lastIndexOf(";")); // JDBC expects a single statement without the separator
+					statements.add(statement.toString());
+					statement.setLength(0);
+				}
+			}
+			if (statement.toString().trim().length() > 0) {
+				statements.add(statement.toString()); // Last statement without a semicolon
+			}
+		}
+		return statements;
+	}
+}
@@ -0,0 +1,248 @@
+package com.scentedbliss.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * StatementCache keeps the prepared statements of one database connection open for reuse,
+ * so a query that runs on every request is prepared once per connection instead of on every
+ * call. Every connection returned by DbConfig (including the pooled ones) has its own cache.
+ *
+ * Only prepareStatement(String) is cached, keyed by the SQL text. Closing a cached statement
+ * closes its last result set, clears its parameters and returns it to the cache; it is really
+ * closed when it is evicted or when the connection is closed. A statement that is still in use
+ * is never handed out twice: a second caller preparing the same SQL meanwhile gets a
+ * separate statement. The cache holds at most db.statementCacheSize statements (default 32)
+ * and evicts the least recently used idle one. Hit, miss and eviction counts are logged when
+ * the application stops.
+ */
+public class StatementCache {
+
+	private static final AtomicLong hits = new AtomicLong(); // Statements reused from a cache, all connections
+	private static final AtomicLong misses = new AtomicLong(); // Statements that had to be prepared
+	private static final AtomicLong evictions = new AtomicLong(); // Idle statements closed to make room
+
+	private final Connection connection; // The physical connection
+	private final int capacity; // Maximum number of cached statements
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); // LRU order
+	private boolean isClosed;
+
+	private StatementCache(Connection connection, int capacity) {
+		this.connection = connection;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Wraps a physical connection so that its prepared statements are cached.
+	 *
+	 * @param connection the physical connection
+	 * @return a connection that caches prepareStatement(String) and closes the cache with the connection
+	 */
+	public static Connection wrap(Connection connection) {
+		int capacity = AppConfig.getInt("db.statementCacheSize", 32);
+		if (capacity <= 0) {
+			return connection; // Caching disabled
+		}
+		StatementCache cache = new StatementCache(connection, capacity);
+		return (Connection) Proxy.newProxyInstance(StatementCache.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+					String name = method.getName();
+					if ("prepareStatement".equals(name) && args.length == 1) {
+						return cache.prepare((String) args[0]);
+					}
+					if ("close".equals(name)) {
+						cache.closeAll();
+					}
+					return invoke(connection, method, args);
+				});
+	}
+
+	/**
+	 * Gets the number of statements reused from a cache since startup.
+	 *
+	 * @return The number of cache hits
+	 */
+	public static long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * Gets the number of statements prepared because no idle cached statement was available.
+	 *
+	 * @return The number of cache misses
+	 */
+	public static long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Gets the number of idle statements closed to make room for others.
+	 *
+	 * @return The number of evictions
+	 */
+	public static long getEvictions() {
+		return evictions.get();
+	}
+
+	/**
+	 * Logs the hit, miss and eviction counts of all caches since startup. Called when the
+	 * application stops.
+	 */
+	public static void logStats() {
+		long total = getHits() + getMisses();
+		System.out.println("StatementCache: " + getHits() + " hit(s), " + getMisses() + " miss(es), " + getEvictions()
+				+ " eviction(s)" + (total > 0 ? " (" + (getHits() * 100 / total) + "% reused)" : ""));
+	}
+
+	/**
+	 * Returns an idle cached statement for the SQL, or prepares a new one.
+	 */
+	private PreparedStatement prepare(String sql) throws SQLException {
+		Entry entry;
+		synchronized (this) {
+			entry = entries.get(sql);
+			if (entry != null && !entry.isInUse) {
+				entry.isInUse = true;
+				hits.incrementAndGet();
+				return entry.open();
+			}
+		}
+		misses.incrementAndGet();
+		PreparedStatement statement = connection.prepareStatement(sql);
+		synchronized (this) {
+			if (isClosed || entries.containsKey(sql)) {
+				return statement; // Connection closing, or the cached one is busy: not cached, close() really closes it
+			}
+			evictIdle();
+			entry = new Entry(sql, statement);
+			entry.isInUse = true;
+			entries.put(sql, entry);
+			return entry.open();
+		}
+	}
+
+	/**
+	 * Closes least recently used idle statements while the cache is full.
+	 */
+	private void evictIdle() {
+		Iterator<Entry> iterator = entries.values().iterator();
+		while (entries.size() >= capacity && iterator.hasNext()) {
+			Entry entry = iterator.next();
+			if (!entry.isInUse) {
+				iterator.remove();
+				closeQuietly(entry.statement);
+				evictions.incrementAndGet();
+			}
+		}
+	}
+
+	private void closeAll() {
+		List<Entry> toClose;
+		synchronized (this) {
+			isClosed = true;
+			toClose = new ArrayList<>(entries.values());
+			entries.clear();
+		}
+		for (Entry entry : toClose) {
+			closeQuietly(entry.statement);
+		}
+	}
+
+	/**
+	 * Called when a caller closes a cached statement. A statement that could not be reset, or
+	 * that was removed from the cache while in use, is really closed.
+	 */
+	private void release(Entry entry, boolean isReusable) {
+		boolean isCached;
+		synchronized (this) {
+			entry.isInUse = false;
+			isCached = entries.get(entry.sql) == entry;
+			if (isCached && !isReusable) {
+				entries.remove(entry.sql);
+			}
+		}
+		if (!isCached || !isReusable) {
+			closeQuietly(entry.statement);
+		}
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	private static void closeQuietly(PreparedStatement statement) {
+		try {
+			statement.close();
+		} catch (SQLException e) {
+			System.err.println("StatementCache: Error closing statement: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * A cached statement and the state of its current use.
+	 */
+	private final class Entry {
+		private final String sql; // The cache key
+		private final PreparedStatement statement; // The physical statement
+		private boolean isInUse; // Handed out and not yet closed by the caller, guarded by the cache
+
+		private Entry(String sql, PreparedStatement statement) {
+			this.sql = sql;
+			this.statement = statement;
+		}
+
+		/**
+		 * Returns a handle for one use of the statement. Closing the handle returns the
+		 * statement to the cache instead of closing it.
+		 */
+		private PreparedStatement open() {
+			ResultSet[] lastResult = { null };
+			boolean[] isReleased = { false };
+			return (PreparedStatement) Proxy.newProxyInstance(StatementCache.class.getClassLoader(),
+					new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+						String name = method.getName();
+						if ("close".equals(name)) {
+							if (!isReleased[0]) {
+								isReleased[0] = true;
+								boolean isReusable = true;
+								try {
+									if (lastResult[0] != null) {
+										lastResult[0].close(); // Callers often leave the result set open
+									}
+									statement.clearParameters();
+								} catch (SQLException e) {
+									isReusable = false;
+								}
+								release(this, isReusable);
+							}
+							return null;
+						}
+						if ("isClosed".equals(name)) {
+							return isReleased[0] || statement.isClosed();
+						}
+						if (isReleased[0]) {
+							throw new SQLException("Statement has been closed");
+						}
+						Object result = invoke(statement, method, args);
+						if (result instanceof ResultSet) {
+							lastResult[0] = (ResultSet) result;
+						}
+						return result;
+					});
+		}
+	}
+}
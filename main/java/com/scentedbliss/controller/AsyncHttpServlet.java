@@ -0,0 +1,440 @@
+package com.scentedbliss.controller;
+
+import com.scentedbliss.filter.CompressionFilter;
+import com.scentedbliss.service.BlockingWorkExecutor;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * @author 23049172 Sabin Devkota
+ *
+ * Base class for controllers whose requests block on the database. When the virtual thread
+ * mode of BlockingWorkExecutor is enabled, each request is switched to asynchronous processing
+ * and the usual doGet/doPost runs on a virtual thread; the container thread is released at
+ * once and the response is completed from the virtual thread. When the mode is off (the
+ * default), requests are handled exactly like in a plain HttpServlet.
+ *
+ * If waiting for a work slot plus processing exceeds the async timeout, the container answers
+ * 503 and completes the request. The virtual thread then neither starts the work nor touches
+ * the response any more, since the container may already reuse it for another request.
+ *
+ * Subclasses must be declared with asyncSupported = true, must use services that borrow a
+ * pooled connection per call (requests to one servlet run concurrently on virtual threads),
+ * and render pages through {@link #forward}, which leaves the JSP to a container thread.
+ */
+public abstract class AsyncHttpServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+    private static final long ASYNC_TIMEOUT_MILLIS = 60000; // Upper bound for waiting plus processing
+
+    /**
+     * Dispatches the request on a virtual thread if enabled, otherwise on the calling thread.
+     *
+     * @param request The HTTP request object
+     * @param response The HTTP response object
+     * @throws ServletException If a servlet-specific error occurs
+     * @throws IOException If an I/O error occurs
+     */
+    @Override
+    protected void service(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        BlockingWorkExecutor executor = BlockingWorkExecutor.getInstance();
+        if (!executor.isEnabled() || !request.isAsyncSupported() || request.isAsyncStarted()
+                || request.getDispatcherType() != DispatcherType.REQUEST) {
+            super.service(request, response); // Plain blocking processing
+            return;
+        }
+
+        AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(ASYNC_TIMEOUT_MILLIS);
+        GuardedResponse guarded = new GuardedResponse(response);
+        asyncContext.addListener(guarded);
+        boolean isSubmitted = executor.submit(() -> {
+            if (guarded.isTimedOut()) {
+                return; // Already answered with 503 by the timeout
+            }
+            try {
+                super.service(request, guarded);
+            } catch (Exception e) {
+                System.err.println(getClass().getSimpleName() + ": Error handling " + request.getRequestURI() + ": " + e.getMessage());
+                e.printStackTrace();
+                guarded.sendErrorIfActive(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            } finally {
+                guarded.complete(asyncContext);
+            }
+        }, () -> {
+            guarded.sendErrorIfActive(HttpServletResponse.SC_SERVICE_UNAVAILABLE); // All work slots stayed busy
+            guarded.complete(asyncContext);
+        });
+        if (!isSubmitted) {
+            try {
+                super.service(request, response); // Executor shutting down, finish on this thread
+                CompressionFilter.finishResponse(request);
+            } finally {
+                CompressionFilter.releaseResponse(request); // Only does something if finishing failed
+                asyncContext.complete();
+            }
+        }
+    }
+
+    /**
+     * Forwards the request to a page. On a virtual thread the page is not rendered there: the
+     * path is recorded and the request is dispatched to it with AsyncContext.dispatch once the
+     * controller returns, so the container renders the JSP on one of its own threads.
+     *
+     * @param request The HTTP request object
+     * @param response The HTTP response object passed to doGet/doPost
+     * @param path The path of the page, e.g. /WEB-INF/pages/cart.jsp
+     * @throws ServletException If a servlet-specific error occurs
+     * @throws IOException If an I/O error occurs
+     */
+    protected void forward(HttpServletRequest request, HttpServletResponse response, String path)
+            throws ServletException, IOException {
+        if (response instanceof GuardedResponse) {
+            ((GuardedResponse) response).dispatchTo(path);
+        } else {
+            request.getRequestDispatcher(path).forward(request, response);
+        }
+    }
+
+    /**
+     * Response used by the virtual thread. Once the async timeout has fired, every call that
+     * writes or changes the response fails instead of reaching the underlying response. The
+     * timeout and the writes take the same lock, so no write can slip in after the 503.
+     */
+    private static final class GuardedResponse extends HttpServletResponseWrapper implements AsyncListener {
+        private boolean isTimedOut; // Guarded by this
+        private String dispatchPath; // Page to dispatch to instead of completing, guarded by this
+        private ServletOutputStream stream; // Guarded wrapper of the underlying stream, created on first use
+        private PrintWriter writer; // Guarded wrapper of the underlying writer, created on first use
+
+        private GuardedResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        private synchronized boolean isTimedOut() {
+            return isTimedOut;
+        }
+
+        private synchronized void checkActive() throws IOException {
+            if (isTimedOut) {
+                throw new IOException("Request timed out and was already answered");
+            }
+        }
+
+        private synchronized void checkActiveState() {
+            if (isTimedOut) {
+                throw new IllegalStateException("Request timed out and was already answered");
+            }
+        }
+
+        /**
+         * Sends an error page unless the response was committed or the request timed out.
+         */
+        private synchronized void sendErrorIfActive(int status) {
+            try {
+                if (!isTimedOut && !getResponse().isCommitted()) {
+                    dispatchPath = null; // Send the error page instead of a page recorded before the failure
+                    ((HttpServletResponse) getResponse()).sendError(status);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; nothing more to do
+            }
+        }
+
+        /**
+         * Records the page the request is dispatched to when the controller returns.
+         */
+        private synchronized void dispatchTo(String path) throws IOException {
+            checkActive();
+            if (getResponse().isCommitted()) {
+                throw new IllegalStateException("Cannot forward after the response has been committed");
+            }
+            resetBuffer(); // Like RequestDispatcher.forward, drop output buffered so far
+            dispatchPath = path;
+        }
+
+        /**
+         * Dispatches the request to the recorded page, or completes it, unless the timeout
+         * already did. A page is not rendered after an error page has been sent. Before
+         * completing, a compressed body is finished on this thread, which wrote it.
+         */
+        private synchronized void complete(AsyncContext asyncContext) {
+            if (isTimedOut) {
+                return;
+            }
+            try {
+                if (dispatchPath != null && !getResponse().isCommitted()) {
+                    asyncContext.dispatch(dispatchPath); // Rendered on a container thread
+                } else {
+                    finishBody(asyncContext);
+                    asyncContext.complete();
+                }
+            } catch (IllegalStateException e) {
+                // Already completed, e.g. after an error reported by the container
+            }
+        }
+
+        /**
+         * Writes the end of a compressed body, e.g. the gzip trailer, before the request completes.
+         */
+        private void finishBody(AsyncContext asyncContext) {
+            try {
+                CompressionFilter.finishResponse(asyncContext.getRequest());
+            } catch (IOException e) {
+                CompressionFilter.releaseResponse(asyncContext.getRequest()); // Client went away
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            synchronized (this) {
+                isTimedOut = true;
+                try {
+                    HttpServletResponse response = (HttpServletResponse) getResponse();
+                    if (!response.isCommitted()) {
+                        response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                        CompressionFilter.releaseResponse(event.getAsyncContext().getRequest()); // The error page replaces the body
+                    } else {
+                        finishBody(event.getAsyncContext()); // End what was sent as a complete gzip stream
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    CompressionFilter.releaseResponse(event.getAsyncContext().getRequest()); // Client went away
+                }
+            }
+            System.err.println("AsyncHttpServlet: Request timed out after " + ASYNC_TIMEOUT_MILLIS + " ms");
+            event.getAsyncContext().complete();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        @Override
+        public synchronized ServletOutputStream getOutputStream() throws IOException {
+            checkActive();
+            if (stream == null) {
+                ServletOutputStream out = getResponse().getOutputStream();
+                stream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        synchronized (GuardedResponse.this) {
+                            checkActive();
+                            out.write(b);
+                        }
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        synchronized (GuardedResponse.this) {
+                            checkActive();
+                            out.write(b, off, len);
+                        }
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        synchronized (GuardedResponse.this) {
+                            checkActive();
+                            out.flush();
+                        }
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return out.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        out.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return stream;
+        }
+
+        @Override
+        public synchronized PrintWriter getWriter() throws IOException {
+            checkActive();
+            if (writer == null) {
+                PrintWriter out = getResponse().getWriter();
+                writer = new PrintWriter(new Writer() {
+                    @Override
+                    public void write(char[] cbuf, int off, int len) throws IOException {
+                        synchronized (GuardedResponse.this) {
+                            checkActive();
+                            out.write(cbuf, off, len);
+                        }
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        synchronized (GuardedResponse.this) {
+                            checkActive();
+                            out.flush();
+                        }
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        synchronized (GuardedResponse.this) {
+                            checkActive();
+                            out.close();
+                        }
+                    }
+                });
+            }
+            return writer;
+        }
+
+        @Override
+        public synchronized void flushBuffer() throws IOException {
+            checkActive();
+            super.flushBuffer();
+        }
+
+        @Override
+        public synchronized void sendError(int sc, String msg) throws IOException {
+            checkActive();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public synchronized void sendError(int sc) throws IOException {
+            checkActive();
+            super.sendError(sc);
+        }
+
+        @Override
+        public synchronized void sendRedirect(String location) throws IOException {
+            checkActive();
+            super.sendRedirect(location);
+        }
+
+        @Override
+        public synchronized void setStatus(int sc) {
+            checkActiveState();
+            super.setStatus(sc);
+        }
+
+        @Override
+        public synchronized void setHeader(String name, String value) {
+            checkActiveState();
+            super.setHeader(name, value);
+        }
+
+        @Override
+        public synchronized void addHeader(String name, String value) {
+            checkActiveState();
+            super.addHeader(name, value);
+        }
+
+        @Override
+        public synchronized void setDateHeader(String name, long date) {
+            checkActiveState();
+            super.setDateHeader(name, date);
+        }
+
+        @Override
+        public synchronized void setContentType(String type) {
+            checkActiveState();
+            super.setContentType(type);
+        }
+
+        @Override
+        public synchronized void setCharacterEncoding(String charset) {
+            checkActiveState();
+            super.setCharacterEncoding(charset);
+        }
+
+        @Override
+        public synchronized void setContentLength(int len) {
+            checkActiveState();
+            super.setContentLength(len);
+        }
+
+        @Override
+        public synchronized void setContentLengthLong(long len) {
+            checkActiveState();
+            super.setContentLengthLong(len);
+        }
+
+        @Override
+        public synchronized void setLocale(Locale locale) {
+            checkActiveState();
+            super.setLocale(locale);
+        }
+
+        @Override
+        public synchronized void setBufferSize(int size) {
+            checkActiveState();
+            super.setBufferSize(size);
+        }
+
+        @Override
+        public synchronized void resetBuffer() {
+            checkActiveState();
+            super.resetBuffer();
+        }
+
+        @Override
+        public synchronized void reset() {
+            checkActiveState();
+            super.reset();
+        }
+
+        @Override
+        public synchronized void addCookie(Cookie cookie) {
+            checkActiveState();
+            super.addCookie(cookie);
+        }
+
+        @Override
+        public synchronized void addDateHeader(String name, long date) {
+            checkActiveState();
+            super.addDateHeader(name, date);
+        }
+
+        @Override
+        public synchronized void setIntHeader(String name, int value) {
+            checkActiveState();
+            super.setIntHeader(name, value);
+        }
+
+        @Override
+        public synchronized void addIntHeader(String name, int value) {
+            checkActiveState();
+            super.addIntHeader(name, value);
+        }
+
+        @Override
+        public synchronized void setTrailerFields(Supplier<Map<String, String>> supplier) {
+            checkActiveState();
+            super.setTrailerFields(supplier);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.scentedbliss.controller;
+
+import com.scentedbliss.model.ProductSummaryModel;
+import com.scentedbliss.model.SessionCart;
+import com.scentedbliss.service.ProductCatalogCache;
+import com.scentedbliss.service.SessionCartService;
+import com.scentedbliss.util.CookieUtil;
+import com.scentedbliss.util.JsonUtil;
+import com.scentedbliss.util.SessionUtil;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * @author 23049172 Sabin Devkota
+ *
+ * A servlet controller exposing a small JSON API over the session cart, so the cart page can
+ * update a single line in place instead of redirecting and re-rendering the whole page.
+ * Requests run through AsyncHttpServlet, on the shared work executor when it is enabled, and
+ * answer with only the changed line and the new cart totals.
+ * Visitors who are not logged in are answered with a JSON 401 by AuthenticationFilter.
+ *
+ * URL Patterns:
+ * - POST /api/cart/add: Adds a quantity of a product (productId, quantity).
+ * - POST /api/cart/quantity: Sets the quantity of a cart line (productId, quantity).
+ * - POST /api/cart/remove: Removes a cart line (productId).
+ * - GET /api/cart/summary: Returns the cart totals.
+ * - GET /api/cart/count: Returns the line and item counters shown in the header badge.
+ *
+ * Response format:
+ * {"ok":true,"line":{...},"summary":{"lines":2,"items":3,"subtotal":"...","shipping":"...","total":"..."}}
+ */
+@WebServlet(asyncSupported = true, urlPatterns = {"/api/cart/*"})
+public class CartApiController extends AsyncHttpServlet {
+    private static final long serialVersionUID = 1L;
+    private static final double DEFAULT_SHIPPING_FEE = 10.00; // Same default as cart.jsp and checkout
+    private static final int COUNT_MAX_AGE_SECONDS = 5; // Browser cache lifetime of the badge counter
+
+    private final SessionCartService sessionCartService = new SessionCartService(); // Session-resident cart operations
+
+    /**
+     * Handles GET requests (summary and count).
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        respond(request, response, false);
+    }
+
+    /**
+     * Handles POST requests (add, quantity, remove).
+     */
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        respond(request, response, true);
+    }
+
+    /**
+     * Handles the request, answering unexpected failures with a JSON error instead of an error page.
+     *
+     * @param request The HTTP request object
+     * @param response The HTTP response object
+     * @param isMutation true for POST requests, which may change the cart
+     */
+    private void respond(HttpServletRequest request, HttpServletResponse response, boolean isMutation) throws IOException {
+        try {
+            handle(request, response, isMutation);
+        } catch (RuntimeException e) {
+            System.err.println("CartApiController: Error handling " + request.getPathInfo() + ": " + e.getMessage());
+            e.printStackTrace();
+            if (!response.isCommitted()) {
+                JsonUtil.writeError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Could not update your cart.");
+            }
+        }
+    }
+
+    /**
+     * Resolves the cart, applies the requested action and writes the JSON response.
+     */
+    private void handle(HttpServletRequest request, HttpServletResponse response, boolean isMutation) throws IOException {
+        String username = CookieUtil.getCookieValue(request, "username");
+        if (username == null) {
+            JsonUtil.writeError(response, HttpServletResponse.SC_UNAUTHORIZED, "Please log in to use your cart.");
+            return;
+        }
+        SessionCart cart = sessionCartService.getSessionCart(request, username);
+        if (cart == null) {
+            JsonUtil.writeError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Could not load your cart. Please try again later.");
+            return;
+        }
+
+        String action = request.getPathInfo() != null ? request.getPathInfo() : "/summary";
+        if ("/count".equals(action)) {
+            // Badge counter: answered from the in-session counters, cacheable briefly by the browser
+            JsonUtil.write(response, HttpServletResponse.SC_OK,
+                    "{\"ok\":true,\"lines\":" + cart.getLineCount() + ",\"items\":" + cart.getItemCount() + "}",
+                    "private, max-age=" + COUNT_MAX_AGE_SECONDS);
+            return;
+        }
+        if ("/summary".equals(action)) {
+            JsonUtil.write(response, HttpServletResponse.SC_OK, "{\"ok\":true,\"summary\":" + summaryJson(request, cart) + "}");
+            return;
+        }
+        if (!isMutation) {
+            JsonUtil.writeError(response, HttpServletResponse.SC_METHOD_NOT_ALLOWED, "Use POST to change the cart.");
+            return;
+        }
+
+        int productId;
+        int quantity;
+        try {
+            productId = Integer.parseInt(request.getParameter("productId")); // Parse product ID
+            String quantityStr = request.getParameter("quantity");
+            quantity = quantityStr != null ? Integer.parseInt(quantityStr) : 1; // Parse quantity (defaults to 1)
+        } catch (NumberFormatException e) {
+            JsonUtil.writeError(response, HttpServletResponse.SC_BAD_REQUEST, "Invalid product ID or quantity.");
+            return;
+        }
+
+        boolean isApplied;
+        switch (action) {
+            case "/add":
+                isApplied = sessionCartService.addProduct(cart, productId, quantity);
+                break;
+            case "/quantity":
+                isApplied = sessionCartService.updateQuantity(cart, productId, Math.max(quantity, 1));
+                break;
+            case "/remove":
+                isApplied = sessionCartService.removeProduct(cart, productId);
+                break;
+            default:
+                JsonUtil.writeError(response, HttpServletResponse.SC_NOT_FOUND, "Unknown cart action.");
+                return;
+        }
+        if (!isApplied) {
+            JsonUtil.writeError(response, HttpServletResponse.SC_NOT_FOUND, "Product is not available in your cart.");
+            return;
+        }
+
+        JsonUtil.write(response, HttpServletResponse.SC_OK,
+                "{\"ok\":true,\"line\":" + lineJson(cart, productId) + ",\"summary\":" + summaryJson(request, cart) + "}");
+    }
+
+    /**
+     * Builds the JSON for one cart line. A removed line is reported with quantity 0.
+     */
+    private String lineJson(SessionCart cart, int productId) {
+        int quantity = cart.getQuantity(productId);
+        ProductSummaryModel product = ProductCatalogCache.getInstance().getProduct(productId);
+        double price = product != null ? product.getPrice() : 0.0;
+        return "{\"productId\":" + productId
+                + ",\"productName\":" + JsonUtil.quote(product != null ? product.getProductName() : null)
+                + ",\"quantity\":" + quantity
+                + ",\"price\":" + amount(price)
+                + ",\"lineTotal\":" + amount(price * quantity) + "}";
+    }
+
+    /**
+     * Builds the JSON for the cart totals, using the session shipping fee if one is set.
+     */
+    private String summaryJson(HttpServletRequest request, SessionCart cart) {
+        Object fee = SessionUtil.getAttribute(request, "shippingFee");
+        double shipping = fee instanceof Double ? (Double) fee : DEFAULT_SHIPPING_FEE;
+        double subtotal = sessionCartService.getSubtotal(cart);
+        return "{\"lines\":" + cart.getLineCount()
+                + ",\"items\":" + cart.getItemCount()
+                + ",\"subtotal\":" + amount(subtotal)
+                + ",\"shipping\":" + amount(shipping)
+                + ",\"total\":" + amount(subtotal + shipping) + "}";
+    }
+
+    private static String amount(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+}
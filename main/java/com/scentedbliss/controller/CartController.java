@@ -1,36 +1,32 @@
 package com.scentedbliss.controller;
 
-import com.scentedbliss.config.DbConfig;
-import com.scentedbliss.service.CartService;
+import com.scentedbliss.model.SessionCart;
+import com.scentedbliss.service.SessionCartService;
+
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.Cookie;
-import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 
 /**
  * @author 23049172 Sabin Devkota
  * 
  * A servlet controller for managing cart-related operations in the application.
  * Handles HTTP GET and POST requests to view the cart, add products to the cart,
- * update product quantities, and remove products from the cart. It uses the
- * CartService to interact with the database and enforces authentication by checking
- * for a username cookie.
+ * update product quantities, and remove products from the cart. The active cart is kept
+ * in the session and persisted in the background by SessionCartService, and authentication
+ * is enforced by checking for a username cookie.
  * 
  * URL Patterns:
  * - /cart: Displays the user's cart and handles update/remove actions.
  * - /addtocart: Adds a product to the user's cart.
  */
 @WebServlet(asyncSupported = true, urlPatterns = {"/cart", "/addtocart"}) // Supports async operations, maps to /cart and /addtocart
-public class CartController extends HttpServlet {
+public class CartController extends AsyncHttpServlet {
     private static final long serialVersionUID = 1L; // Serialization ID for the servlet
-    private final CartService cartService = new CartService(); // Instance of CartService for cart operations
+    private final SessionCartService sessionCartService = new SessionCartService(); // Session-resident cart operations
 
     /**
      * Handles HTTP GET requests to display the cart or perform cart actions (e.g., update quantity, delete items).
@@ -57,32 +53,21 @@ public class CartController extends HttpServlet {
         request.getSession().setAttribute("username", username); // Store username in session
         System.out.println("CartController doGet: Set sessionScope.username = " + username); // Log session attribute
 
-        // Retrieve user ID based on username
-        int userId = getUserIdByUsername(username);
-        if (userId == -1) {
-            System.out.println("CartController doGet: User not found for username = " + username);
-            handleError(request, response, "User not found."); // Handle error if user not found
+        // Get the session cart, loading it from the database on first use
+        SessionCart cart = sessionCartService.getSessionCart(request, username);
+        if (cart == null) {
+            System.out.println("CartController doGet: Could not load cart for username = " + username);
+            handleError(request, response, "Could not load your cart. Please try again later."); // Handle cart load failure
             return;
         }
 
-        // Get or create a cart for the user
-        Integer cartId = cartService.getCartIdByUserId(userId);
-        if (cartId == null) {
-            cartId = cartService.createCart(userId); // Create a new cart if none exists
-            if (cartId == null) {
-                System.out.println("CartController doGet: Failed to create cart for userId = " + userId);
-                handleError(request, response, "Could not create cart. Please try again later."); // Handle cart creation failure
-                return;
-            }
-        }
-
         // Handle action: update quantity
         if ("updateQuantity".equals(action)) {
             try {
                 int productId = Integer.parseInt(request.getParameter("productId")); // Parse product ID
                 int quantity = Integer.parseInt(request.getParameter("quantity")); // Parse quantity
                 if (quantity < 1) quantity = 1; // Ensure quantity is at least 1
-                boolean isUpdated = cartService.updateCartProductQuantity(cartId, productId, quantity); // Update quantity
+                boolean isUpdated = sessionCartService.updateQuantity(cart, productId, quantity); // Update quantity
                 if (isUpdated) {
                     request.getSession().setAttribute("success", "Quantity updated successfully!"); // Set success message
                 } else {
@@ -98,7 +83,7 @@ public class CartController extends HttpServlet {
         else if ("delete".equals(action)) {
             try {
                 int productId = Integer.parseInt(request.getParameter("productId")); // Parse product ID
-                boolean isDeleted = cartService.removeProductFromCart(cartId, productId); // Remove product from cart
+                boolean isDeleted = sessionCartService.removeProduct(cart, productId); // Remove product from cart
                 if (isDeleted) {
                     request.getSession().setAttribute("success", "Product removed from cart!"); // Set success message
                 } else {
@@ -111,11 +96,11 @@ public class CartController extends HttpServlet {
             return;
         }
 
-        // Default action: display cart
-        request.setAttribute("cartList", cartService.getCartProducts(cartId)); // Fetch cart products and set as request attribute
+        // Default action: display cart, priced from the catalog cache
+        request.setAttribute("cartList", sessionCartService.getCartProducts(cart)); // Build cart lines and set as request attribute
         System.out.println("CartController doGet: Forwarding to cart.jsp with cartList size = " + 
             (request.getAttribute("cartList") != null ? ((java.util.List<?>)request.getAttribute("cartList")).size() : 0)); // Log cart size
-        request.getRequestDispatcher("/WEB-INF/pages/cart.jsp").forward(request, response); // Forward to cart JSP page
+        forward(request, response, "/WEB-INF/pages/cart.jsp"); // Forward to cart JSP page
     }
 
     /**
@@ -145,27 +130,15 @@ public class CartController extends HttpServlet {
             request.getSession().setAttribute("username", username); // Store username in session
             System.out.println("CartController doPost: Set sessionScope.username = " + username); // Log session attribute
 
-            // Retrieve user ID based on username
-            int userId = getUserIdByUsername(username);
-            if (userId == -1) {
-                System.out.println("CartController doPost: User not found for username = " + username);
-                request.getSession().setAttribute("error", "User not found."); // Set error message
+            // Get the session cart, loading it from the database on first use
+            SessionCart cart = sessionCartService.getSessionCart(request, username);
+            if (cart == null) {
+                System.out.println("CartController doPost: Could not load cart for username = " + username);
+                request.getSession().setAttribute("error", "Could not load your cart. Please try again later."); // Set error message
                 response.sendRedirect(request.getContextPath() + "/ShopProduct"); // Redirect to ShopProduct page
                 return;
             }
 
-            // Get or create a cart for the user
-            Integer cartId = cartService.getCartIdByUserId(userId);
-            if (cartId == null) {
-                cartId = cartService.createCart(userId); // Create a new cart if none exists
-                if (cartId == null) {
-                    System.out.println("CartController doPost: Failed to create cart for userId = " + userId);
-                    request.getSession().setAttribute("error", "Could not create cart. Please try again later."); // Set error message
-                    response.sendRedirect(request.getContextPath() + "/ShopProduct"); // Redirect to ShopProduct page
-                    return;
-                }
-            }
-
             // Add product to cart
             try {
                 int productId = Integer.parseInt(request.getParameter("productId")); // Parse product ID
@@ -176,7 +149,7 @@ public class CartController extends HttpServlet {
                     return;
                 }
 
-                boolean isAdded = cartService.addProductToCart(cartId, productId, quantity); // Add product to cart
+                boolean isAdded = sessionCartService.addProduct(cart, productId, quantity); // Add product to cart
                 if (isAdded) {
                     System.out.println("CartController doPost: Product added to cart, productId = " + productId);
                     request.getSession().setAttribute("success", "Product added to cart!"); // Set success message
@@ -216,31 +189,6 @@ public class CartController extends HttpServlet {
         return null;
     }
 
-    /**
-     * Retrieves the user ID from the database based on the username.
-     * 
-     * @param username The username to look up
-     * @return The user ID if found, -1 otherwise
-     */
-    private int getUserIdByUsername(String username) {
-        String query = "SELECT userId FROM users WHERE username = ?"; // SQL query to fetch user ID
-        try (Connection conn = DbConfig.getDbConnection(); // Establish database connection
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, username); // Bind the username parameter
-            ResultSet rs = stmt.executeQuery(); // Execute the query
-            if (rs.next()) {
-                int userId = rs.getInt("userId"); // Retrieve user ID
-                System.out.println("getUserIdByUsername: Found userId = " + userId + " for username = " + username); // Log found user ID
-                return userId;
-            }
-        } catch (SQLException | ClassNotFoundException e) {
-            System.err.println("SQL Error during user ID retrieval: " + e.getMessage()); // Log SQL or class loading error
-            e.printStackTrace();
-        }
-        System.out.println("getUserIdByUsername: No userId found for username = " + username); // Log if no user ID is found
-        return -1; // Return -1 if user not found or error occurs
-    }
-
     /**
      * Handles errors by setting an error message attribute and forwarding to the cart JSP page.
      * 
@@ -254,6 +202,6 @@ public class CartController extends HttpServlet {
             throws ServletException, IOException {
         System.out.println("handleError: " + message); // Log the error message
         req.setAttribute("error", message); // Set error message as request attribute
-        req.getRequestDispatcher("/WEB-INF/pages/cart.jsp").forward(req, resp); // Forward to cart JSP page
+        forward(req, resp, "/WEB-INF/pages/cart.jsp"); // Forward to cart JSP page
     }
 }
\ No newline at end of file
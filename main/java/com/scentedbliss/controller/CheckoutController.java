@@ -1,14 +1,16 @@
 package com.scentedbliss.controller;
 
-import com.scentedbliss.config.DbConfig;
+import com.scentedbliss.config.ConnectionPool;
 import com.scentedbliss.model.ProductModel;
+import com.scentedbliss.model.SessionCart;
 import com.scentedbliss.service.CartService;
+import com.scentedbliss.service.CartWriteBehindQueue;
 import com.scentedbliss.service.OrderService;
+import com.scentedbliss.service.SessionCartService;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.Cookie;
-import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
@@ -31,10 +33,12 @@ import java.util.List;
  * - /checkout: Processes the checkout action.
  */
 @WebServlet(asyncSupported = true, urlPatterns = {"/checkout"}) // Supports async operations, maps to /checkout
-public class CheckoutController extends HttpServlet {
+public class CheckoutController extends AsyncHttpServlet {
     private static final long serialVersionUID = 1L; // Serialization ID for the servlet
     private final CartService cartService = new CartService(); // Instance of CartService for cart operations
     private final OrderService orderService = new OrderService(); // Instance of OrderService for order operations
+    private final SessionCartService sessionCartService = new SessionCartService(); // Session-resident cart operations
+    private final CartWriteBehindQueue writeQueue = CartWriteBehindQueue.getInstance(); // Pending cart changes
 
     /**
      * Handles HTTP POST requests to process the checkout operation.
@@ -81,6 +85,48 @@ public class CheckoutController extends HttpServlet {
             return;
         }
 
+        // Use the session cart of this user's cart; reload it if the session holds a different cart
+        SessionCart sessionCart = sessionCartService.getSessionCart(request, username);
+        if (sessionCart != null && sessionCart.getCartId() != cartId) {
+            System.out.println("CheckoutController doPost: Session holds cartId = " + sessionCart.getCartId()
+                    + " instead of cartId = " + cartId + ", reloading");
+            sessionCart = sessionCartService.reloadSessionCart(request, username, userId);
+        }
+        if (sessionCart == null) {
+            System.out.println("CheckoutController doPost: Could not load cart for userId = " + userId);
+            request.getSession().setAttribute("error", "Error processing checkout. Please try again."); // Set error message
+            response.sendRedirect(request.getContextPath() + "/cart"); // Redirect to cart page
+            return;
+        }
+
+        // Hold the cart lock from the flush until the cart is emptied, so no change made by this
+        // session in between is written after the cart rows are deleted
+        synchronized (sessionCart) {
+            placeOrder(request, response, userId, cartId, sessionCart);
+        }
+    }
+
+    /**
+     * Creates the order from the persisted cart and empties the cart. Runs while holding the
+     * session cart's lock.
+     * 
+     * @param request The HTTP request object
+     * @param response The HTTP response object
+     * @param userId The ID of the user checking out
+     * @param cartId The ID of the user's cart
+     * @param sessionCart The session-resident copy of the cart
+     * @throws IOException If an I/O error occurs
+     */
+    private void placeOrder(HttpServletRequest request, HttpServletResponse response, int userId, int cartId,
+            SessionCart sessionCart) throws IOException {
+        // Persist pending session cart changes so the cart read below is up to date
+        if (!writeQueue.flushCart(cartId)) {
+            System.out.println("CheckoutController doPost: Could not persist pending cart changes for cartId = " + cartId);
+            request.getSession().setAttribute("error", "Error processing checkout. Please try again."); // Set error message
+            response.sendRedirect(request.getContextPath() + "/cart"); // Redirect to cart page
+            return;
+        }
+
         // Retrieve cart items
         List<ProductModel> cartItems = cartService.getCartProducts(cartId);
         if (cartItems.isEmpty()) {
@@ -108,7 +154,7 @@ public class CheckoutController extends HttpServlet {
         }
 
         // Process checkout within a transaction
-        try (Connection conn = DbConfig.getDbConnection()) {
+        try (Connection conn = ConnectionPool.getConnection()) {
             conn.setAutoCommit(false); // Disable auto-commit for transaction management
             try {
                 // Create order in the database
@@ -146,10 +192,6 @@ public class CheckoutController extends HttpServlet {
                     }
                 }
 
-                // Redirect to order confirmation page
-                System.out.println("CheckoutController doPost: Order created successfully, orderId = " + orderId); // Log success
-                response.sendRedirect(request.getContextPath() + "/orderComplete"); // Redirect to confirmation page
-
                 // Clear the cart after successful order creation
                 String clearCartSql = "DELETE FROM cart_product WHERE cartId = ?";
                 PreparedStatement clearStmt = conn.prepareStatement(clearCartSql);
@@ -159,6 +201,14 @@ public class CheckoutController extends HttpServlet {
                 // Commit the transaction
                 conn.commit(); // Commit changes if all operations succeed
 
+                // Empty the session-resident copy of the cart, and drop changes queued by other sessions of the user
+                writeQueue.discardCart(cartId);
+                sessionCart.clear();
+
+                // Redirect to order confirmation page
+                System.out.println("CheckoutController doPost: Order created successfully, orderId = " + orderId); // Log success
+                response.sendRedirect(request.getContextPath() + "/orderComplete"); // Redirect to confirmation page
+
             } catch (SQLException e) {
                 conn.rollback(); // Roll back transaction if an error occurs
                 throw e; // Re-throw to handle in outer catch block
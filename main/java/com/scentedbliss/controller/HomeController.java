@@ -43,11 +43,7 @@ public class HomeController extends HttpServlet {
 	protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
 		// TODO Auto-generated method stub
 		String path = request.getServletPath(); // Get the requested path
-		
-		if (path.startsWith("/images/") || path.startsWith("/css/") || path.startsWith("/js/")) {
-            request.getRequestDispatcher(path).forward(request, response);
-            return;
-        }
+		// Static files under /css and /resources are served by StaticResourceController
         
        
          if (path.equals("/aboutus")) {
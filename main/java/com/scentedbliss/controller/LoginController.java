@@ -6,6 +6,7 @@ import java.io.IOException;
 
 import com.scentedbliss.model.UserModel;
 import com.scentedbliss.service.LoginService;
+import com.scentedbliss.service.SessionCartService;
 import com.scentedbliss.util.CookieUtil;
 import com.scentedbliss.util.SessionUtil;
 
@@ -31,6 +32,7 @@ public class LoginController extends HttpServlet {
 	private static final long serialVersionUID = 1L;
 
 	private final LoginService loginService;
+	private final SessionCartService sessionCartService = new SessionCartService();
 
 	/**
 	 * Constructor initializes the LoginService.
@@ -102,6 +104,10 @@ public class LoginController extends HttpServlet {
             String role = userModel.getRole();
             SessionUtil.setAttribute(req, "role", role);
             CookieUtil.addCookie(resp, "username", userModel.getUsername(), 24 * 60 * 60); // 1 day
+            if (!"Admin".equalsIgnoreCase(role)) {
+                // Load the cart once at login so the header badge is served from the session afterwards
+                sessionCartService.getSessionCart(req, userModel.getUsername());
+            }
             // Redirect based on role
             if ("Admin".equalsIgnoreCase(role)) {
                 resp.sendRedirect(req.getContextPath() + "/dashboard");
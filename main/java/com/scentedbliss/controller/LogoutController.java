@@ -8,6 +8,9 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 
+import com.scentedbliss.model.SessionCart;
+import com.scentedbliss.service.CartWriteBehindQueue;
+import com.scentedbliss.service.SessionCartService;
 import com.scentedbliss.util.CookieUtil;
 import com.scentedbliss.util.SessionUtil;
 
@@ -23,6 +26,11 @@ public class LogoutController extends HttpServlet {
 	private static final long serialVersionUID = 1L;
 
 	protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+		// Persist any cart changes still waiting in the write-behind queue before the session goes away
+		SessionCart cart = (SessionCart) SessionUtil.getAttribute(request, SessionCartService.SESSION_ATTRIBUTE);
+		if (cart != null) {
+			CartWriteBehindQueue.getInstance().flushCart(cart.getCartId());
+		}
 		CookieUtil.deleteCookie(response, "username");
 		SessionUtil.invalidateSession(request);
 		response.sendRedirect(request.getContextPath() + "/login");
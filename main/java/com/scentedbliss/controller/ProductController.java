@@ -47,6 +47,8 @@ public class ProductController extends HttpServlet {
             request.getRequestDispatcher("/WEB-INF/pages/product.jsp").forward(request, response);
             return;
         } else if ("editProduct".equals(action)) {
+            String uploadedImageUrl = null; // Reference taken by a new upload, released if the update fails
+            boolean isUpdated = false;
             try {
                 int productId = Integer.parseInt(request.getParameter("productId"));
                 ProductModel product = productService.getProductById(productId);
@@ -72,6 +74,8 @@ public class ProductController extends HttpServlet {
         String action = request.getParameter("formSubmit");
 
         if ("addProduct".equals(action)) {
+            String imageUrl = null; // Holds a reference on the stored image until the product is saved
+            boolean isAdded = false;
             try {
                 String validationMessage = validateProductForm(request);
                 if (validationMessage != null) {
@@ -80,7 +84,7 @@ public class ProductController extends HttpServlet {
                 }
 
                 ProductModel product = extractProductModel(request);
-                String imageUrl = uploadImage(request, null);
+                imageUrl = uploadImage(request, null);
 
                 if (imageUrl == null) {
                     handleError(request, response, "Could not upload the image. Please try again later!");
@@ -88,9 +92,10 @@ public class ProductController extends HttpServlet {
                 }
 
                 product.setProductImage(imageUrl);
-                Boolean isAdded = productService.addProduct(product);
+                Boolean result = productService.addProduct(product);
+                isAdded = Boolean.TRUE.equals(result);
 
-                if (isAdded == null) {
+                if (result == null) {
                     handleError(request, response, "Our server is under maintenance. Please try again later!");
                 } else if (isAdded) {
                     handleSuccess(request, response, "Product successfully added!", "/WEB-INF/pages/productlist.jsp");
@@ -100,8 +105,14 @@ public class ProductController extends HttpServlet {
             } catch (Exception e) {
                 handleError(request, response, "An unexpected error occurred. Please try again later!");
                 e.printStackTrace();
+            } finally {
+                if (!isAdded) {
+                    releaseImage(request, imageUrl); // No product refers to the upload
+                }
             }
         } else if ("editProduct".equals(action)) {
+            String uploadedImageUrl = null; // Reference taken by a new upload, released if the update fails
+            boolean isUpdated = false;
             try {
                 String validationMessage = validateProductForm(request);
                 if (validationMessage != null) {
@@ -130,17 +141,24 @@ public class ProductController extends HttpServlet {
                         handleError(request, response, "Could not upload the image. Please try again later!");
                         return;
                     }
+                    uploadedImageUrl = imageUrl;
                 } else {
                     // No new image, retain existing image URL
                     imageUrl = existingProduct.getProductImage();
                 }
 
                 product.setProductImage(imageUrl);
-                Boolean isUpdated = productService.updateProduct(product);
+                Boolean result = productService.updateProduct(product);
+                isUpdated = Boolean.TRUE.equals(result);
 
-                if (isUpdated == null) {
+                if (result == null) {
                     handleError(request, response, "Our server is under maintenance. Please try again later!");
                 } else if (isUpdated) {
+                    if (uploadedImageUrl != null) {
+                        // The product now holds the new reference; drop the one on the previous image,
+                        // once, even if identical bytes were uploaded again and the URL is unchanged
+                        releaseImage(request, existingProduct.getProductImage());
+                    }
                     handleSuccess(request, response, "Product successfully updated!", "/WEB-INF/pages/productlist.jsp");
                 } else {
                     handleError(request, response, "Could not update product. Please try again later!");
@@ -148,15 +166,23 @@ public class ProductController extends HttpServlet {
             } catch (Exception e) {
                 handleError(request, response, "An unexpected error occurred. Please try again later!");
                 e.printStackTrace();
+            } finally {
+                if (!isUpdated) {
+                    releaseImage(request, uploadedImageUrl); // The product keeps its previous image
+                }
             }
         } else if ("removeProduct".equals(action)) {
             try {
                 int productId = Integer.parseInt(request.getParameter("productId"));
+                ProductModel existingProduct = productService.getProductById(productId);
                 Boolean isDeleted = productService.deleteProduct(productId);
 
                 if (isDeleted == null) {
                     handleError(request, response, "Our server is under maintenance. Please try again later!");
                 } else if (isDeleted) {
+                    if (existingProduct != null) {
+                        releaseImage(request, existingProduct.getProductImage());
+                    }
                     handleSuccess(request, response, "Product successfully removed!", "/WEB-INF/pages/productlist.jsp");
                 } else {
                     handleError(request, response, "Could not remove product. Please try again later!");
@@ -246,13 +272,14 @@ public class ProductController extends HttpServlet {
         }
 
         String rootPath = req.getServletContext().getRealPath("/");
-        boolean isUploaded = imageUtil.uploadImage(image, rootPath, saveFolder);
+        return imageUtil.uploadImage(image, rootPath, saveFolder); // null if the upload fails
+    }
 
-        if (isUploaded) {
-            return "/resources/images" + saveFolder + "/" + imageUtil.getImageNameFromPart(image);
-        }
-        // Return existing image URL if upload fails and it exists, otherwise default
-        return existingImageUrl != null ? existingImageUrl : defaultImage;
+    /**
+     * Releases one reference to a stored image; does nothing for null or images not in the index.
+     */
+    private void releaseImage(HttpServletRequest req, String imageUrl) {
+        imageUtil.releaseImage(req.getServletContext().getRealPath("/"), imageUrl);
     }
 
     private void handleSuccess(HttpServletRequest req, HttpServletResponse resp, String message, String redirectPage)
@@ -2,9 +2,12 @@ package com.scentedbliss.controller;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
 
 import com.scentedbliss.model.UserModel;
 import com.scentedbliss.service.RegisterService;
+import com.scentedbliss.service.UserUniquenessService;
 import com.scentedbliss.util.ValidationUtil;
 import com.scentedbliss.util.ImageUtil;
 import com.scentedbliss.util.PasswordUtil;
@@ -72,6 +75,8 @@ public class RegisterController extends HttpServlet {
      */
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        String imageUrl = null; // Holds a reference on the stored image until the user is saved
+        boolean isRegistered = false;
         try {
             // Validate form input
             String validationMessage = validateRegistrationForm(req);
@@ -83,7 +88,7 @@ public class RegisterController extends HttpServlet {
             // Extract user data into UserModel
             UserModel userModel = extractUserModel(req);
             // Upload user profile image
-            String imageUrl = uploadImage(req);
+            imageUrl = uploadImage(req);
             if (imageUrl == null) {
                 handleError(req, resp, "Could not upload the image. Please try again later!");
                 return;
@@ -92,10 +97,13 @@ public class RegisterController extends HttpServlet {
             System.out.println("Image URL set in UserModel: " + imageUrl);
             // Attempt to register the user
             Boolean isAdded = RegisterService.addUser(userModel);
+            isRegistered = Boolean.TRUE.equals(isAdded);
 
             if (isAdded == null) {
                 handleError(req, resp, "Our server is under maintenance. Please try again later!");
             } else if (isAdded) {
+                // Later registrations must see the new values as taken
+                UserUniquenessService.getInstance().register(userModel.getUsername(), userModel.getEmail(), userModel.getPhoneNumber());
                 handleSuccess(req, resp, "Your account is successfully created!", "/WEB-INF/pages/login.jsp");
             } else {
                 handleError(req, resp, "Could not register your account. Please try again later!");
@@ -103,6 +111,10 @@ public class RegisterController extends HttpServlet {
         } catch (Exception e) {
             handleError(req, resp, "An unexpected error occurred. Please try again later!");
             e.printStackTrace();
+        } finally {
+            if (!isRegistered && imageUrl != null) {
+                ImageUtil.releaseImage(req.getServletContext().getRealPath("/"), imageUrl); // No user refers to the upload
+            }
         }
     }
 
@@ -151,16 +163,20 @@ public class RegisterController extends HttpServlet {
         if (ValidationUtil.isNullOrEmpty(retypePassword))
             return "Please retype the password.";
         
-        // Check for uniqueness of email, phone number, and username
-        if (!ValidationUtil.isEmailUnique(email)) {
+        // Check for uniqueness of email, phone number, and username (one lookup for all three)
+        Set<UserUniquenessService.Field> takenFields = UserUniquenessService.getInstance()
+                .getTakenFields(username, email, phoneNumber);
+        if (takenFields == null)
+            return "Our server is under maintenance. Please try again later!";
+        if (takenFields.contains(UserUniquenessService.Field.EMAIL)) {
             return "Email is already in use!";
         }
 
-        if (!ValidationUtil.isPhoneUnique(phoneNumber)) {
+        if (takenFields.contains(UserUniquenessService.Field.PHONE)) {
             return "Phone number is already in use!";
         }
         
-        if (!ValidationUtil.isUsernameUnique(username))
+        if (takenFields.contains(UserUniquenessService.Field.USERNAME))
             return "Username is already taken. Please choose a different one.";
 
         // Validate date of birth format
@@ -171,24 +187,11 @@ public class RegisterController extends HttpServlet {
             return "Invalid date format. Please use YYYY-MM-DD.";
         }
 
-        // Validate field formats and constraints
-        if (!ValidationUtil.isAlphabetic(firstName))
-            return "First name must contain only letters.";
-        if (!ValidationUtil.isAlphabeticOnly(lastName))
-            return "Last name must contain only letters.";
-
-        if (!ValidationUtil.isAlphanumericStartingWithLetter(username))
-            return "Username must start with a letter and contain only letters and numbers.";
-        if (!ValidationUtil.isValidGender(gender))
-            return "Gender must be 'male' or 'female'.";
-        if (!ValidationUtil.isValidEmail(email))
-            return "Invalid email format.";
-        if (!ValidationUtil.isValidPhoneNumber(phoneNumber))
-            return "Phone number must be 10 digits and start with 98.";
-        if (!ValidationUtil.isValidPassword(password))
-            return "Password must be at least 8 characters long, with 1 uppercase letter, 1 number, and 1 symbol.";
-        if (!ValidationUtil.doPasswordsMatch(password, retypePassword))
-            return "Passwords do not match.";
+        // Validate field formats and constraints, reporting the first problem on the form
+        Map<String, String> fieldErrors = ValidationUtil.validateRegistrationFields(firstName, lastName, username,
+                gender, email, phoneNumber, password, retypePassword);
+        if (!fieldErrors.isEmpty())
+            return fieldErrors.values().iterator().next();
 
         // Check minimum age requirement
         if (!ValidationUtil.isAgeAtLeast16(dob))
@@ -241,10 +244,10 @@ public class RegisterController extends HttpServlet {
 
     /**
      * Uploads the user's profile image and returns the image URL.
-     * Uses a default image if no image is provided or upload fails.
+     * Uses a default image if no image is provided.
      * 
      * @param req The HTTP request object containing the image part
-     * @return The URL of the uploaded image or the default image URL
+     * @return The URL of the uploaded image or the default image URL, or null if the upload fails
      * @throws IOException      If an I/O error occurs
      * @throws ServletException If a servlet-specific error occurs
      */
@@ -260,11 +263,7 @@ public class RegisterController extends HttpServlet {
 
         // Upload image to server
         String rootPath = req.getServletContext().getRealPath("/");
-        boolean isUploaded = ImageUtil.uploadImage(image, rootPath, saveFolder);
-        if (isUploaded) {
-            return "/resources/images" + saveFolder + "/" + ImageUtil.getImageNameFromPart(image);
-        }
-        return defaultImage; // Fallback to default if upload fails
+        return ImageUtil.uploadImage(image, rootPath, saveFolder); // null if the upload fails
     }
 
     /**
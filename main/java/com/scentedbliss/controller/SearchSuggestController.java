@@ -0,0 +1,77 @@
+package com.scentedbliss.controller;
+
+import com.scentedbliss.service.ProductSearchIndex;
+import com.scentedbliss.util.JsonUtil;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * @author 23049172 Sabin Devkota
+ *
+ * A servlet controller answering search-as-you-type requests from the search box on the shop
+ * page. Suggestions come from the in-memory ProductSearchIndex, so a request never touches the
+ * database and is answered on the calling thread.
+ *
+ * URL Patterns:
+ * - GET /api/suggest?q=sau&k=8: Returns up to k (default 8, at most 10) product names and
+ *   brands starting with q, best sellers first.
+ *
+ * Response format:
+ * {"ok":true,"suggestions":[{"text":"Sauvage","type":"product","productId":3},{"text":"Dior","type":"brand"}]}
+ */
+@WebServlet(asyncSupported = true, urlPatterns = {"/api/suggest"})
+public class SearchSuggestController extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+    private static final int DEFAULT_LIMIT = 8; // Suggestions returned when k is not given
+    private static final int MAX_QUERY_LENGTH = 100; // Longer input is not a prefix worth looking up
+    private static final int MAX_AGE_SECONDS = 60; // Browser cache lifetime of a suggestion list
+
+    /**
+     * Handles GET requests by looking up the typed prefix.
+     *
+     * @param request The HTTP request object containing the q and k parameters
+     * @param response The HTTP response object
+     * @throws ServletException If a servlet-specific error occurs
+     * @throws IOException If an I/O error occurs
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        String query = request.getParameter("q");
+        int limit = DEFAULT_LIMIT;
+        try {
+            String limitStr = request.getParameter("k");
+            if (limitStr != null) {
+                limit = Math.max(1, Math.min(Integer.parseInt(limitStr), ProductSearchIndex.MAX_SUGGESTIONS));
+            }
+        } catch (NumberFormatException e) {
+            JsonUtil.writeError(response, HttpServletResponse.SC_BAD_REQUEST, "Invalid number of suggestions.");
+            return;
+        }
+        if (query == null || query.length() > MAX_QUERY_LENGTH) {
+            query = ""; // Answered with an empty list
+        }
+
+        List<ProductSearchIndex.Suggestion> suggestions = ProductSearchIndex.getInstance().suggest(query, limit);
+        StringBuilder json = new StringBuilder("{\"ok\":true,\"suggestions\":[");
+        for (int i = 0; i < suggestions.size(); i++) {
+            ProductSearchIndex.Suggestion suggestion = suggestions.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"text\":").append(JsonUtil.quote(suggestion.getText()))
+                .append(",\"type\":").append(JsonUtil.quote(suggestion.getType()));
+            if (suggestion.getProductId() > 0) {
+                json.append(",\"productId\":").append(suggestion.getProductId());
+            }
+            json.append('}');
+        }
+        json.append("]}");
+        JsonUtil.write(response, HttpServletResponse.SC_OK, json.toString(), "private, max-age=" + MAX_AGE_SECONDS);
+    }
+}
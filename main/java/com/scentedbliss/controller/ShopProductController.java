@@ -1,9 +1,14 @@
 package com.scentedbliss.controller;
 
+import com.scentedbliss.model.SessionCart;
+import com.scentedbliss.service.ProductCardCache;
+import com.scentedbliss.service.ProductCatalogCache;
 import com.scentedbliss.service.ProductService;
+import com.scentedbliss.service.SessionCartService;
+import com.scentedbliss.util.ConditionalRequestUtil;
+import com.scentedbliss.util.SessionUtil;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
-import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
@@ -13,14 +18,16 @@ import java.io.IOException;
  * 
  * Servlet controller for handling product-related requests in the shop.
  * Processes GET and POST requests to display a filtered product list or individual product details.
- * Uses ProductService to fetch products and brands from the database.
+ * Uses ProductService to fetch products and brands from the database, and ProductCardCache
+ * to build the product grid from cached card HTML.
  * 
  * URL Patterns:
  * - /ShopProduct: Displays a filtered list of products with search, sort, and filter options.
- * - /productDetail: Displays details for a specific product based on product ID.
+ * - /productDetail: Displays details for a specific product based on product ID. Repeat visits
+ *   are answered with 304 Not Modified using validators from ProductCatalogCache.
  */
 @WebServlet(asyncSupported = true, urlPatterns = { "/ShopProduct", "/productDetail" })
-public class ShopProductController extends HttpServlet {
+public class ShopProductController extends AsyncHttpServlet {
     private static final long serialVersionUID = 1L;
     // Service for handling product-related database operations
     private final ProductService productService = new ProductService();
@@ -66,14 +73,19 @@ public class ShopProductController extends HttpServlet {
             try {
                 // Parse product ID and fetch product details
                 int productId = Integer.parseInt(productIdStr);
+                // Answer repeat visits from the catalog cache, before the product is loaded
+                if (isProductNotModified(request, response, productId)) {
+                    return;
+                }
                 var product = productService.getProductById(productId);
                 if (product == null) {
                     System.err.println("No product found for productId: " + productId);
                     request.setAttribute("errorMessage", "Product not found");
+                    response.setHeader("Cache-Control", "no-store"); // Never revalidate an error page as current
                 }
                 // Set product attribute and forward to product detail page
                 request.setAttribute("product", product);
-                request.getRequestDispatcher("/WEB-INF/pages/productDetail.jsp").forward(request, response);
+                forward(request, response, "/WEB-INF/pages/productDetail.jsp");
             } catch (NumberFormatException e) {
                 // Handle invalid product ID format
                 System.err.println("Invalid product ID format: " + productIdStr);
@@ -105,6 +117,9 @@ public class ShopProductController extends HttpServlet {
             // Fetch filtered products and all brands
             var products = productService.getFilteredProducts(searchTerm, sort, filter, showMore);
             request.setAttribute("products", products);
+            // Assemble the grid from cached card HTML, 8 cards unless showMore is true
+            request.setAttribute("productGrid", ProductCardCache.getInstance()
+                    .renderGrid(products, showMore ? products.size() : 8, request.getContextPath()));
             request.setAttribute("brands", productService.getAllBrands());
             // Preserve query parameters for the view
             request.setAttribute("searchTerm", searchTerm);
@@ -113,8 +128,40 @@ public class ShopProductController extends HttpServlet {
             request.setAttribute("showMore", showMore);
 
             // Forward to the shop product page
-            request.getRequestDispatcher("/WEB-INF/pages/ShopProduct.jsp").forward(request, response);
+            forward(request, response, "/WEB-INF/pages/ShopProduct.jsp");
+        }
+    }
+
+    /**
+     * Sets the validators of a product detail page and checks them against the request.
+     * The ETag also covers what the header shows to this visitor (role and cart item count),
+     * since the page is personalized; Cache-Control keeps shared caches from storing it.
+     * No Last-Modified is sent: a product time cannot tell that the viewer's header changed,
+     * so If-Modified-Since alone would answer 304 with a stale cart count.
+     *
+     * @param request  The HTTP request object
+     * @param response The HTTP response object
+     * @param productId The ID of the product shown
+     * @return true if a 304 Not Modified response was sent
+     */
+    private boolean isProductNotModified(HttpServletRequest request, HttpServletResponse response, int productId) {
+        ProductCatalogCache catalog = ProductCatalogCache.getInstance();
+        String productEtag = catalog.getProductEtag(productId);
+        if (productEtag == null) {
+            return false; // Unknown product, rendered as not found
+        }
+        Object cart = SessionUtil.getAttribute(request, SessionCartService.SESSION_ATTRIBUTE);
+        int itemCount = cart instanceof SessionCart ? ((SessionCart) cart).getItemCount() : 0;
+        String viewer = SessionUtil.getAttribute(request, "role") + "/" + itemCount;
+        String etag = productEtag.substring(0, productEtag.length() - 1) + "-" + Integer.toString(viewer.hashCode(), 36) + "\"";
+
+        response.setHeader("ETag", "W/" + etag); // Weak, as CompressionFilter may send it gzip-encoded
+        response.setHeader("Cache-Control", "private, no-cache");
+        if (ConditionalRequestUtil.isNotModified(request, etag, -1)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
         }
+        return false;
     }
 
     /**
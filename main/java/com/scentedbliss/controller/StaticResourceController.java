@@ -0,0 +1,277 @@
+package com.scentedbliss.controller;
+
+import com.scentedbliss.util.AssetManifest;
+import com.scentedbliss.util.CompressionUtil;
+import com.scentedbliss.util.ConditionalRequestUtil;
+import com.scentedbliss.util.ImageUtil;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * @author 23049172 Sabin Devkota
+ *
+ * A servlet that serves the static files under /css and /resources (stylesheets, system images
+ * and uploaded product and profile images). It never reads the session and no filter is
+ * mapped to it (see AppContextListener). Large files are handed to the connector's sendfile
+ * support, so Tomcat writes them to the socket from the file without copying them through the
+ * servlet; smaller files, and all files on connectors without sendfile, are copied to the
+ * response stream. Every response carries a strong ETag (a hash of the file content),
+ * Last-Modified and a Cache-Control lifetime, so revalidation requests are answered with
+ * 304 Not Modified and no body. Fingerprinted names from the
+ * AssetManifest (e.g. /css/header.3f2a9c1b7d.css) are mapped back to the real file and,
+ * while the fingerprint still matches the content, cached by browsers as immutable, as are
+ * uploads stored under their content hash.
+ * Stylesheets are gzip-compressed once at startup into the container's temporary directory,
+ * and the .gz variant is sent as-is to clients that accept gzip.
+ *
+ * URL Patterns:
+ * - /css/*: Stylesheets
+ * - /resources/*: System and uploaded images
+ */
+@WebServlet(asyncSupported = true, urlPatterns = {"/css/*", "/resources/*"}, loadOnStartup = 1) // Loaded at startup to prepare gzip variants
+public class StaticResourceController extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+    private static final long MAX_AGE_SECONDS = 86400; // Browser cache lifetime before revalidation (1 day)
+    private static final String[] PRECOMPRESSED_DIRECTORIES = {"/css", "/resources"}; // Searched for compressible files
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable"; // Fingerprinted URLs never change
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024; // Smaller files are cheaper to copy, as in Tomcat's DefaultServlet
+    // Request attributes of Tomcat's sendfile support
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Validators per file path, recomputed when the file's size or modification time changes
+    private final Map<String, FileValidator> validators = new ConcurrentHashMap<>();
+    // Precompressed variants per file path, created at startup
+    private final Map<String, GzipVariant> gzipVariants = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the gzip variants of all compressible static files.
+     */
+    @Override
+    public void init() throws ServletException {
+        File tempDir = (File) getServletContext().getAttribute(ServletContext.TEMPDIR);
+        if (tempDir == null) {
+            return; // No place to store variants; files are served uncompressed
+        }
+        File gzipDir = new File(tempDir, "gzip");
+        int count = 0;
+        for (String directory : PRECOMPRESSED_DIRECTORIES) {
+            String realPath = getServletContext().getRealPath(directory);
+            if (realPath != null) {
+                count += precompress(new File(realPath), new File(gzipDir, directory));
+            }
+        }
+        System.out.println("StaticResourceController: Prepared " + count + " gzip variants in " + gzipDir);
+    }
+
+    /**
+     * Handles GET requests by sending the file or a 304 response.
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        serve(request, response, true);
+    }
+
+    /**
+     * Handles HEAD requests by sending the headers of the file only.
+     */
+    @Override
+    protected void doHead(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        serve(request, response, false);
+    }
+
+    /**
+     * Resolves the requested file, answers conditional requests and streams the file content.
+     *
+     * @param request The HTTP request object
+     * @param response The HTTP response object
+     * @param sendBody false for HEAD requests
+     */
+    private void serve(HttpServletRequest request, HttpServletResponse response, boolean sendBody) throws IOException {
+        String pathInfo = request.getPathInfo();
+        if (pathInfo == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String path = request.getServletPath() + pathInfo;
+        String assetPath = AssetManifest.getPath(path); // Non-null for fingerprinted URLs
+        File file = resolveFile(assetPath != null ? assetPath : path);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        FileValidator validator = getValidator(file);
+        // A fingerprint only guarantees the content if the file has not changed since startup;
+        // content-addressed uploads are named after their content and never change
+        boolean isImmutable = (assetPath != null && validator.etag.startsWith("\"" + AssetManifest.getFingerprint(path)))
+                || ImageUtil.isContentAddressed(path);
+        GzipVariant variant = gzipVariants.get(file.getPath());
+        if (variant != null && (variant.sourceLastModified != validator.lastModified || variant.sourceLength != validator.length)) {
+            variant = null; // Source changed since startup, the variant is stale
+        }
+        boolean isGzip = variant != null && CompressionUtil.acceptsGzip(request);
+        // Each encoding is a different representation and needs its own strong ETag
+        String etag = isGzip ? ConditionalRequestUtil.gzipEtag(validator.etag) : validator.etag;
+
+        response.setHeader("ETag", etag);
+        response.setDateHeader("Last-Modified", validator.lastModified);
+        response.setHeader("Cache-Control", isImmutable ? IMMUTABLE_CACHE_CONTROL : "public, max-age=" + MAX_AGE_SECONDS);
+        if (variant != null) {
+            response.setHeader("Vary", "Accept-Encoding");
+        }
+
+        if (ConditionalRequestUtil.isNotModified(request, etag, validator.lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        String contentType = getServletContext().getMimeType(file.getName());
+        response.setContentType(contentType != null ? contentType : "application/octet-stream");
+        File body = file;
+        if (isGzip) {
+            response.setHeader("Content-Encoding", "gzip");
+            body = variant.file;
+        }
+        response.setContentLengthLong(body.length());
+        if (!sendBody) {
+            return;
+        }
+
+        long length = body.length();
+        if (length >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // The connector sends the file after the servlet returns; nothing is written here
+            request.setAttribute(SENDFILE_FILENAME, body.getCanonicalPath());
+            request.setAttribute(SENDFILE_START, Long.valueOf(0L));
+            request.setAttribute(SENDFILE_END, Long.valueOf(length));
+            return;
+        }
+        Files.copy(body.toPath(), response.getOutputStream());
+    }
+
+    /**
+     * Maps a path below the context root to a regular file inside the web application directory.
+     *
+     * @param path The path, e.g. /css/header.css
+     * @return The file, or null if it does not exist or lies outside the web application
+     */
+    private File resolveFile(String path) {
+        if (path.contains("..") || path.contains("/.") || path.toUpperCase().contains("WEB-INF")) { // "/." hides dot files such as the image index
+            return null;
+        }
+        String realPath = getServletContext().getRealPath(path);
+        if (realPath == null) {
+            return null;
+        }
+        File file = new File(realPath);
+        return file.isFile() ? file : null;
+    }
+
+    /**
+     * Returns the cached validators of a file, hashing its content again only if it changed.
+     */
+    private FileValidator getValidator(File file) throws IOException {
+        String path = file.getPath();
+        long lastModified = file.lastModified();
+        long length = file.length();
+        FileValidator validator = validators.get(path);
+        if (validator == null || validator.lastModified != lastModified || validator.length != length) {
+            validator = new FileValidator(hash(file), lastModified, length);
+            validators.put(path, validator);
+        }
+        return validator;
+    }
+
+    /**
+     * Writes gzip variants of the compressible files of a directory (recursively).
+     *
+     * @return The number of variants written
+     */
+    private int precompress(File directory, File targetDirectory) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return 0;
+        }
+        int count = 0;
+        for (File file : files) {
+            if (file.isDirectory()) {
+                count += precompress(file, new File(targetDirectory, file.getName()));
+                continue;
+            }
+            if (!CompressionUtil.isCompressible(getServletContext().getMimeType(file.getName()))) {
+                continue; // Images are already compressed
+            }
+            File target = new File(targetDirectory, file.getName() + ".gz");
+            long lastModified = file.lastModified();
+            long length = file.length();
+            try {
+                Files.createDirectories(targetDirectory.toPath());
+                try (GZIPOutputStream out = new GZIPOutputStream(new FileOutputStream(target)) {
+                    { def.setLevel(Deflater.BEST_COMPRESSION); } // Compressed once, so spend the CPU
+                }) {
+                    Files.copy(file.toPath(), out);
+                }
+                if (target.length() < length) {
+                    gzipVariants.put(file.getPath(), new GzipVariant(target, lastModified, length));
+                    count++;
+                }
+            } catch (IOException e) {
+                System.err.println("StaticResourceController: Could not compress " + file + ": " + e.getMessage());
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Computes a strong ETag from the SHA-256 hash of the file content.
+     */
+    private static String hash(File file) throws IOException {
+        return "\"" + AssetManifest.sha256Hex(file).substring(0, 32) + "\""; // 128 bits are plenty to tell versions apart
+    }
+
+    /**
+     * A gzip-compressed copy of a static file and the version of the file it was made from.
+     */
+    private static final class GzipVariant {
+        private final File file; // The .gz file in the temporary directory
+        private final long sourceLastModified; // Modification time of the source file when compressed
+        private final long sourceLength; // Size of the source file when compressed
+
+        private GzipVariant(File file, long sourceLastModified, long sourceLength) {
+            this.file = file;
+            this.sourceLastModified = sourceLastModified;
+            this.sourceLength = sourceLength;
+        }
+    }
+
+    /**
+     * Validators of one file version.
+     */
+    private static final class FileValidator {
+        private final String etag; // Quoted strong entity tag
+        private final long lastModified; // Modification time in milliseconds
+        private final long length; // File size in bytes
+
+        private FileValidator(String etag, long lastModified, long length) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+    }
+}
@@ -90,6 +90,8 @@ public class UpdateProfileController extends HttpServlet {
 
         // Handle profile picture upload
         String profilePicturePath = null;
+        String previousPicturePath = null; // Picture replaced by a new upload, released after the update
+        String uploadedPicturePath = null; // Reference taken by a new upload, released if the update fails
         try {
             Part filePart = request.getPart("profilePicture");
             if (filePart != null && filePart.getSize() > 0) {
@@ -97,10 +99,12 @@ public class UpdateProfileController extends HttpServlet {
                 String saveFolder = "/profiles";
                 String rootPath = request.getServletContext().getRealPath("");
                 System.out.println("UpdateProfileController: Root path: " + rootPath);
-                boolean isUploaded = imageUtil.uploadImage(filePart, rootPath, saveFolder);
-                if (isUploaded) {
-                    profilePicturePath = "/resources/images" + saveFolder + "/" + imageUtil.getImageNameFromPart(filePart);
+                profilePicturePath = imageUtil.uploadImage(filePart, rootPath, saveFolder);
+                if (profilePicturePath != null) {
+                    uploadedPicturePath = profilePicturePath;
                     System.out.println("UpdateProfileController: Profile picture uploaded, stored path: " + profilePicturePath);
+                    UserModel existingUser = userService.getUserByUsername(username);
+                    previousPicturePath = existingUser != null ? existingUser.getImageUrl() : null;
                 } else {
                     System.out.println("UpdateProfileController: Profile picture upload failed for username=" + username + ", file: " + imageUtil.getImageNameFromPart(filePart));
                 }
@@ -118,6 +122,11 @@ public class UpdateProfileController extends HttpServlet {
             // Handle errors during image upload
             System.out.println("UpdateProfileController: Exception during profile picture upload for username=" + username + ": " + e.getMessage());
             e.printStackTrace();
+            if (uploadedPicturePath != null) {
+                imageUtil.releaseImage(request.getServletContext().getRealPath(""), uploadedPicturePath); // Not used after all
+                uploadedPicturePath = null;
+                previousPicturePath = null;
+            }
             // Fallback to existing or default image
             UserModel existingUser = userService.getUserByUsername(username);
             if (existingUser != null && existingUser.getImageUrl() != null) {
@@ -130,6 +139,10 @@ public class UpdateProfileController extends HttpServlet {
         // Update user profile in the database
         boolean isUpdated = userService.updateUserProfile(user, profilePicturePath);
         if (isUpdated) {
+            if (uploadedPicturePath != null && previousPicturePath != null) {
+                // Old picture no longer used; released once even if the same picture was uploaded again
+                imageUtil.releaseImage(request.getServletContext().getRealPath(""), previousPicturePath);
+            }
             // Refresh session attributes with updated user data
             UserModel updatedUser = userService.getUserByUsername(username);
             if (updatedUser != null) {
@@ -141,6 +154,9 @@ public class UpdateProfileController extends HttpServlet {
                 System.out.println("UpdateProfileController: Failed to refresh user data for username=" + username);
             }
         } else {
+            if (uploadedPicturePath != null) {
+                imageUtil.releaseImage(request.getServletContext().getRealPath(""), uploadedPicturePath); // The profile keeps its old picture
+            }
             request.setAttribute("error", "Failed to update profile. Please try again.");
             System.out.println("UpdateProfileController: Profile update failed for username=" + username);
         }
@@ -126,24 +126,31 @@ public class UserProfileController extends HttpServlet {
 
         // Handle profile picture upload
         String profilePicturePath = null;
+        String previousPicturePath = null;
         Part filePart = request.getPart("profilePicture");
         if (filePart != null && filePart.getSize() > 0) {
             // New profile picture provided, attempt to upload
             String saveFolder = "/profiles";
-            boolean isUploaded = imageUtil.uploadImage(filePart, request.getServletContext().getRealPath(""), saveFolder);
-            if (isUploaded) {
-                profilePicturePath = "/resources/images" + saveFolder + "/" + imageUtil.getImageNameFromPart(filePart);
-            }
+            profilePicturePath = imageUtil.uploadImage(filePart, request.getServletContext().getRealPath(""), saveFolder);
+            UserModel existingUser = userService.getUserByUsername(username);
+            previousPicturePath = existingUser != null ? existingUser.getImageUrl() : null;
         }
 
         // Update user profile in the database
         boolean isUpdated = userService.updateUserProfile(user, profilePicturePath);
         if (isUpdated) {
+            if (profilePicturePath != null && previousPicturePath != null) {
+                // Old picture no longer used; released once even if the same picture was uploaded again
+                imageUtil.releaseImage(request.getServletContext().getRealPath(""), previousPicturePath);
+            }
             // Refresh session attributes with updated user data
             UserModel updatedUser = userService.getUserByUsername(username);
             session.setAttribute("role", updatedUser.getRole() != null ? updatedUser.getRole() : "Customer");
             request.setAttribute("message", "Profile updated successfully!");
         } else {
+            if (profilePicturePath != null) {
+                imageUtil.releaseImage(request.getServletContext().getRealPath(""), profilePicturePath); // The profile keeps its old picture
+            }
             request.setAttribute("error", "Failed to update profile.");
         }
 
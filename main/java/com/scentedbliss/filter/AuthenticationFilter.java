@@ -6,12 +6,15 @@ import jakarta.servlet.FilterConfig;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
-import jakarta.servlet.annotation.WebFilter;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
+import com.scentedbliss.util.JsonUtil;
 import com.scentedbliss.util.SessionUtil;
 
 /**
@@ -21,8 +24,10 @@ import com.scentedbliss.util.SessionUtil;
  * It checks if a user is logged in and redirects them to the login page if not. It also restricts
  * access to certain pages based on user roles (e.g., preventing customers from accessing admin pages)
  * and prevents logged-in users from accessing the login or register pages.
+ *
+ * The filter is mapped by AppContextListener to every servlet except StaticResourceController,
+ * so stylesheets and images under /css and /resources are served without passing through it.
  */
-@WebFilter(asyncSupported = true, urlPatterns = "/*") // Applies to all URLs, supports async operations
 public class AuthenticationFilter implements Filter {
 
     // Constants for commonly used URI paths
@@ -35,22 +40,65 @@ public class AuthenticationFilter implements Filter {
     private static final String ORDERITEMS = "/orderItems"; // Order items page URI (admin-only)
     private static final String PRODUCTLIST = "/productlist"; // Product list page URI (admin-only)
     private static final String CUSTOMERLIST = "/customerlist"; // Customer list page URI (admin-only)
+    private static final String API = "/api/"; // JSON endpoints, answered with 401 instead of a login redirect
+
+    // Directories served without authentication (/css and /resources bypass the filter entirely)
+    private static final String[] PUBLIC_DIRECTORIES = {"/js/", "/images/"};
+
+    /**
+     * Access rule of an exact URI in the route table.
+     */
+    private enum Access {
+        PUBLIC, // Served to everyone
+        ADMIN_ONLY // Logged-in admins only
+    }
+
+    // Route table built once in init(): full URIs (context path included) mapped to their access rule
+    private Map<String, Access> routes = Collections.emptyMap();
+    private String[] publicPrefixes = PUBLIC_DIRECTORIES; // Public directories with the context path prepended
+    private String loginUri = LOGIN; // Full login URI used for redirects
+    private String homeUri = HOME; // Full home URI used for redirects
+    private String apiPrefix = API; // Full prefix of the JSON endpoints
 
     /**
-     * Initializes the filter. Currently, no initialization logic is required.
+     * Initializes the filter by building the route table. All paths are prefixed with the
+     * context path here, so matching a request needs no string concatenation.
      * 
      * @param filterConfig The filter configuration object
      * @throws ServletException if initialization fails
      */
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
-        // Initialization logic, if required
+        String contextPath = filterConfig.getServletContext().getContextPath();
+
+        Map<String, Access> table = new HashMap<>();
+        table.put(contextPath + HOME, Access.PUBLIC);
+        table.put(contextPath + "/index.jsp", Access.PUBLIC);
+        table.put(contextPath + "/", Access.PUBLIC);
+        table.put(contextPath + DASHBOARD, Access.ADMIN_ONLY);
+        table.put(contextPath + ORDERS, Access.ADMIN_ONLY);
+        table.put(contextPath + PRODUCTLIST, Access.ADMIN_ONLY);
+        table.put(contextPath + ORDERITEMS, Access.ADMIN_ONLY);
+        table.put(contextPath + CUSTOMERLIST, Access.ADMIN_ONLY);
+        table.put(contextPath + PRODUCT + "/add", Access.ADMIN_ONLY); // e.g., /product/add
+        table.put(contextPath + PRODUCT + "/edit", Access.ADMIN_ONLY); // e.g., /product/edit
+        routes = Collections.unmodifiableMap(table);
+
+        String[] prefixes = new String[PUBLIC_DIRECTORIES.length];
+        for (int i = 0; i < prefixes.length; i++) {
+            prefixes[i] = contextPath + PUBLIC_DIRECTORIES[i];
+        }
+        publicPrefixes = prefixes;
+        loginUri = contextPath + LOGIN;
+        homeUri = contextPath + HOME;
+        apiPrefix = contextPath + API;
     }
 
     /**
      * Filters incoming requests to enforce authentication and role-based access control.
      * - Allows public resources (e.g., CSS, JS, images) and the home page without restrictions.
-     * - Redirects unauthenticated users to the login page, except for login/register pages.
+     * - Redirects unauthenticated users to the login page, except for login/register pages;
+     *   calls to the JSON endpoints under /api/ are answered with a JSON 401 instead.
      * - Restricts customers from accessing admin-only pages (e.g., dashboard, product management).
      * - Prevents logged-in users from accessing login/register pages by redirecting to the home page.
      * 
@@ -68,16 +116,10 @@ public class AuthenticationFilter implements Filter {
         HttpServletResponse res = (HttpServletResponse) response; // Cast to HTTP response
 
         String uri = req.getRequestURI(); // Get the requested URI
-        String contextPath = req.getContextPath(); // Get the context path of the application
+        Access access = routes.get(uri); // Exact route rule, null if the URI has none
 
         // Allow access to public resources without authentication
-        if (uri.startsWith(contextPath + "/css/") ||
-            uri.startsWith(contextPath + "/js/") ||
-            uri.startsWith(contextPath + "/images/") ||
-            uri.startsWith(contextPath + "/resources/") ||
-            uri.equals(contextPath + HOME) ||
-            uri.equals(contextPath + "/index.jsp") ||
-            uri.equals(contextPath + "/")) {
+        if (access == Access.PUBLIC || isPublicResource(uri)) {
             chain.doFilter(request, response); // Proceed to the next filter or servlet
             return;
         }
@@ -90,33 +132,44 @@ public class AuthenticationFilter implements Filter {
             // Handle unauthenticated users
             if (uri.endsWith(LOGIN) || uri.endsWith(REGISTER)) {
                 chain.doFilter(request, response); // Allow access to login/register pages
+            } else if (uri.startsWith(apiPrefix)) {
+                // Scripts cannot follow a redirect to the login page; tell them to log in instead
+                JsonUtil.writeError(res, HttpServletResponse.SC_UNAUTHORIZED, "Please log in to continue.");
             } else {
-                res.sendRedirect(contextPath + LOGIN); // Redirect to login page for other pages
+                res.sendRedirect(loginUri); // Redirect to login page for other pages
             }
         } else {
             // Handle authenticated users
             // Role-based restriction: prevent customers from accessing admin-only URLs
-            if ((uri.equals(contextPath + DASHBOARD) ||
-                 uri.equals(contextPath + ORDERS) ||
-                 uri.equals(contextPath + PRODUCTLIST) ||
-                 uri.equals(contextPath + ORDERITEMS) ||
-                 uri.equals(contextPath + CUSTOMERLIST) ||
-                 uri.equals(contextPath + PRODUCT + "/add") ||    // e.g., /product/add
-                 uri.equals(contextPath + PRODUCT + "/edit")) &&  // e.g., /product/edit
-                !"Admin".equals(role)) {
-                res.sendRedirect(contextPath + HOME); // Redirect non-admins to home page
+            if (access == Access.ADMIN_ONLY && !"Admin".equals(role)) {
+                res.sendRedirect(homeUri); // Redirect non-admins to home page
                 return;
             }
 
             // Prevent logged-in users from visiting login/register pages
             if (uri.endsWith(LOGIN) || uri.endsWith(REGISTER)) {
-                res.sendRedirect(contextPath + HOME); // Redirect to home page
+                res.sendRedirect(homeUri); // Redirect to home page
             } else {
                 chain.doFilter(request, response); // Allow access to other pages
             }
         }
     }
 
+    /**
+     * Checks whether the URI lies in one of the public resource directories.
+     * 
+     * @param uri The full request URI
+     * @return true if the resource is served without authentication
+     */
+    private boolean isPublicResource(String uri) {
+        for (String prefix : publicPrefixes) {
+            if (uri.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Cleans up resources when the filter is destroyed. Currently, no cleanup logic is required.
      */
@@ -0,0 +1,454 @@
+package com.scentedbliss.filter;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import com.scentedbliss.util.CompressionUtil;
+
+/**
+ * @author 23049172 Sabin Devkota
+ *
+ * A servlet filter that gzip-compresses dynamic responses (the HTML rendered by the JSP pages)
+ * for clients that send Accept-Encoding: gzip. Output is buffered until it reaches a minimum
+ * size, so small responses and redirects are sent unchanged; larger text responses are
+ * compressed on the fly with a Deflater taken from a shared pool.
+ *
+ * Static files under /css and /resources never reach this filter, because AppContextListener
+ * maps it to every servlet except StaticResourceController, which serves gzip variants prepared
+ * at startup. The JSON cart API is skipped as its responses are small.
+ *
+ * The gzip trailer must be written before the request completes. For a request that goes
+ * asynchronous, the code that completes it calls {@link #finishResponse} first; a page
+ * rendered through AsyncContext.dispatch is finished when the dispatch passes this filter.
+ */
+public class CompressionFilter implements Filter {
+
+    private static final int MIN_COMPRESS_SIZE = 1024; // Responses smaller than this are not worth compressing
+    private static final String[] EXCLUDED_PATHS = {"/api/"}; // Paths not worth compressing
+    private static final String WRAPPER_ATTRIBUTE = CompressionFilter.class.getName() + ".wrapper"; // Unfinished wrapper of an async request
+
+    // Gzip member header: magic, CM=deflate, no flags, no mtime, no extra flags, OS=unknown
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private String[] excludedPrefixes = EXCLUDED_PATHS; // Excluded paths with the context path prepended
+
+    /**
+     * Initializes the filter by prefixing the excluded paths with the context path.
+     *
+     * @param filterConfig The filter configuration object
+     * @throws ServletException if initialization fails
+     */
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        String contextPath = filterConfig.getServletContext().getContextPath();
+        String[] prefixes = new String[EXCLUDED_PATHS.length];
+        for (int i = 0; i < prefixes.length; i++) {
+            prefixes[i] = contextPath + EXCLUDED_PATHS[i];
+        }
+        excludedPrefixes = prefixes;
+    }
+
+    /**
+     * Wraps the response in a compressing wrapper if the client accepts gzip. If the request
+     * goes asynchronous, the wrapper is kept in a request attribute until it is finished.
+     *
+     * @param request The servlet request
+     * @param response The servlet response
+     * @param chain The filter chain to continue processing
+     * @throws IOException if an I/O error occurs
+     * @throws ServletException if a servlet error occurs
+     */
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest req = (HttpServletRequest) request; // Cast to HTTP request
+        HttpServletResponse res = (HttpServletResponse) response; // Cast to HTTP response
+
+        if (req.getDispatcherType() == DispatcherType.ASYNC) {
+            // A page dispatched to by an async request renders into the wrapper made for the request
+            doFilterAndFinish(req, response, chain);
+            return;
+        }
+
+        if ("HEAD".equals(req.getMethod()) || isExcluded(req.getRequestURI()) || !CompressionUtil.acceptsGzip(req)) {
+            chain.doFilter(request, response); // Nothing to compress
+            return;
+        }
+
+        GzipResponseWrapper wrapper = new GzipResponseWrapper(res);
+        req.setAttribute(WRAPPER_ATTRIBUTE, wrapper);
+        doFilterAndFinish(req, wrapper, chain);
+    }
+
+    /**
+     * Continues the chain and finishes the compressed response, unless the request went
+     * asynchronous and the body is still being written on another thread.
+     */
+    private void doFilterAndFinish(HttpServletRequest req, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        try {
+            chain.doFilter(req, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            if (!req.isAsyncStarted()) {
+                releaseResponse(req); // Return the Deflater; the error page replaces the body
+            }
+            throw e;
+        }
+        if (!req.isAsyncStarted()) {
+            finishResponse(req);
+        }
+    }
+
+    /**
+     * Writes out the rest of a compressed response, including the gzip trailer, and returns
+     * its Deflater to the pool. Called on the thread that wrote the body, before the request
+     * is completed; does nothing if the response is not compressed or already finished.
+     *
+     * @param request The request whose response is finished
+     * @throws IOException if the remaining output cannot be written
+     */
+    public static void finishResponse(ServletRequest request) throws IOException {
+        Object wrapper = request.getAttribute(WRAPPER_ATTRIBUTE);
+        if (wrapper instanceof GzipResponseWrapper) {
+            request.removeAttribute(WRAPPER_ATTRIBUTE);
+            try {
+                ((GzipResponseWrapper) wrapper).finish();
+            } finally {
+                ((GzipResponseWrapper) wrapper).release(); // No-op after finish(), returns the Deflater after a failure
+            }
+        }
+    }
+
+    /**
+     * Returns the Deflater of a compressed response to the pool without writing anything more,
+     * e.g. after an error. Does nothing if the response is not compressed or already finished.
+     *
+     * @param request The request whose response is abandoned
+     */
+    public static void releaseResponse(ServletRequest request) {
+        Object wrapper = request.getAttribute(WRAPPER_ATTRIBUTE);
+        if (wrapper instanceof GzipResponseWrapper) {
+            request.removeAttribute(WRAPPER_ATTRIBUTE);
+            ((GzipResponseWrapper) wrapper).release();
+        }
+    }
+
+    /**
+     * Cleans up resources when the filter is destroyed. Currently, no cleanup logic is required.
+     */
+    @Override
+    public void destroy() {
+        // Cleanup logic, if required
+    }
+
+    private boolean isExcluded(String uri) {
+        for (String prefix : excludedPrefixes) {
+            if (uri.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Response wrapper that routes the body through a {@link GzipOutputStream}. The declared
+     * Content-Length is held back, because it is only valid if the body is sent uncompressed.
+     */
+    private static final class GzipResponseWrapper extends HttpServletResponseWrapper {
+        private final HttpServletResponse response; // The wrapped response
+        private GzipOutputStream stream; // Created on first use of getOutputStream() or getWriter()
+        private PrintWriter writer; // Created on first use of getWriter()
+        private long contentLength = -1; // Declared length, applied only to uncompressed bodies
+
+        private GzipResponseWrapper(HttpServletResponse response) {
+            super(response);
+            this.response = response;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            if (stream == null) {
+                stream = new GzipOutputStream(this);
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (stream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called");
+                }
+                stream = new GzipOutputStream(this);
+                writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            contentLength = len;
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            contentLength = len;
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if ("Content-Length".equalsIgnoreCase(name)) {
+                contentLength = Long.parseLong(value);
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (stream != null) {
+                stream.flush();
+            } else {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (stream != null) {
+                stream.resetBuffer();
+            }
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            contentLength = -1;
+            if (stream != null) {
+                stream.resetBuffer();
+            }
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            resetBuffer(); // Buffered body must not follow the error page
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            resetBuffer();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            resetBuffer();
+            super.sendRedirect(location);
+        }
+
+        /**
+         * Writes out anything still buffered and completes the gzip stream.
+         */
+        private void finish() throws IOException {
+            if (writer != null) {
+                writer.flush(); // Push characters held by the encoder into the stream
+            }
+            if (stream != null) {
+                stream.finish();
+            }
+        }
+
+        /**
+         * Returns the Deflater to the pool without writing anything more, e.g. after an error.
+         */
+        private void release() {
+            if (stream != null) {
+                stream.release();
+            }
+        }
+    }
+
+    /**
+     * Output stream that buffers the first {@link #MIN_COMPRESS_SIZE} bytes and then decides
+     * once whether to gzip the body (large enough, compressible type, not encoded yet) or to
+     * pass it through unchanged.
+     */
+    private static final class GzipOutputStream extends ServletOutputStream {
+        private final GzipResponseWrapper wrapper; // Owner, holds the declared content length
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream(MIN_COMPRESS_SIZE); // Until decided
+        private ServletOutputStream out; // Underlying stream, set once decided
+        private Deflater deflater; // Borrowed from the pool while compressing
+        private DeflaterOutputStream deflaterStream; // Non-null while compressing
+        private final CRC32 crc = new CRC32(); // Checksum of the uncompressed body for the gzip trailer
+        private long uncompressedSize; // Size of the uncompressed body for the gzip trailer
+        private boolean isFinished;
+
+        private GzipOutputStream(GzipResponseWrapper wrapper) {
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (isFinished) {
+                throw new IOException("Response has already been completed");
+            }
+            if (out == null) {
+                if (buffer.size() + len < MIN_COMPRESS_SIZE) {
+                    buffer.write(b, off, len);
+                    return;
+                }
+                decide(true);
+            }
+            writeThrough(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (out == null) {
+                decide(buffer.size() >= MIN_COMPRESS_SIZE); // An explicit flush commits the response
+            }
+            if (deflaterStream != null) {
+                deflaterStream.flush();
+            }
+            out.flush();
+        }
+
+        @Override
+        public boolean isReady() {
+            return out == null || out.isReady();
+        }
+
+        /**
+         * Switches to non-blocking output. The body is then sent uncompressed through the
+         * underlying stream, which the listener is registered on; a body that is already being
+         * compressed cannot switch.
+         */
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            if (deflaterStream != null) {
+                throw new IllegalStateException("Non-blocking output cannot be used once the response is gzip-encoded");
+            }
+            if (out == null) {
+                try {
+                    decide(false); // Pass through; the buffer holds less than MIN_COMPRESS_SIZE bytes
+                } catch (IOException e) {
+                    throw new IllegalStateException("Could not start non-blocking output", e);
+                }
+            }
+            out.setWriteListener(writeListener);
+        }
+
+        private void resetBuffer() {
+            if (buffer != null) {
+                buffer.reset();
+            }
+        }
+
+        /**
+         * Chooses between compressed and plain output and writes the buffered bytes.
+         */
+        private void decide(boolean isLargeEnough) throws IOException {
+            HttpServletResponse response = wrapper.response;
+            int status = response.getStatus();
+            boolean isCompressible = CompressionUtil.isCompressible(response.getContentType());
+            if (isCompressible) {
+                response.addHeader("Vary", "Accept-Encoding"); // Caches must keep both encodings apart
+            }
+            out = response.getOutputStream();
+            if (isLargeEnough && isCompressible && status >= 200 && status != 204 && status != 304
+                    && !response.containsHeader("Content-Encoding")) {
+                response.setHeader("Content-Encoding", "gzip");
+                out.write(GZIP_HEADER);
+                deflater = CompressionUtil.borrowDeflater();
+                deflaterStream = new DeflaterOutputStream(out, deflater, 8192);
+            } else if (wrapper.contentLength >= 0) {
+                response.setContentLengthLong(wrapper.contentLength);
+            }
+            byte[] buffered = buffer.toByteArray();
+            buffer = null;
+            writeThrough(buffered, 0, buffered.length);
+        }
+
+        private void writeThrough(byte[] b, int off, int len) throws IOException {
+            if (deflaterStream != null) {
+                crc.update(b, off, len);
+                uncompressedSize += len;
+                deflaterStream.write(b, off, len);
+            } else {
+                out.write(b, off, len);
+            }
+        }
+
+        /**
+         * Sends the remaining output and, if compressing, the gzip trailer. The Deflater is
+         * returned to the pool afterwards.
+         */
+        private void finish() throws IOException {
+            if (isFinished) {
+                return;
+            }
+            try {
+                if (out == null) {
+                    decide(false); // Never reached the minimum size
+                }
+                if (deflaterStream != null) {
+                    deflaterStream.finish();
+                    writeIntLE(crc.getValue());
+                    writeIntLE(uncompressedSize);
+                }
+            } finally {
+                release();
+            }
+        }
+
+        /**
+         * Marks the stream finished and returns the Deflater, if borrowed, to the pool.
+         */
+        private void release() {
+            isFinished = true;
+            if (deflater != null) {
+                CompressionUtil.returnDeflater(deflater);
+                deflater = null;
+            }
+        }
+
+        private void writeIntLE(long value) throws IOException {
+            out.write((int) (value & 0xff));
+            out.write((int) ((value >> 8) & 0xff));
+            out.write((int) ((value >> 16) & 0xff));
+            out.write((int) ((value >> 24) & 0xff));
+        }
+    }
+}
@@ -0,0 +1,460 @@
+package com.scentedbliss.filter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+import com.scentedbliss.config.AppConfig;
+import com.scentedbliss.service.ProductCatalogCache;
+import com.scentedbliss.util.CompressionUtil;
+import com.scentedbliss.util.ConditionalRequestUtil;
+import com.scentedbliss.util.SessionUtil;
+
+/**
+ * @author 23049172 Sabin Devkota
+ *
+ * A servlet filter that keeps whole rendered pages in memory for a short time, so a burst of
+ * identical requests (e.g. after a marketing email) runs the query and the JSP once instead of
+ * once per request. Only GET requests from visitors who are not logged in are cached, because
+ * the header shows different links to logged-in users.
+ *
+ * Cached pages: /home and / . These are the only pages AuthenticationFilter serves to visitors
+ * who are not logged in; every other page redirects them to the login page.
+ *
+ * - Entries live for cache.responseTtlSeconds (default 10) and at most cache.responseMaxEntries
+ *   (default 200) are kept, least recently used first out.
+ * - An entry is dropped as soon as the product catalog version changes, i.e. after any product
+ *   is added, updated or deleted.
+ * - Single-flight fill: while one request renders an expired page, identical requests are served
+ *   the expired copy instead of rendering the same page again; no request waits for another.
+ * - Each entry carries a strong ETag, so repeat requests with If-None-Match get 304 Not Modified.
+ * - A gzip copy is made once per entry, so cached pages are not compressed again per request.
+ *
+ * The filter is mapped by AppContextListener, after AuthenticationFilter and CompressionFilter.
+ *
+ * Only 200 responses are stored, so a page that an anonymous visitor is redirected away from
+ * (for example to the login page) is never cached, whatever the order of the filters.
+ */
+public class ResponseCacheFilter implements Filter {
+
+    private static final String[] PUBLIC_PAGES = {"/home", "/"}; // Pages anonymous visitors can see
+    private static final int MAX_BODY_SIZE = 512 * 1024; // Larger pages are not cached
+
+    private String contextPath = ""; // Stripped from request URIs
+    private Set<String> publicPages = Collections.emptySet(); // Full URIs of the cached pages
+    private long ttlMillis; // Lifetime of an entry
+    private Map<String, CachedResponse> entries = Collections.emptyMap(); // LRU map of cached pages, guarded by itself
+    private final Set<String> fills = ConcurrentHashMap.newKeySet(); // Keys of the entries being rendered
+
+    /**
+     * Initializes the filter with the configured time-to-live and size of the cache.
+     *
+     * @param filterConfig The filter configuration object
+     * @throws ServletException if initialization fails
+     */
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        contextPath = filterConfig.getServletContext().getContextPath();
+        Set<String> pages = new HashSet<>();
+        for (String page : PUBLIC_PAGES) {
+            pages.add(contextPath + page);
+        }
+        publicPages = pages;
+        ttlMillis = Math.max(AppConfig.getInt("cache.responseTtlSeconds", 10), 0) * 1000L;
+        int maxEntries = Math.max(AppConfig.getInt("cache.responseMaxEntries", 200), 1);
+        entries = new LinkedHashMap<String, CachedResponse>(64, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Serves cacheable requests from the cache, filling it on a miss. While another request is
+     * filling the entry, an expired copy rendered from the current catalog is served if there is
+     * one, otherwise the page is rendered without being stored.
+     *
+     * @param request The servlet request
+     * @param response The servlet response
+     * @param chain The filter chain to continue processing
+     * @throws IOException if an I/O error occurs
+     * @throws ServletException if a servlet error occurs
+     */
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest req = (HttpServletRequest) request; // Cast to HTTP request
+        HttpServletResponse res = (HttpServletResponse) response; // Cast to HTTP response
+
+        String key = ttlMillis > 0 && "GET".equals(req.getMethod()) ? keyFor(req) : null;
+        if (key == null || SessionUtil.getAttribute(req, "role") != null) {
+            chain.doFilter(request, response); // Not cacheable, or personalized for a logged-in user
+            return;
+        }
+
+        CachedResponse cached = lookup(key);
+        if (cached == null || cached.expiresAt < System.currentTimeMillis()) {
+            if (fills.add(key)) {
+                fill(req, res, chain, key); // This request renders the page for everyone
+                return;
+            }
+            if (cached == null) {
+                chain.doFilter(request, response); // Nothing to serve meanwhile, render this one uncached
+                return;
+            }
+            // Another request is rendering the page; the expired copy is at most one render older
+        }
+        send(req, res, cached);
+    }
+
+    /**
+     * Cleans up resources when the filter is destroyed. Currently, no cleanup logic is required.
+     */
+    @Override
+    public void destroy() {
+        // Cleanup logic, if required
+    }
+
+    /**
+     * Builds the cache key of a request, or returns null if the request is not cacheable.
+     * The pages take no parameters, so the query string is ignored.
+     */
+    private String keyFor(HttpServletRequest req) {
+        String uri = req.getRequestURI();
+        return publicPages.contains(uri) ? uri.substring(contextPath.length()) : null;
+    }
+
+    /**
+     * Returns the entry rendered from the current catalog, expired or not, or null if there is none.
+     */
+    private CachedResponse lookup(String key) {
+        synchronized (entries) {
+            CachedResponse cached = entries.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.catalogVersion != ProductCatalogCache.getInstance().getVersion()) {
+                entries.remove(key); // Products changed since it was rendered
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    /**
+     * Renders the page through the rest of the chain while copying the body, then stores it.
+     * The request is passed on without Accept-Encoding, so the copy is the plain HTML.
+     */
+    private void fill(HttpServletRequest req, HttpServletResponse res, FilterChain chain, String key)
+            throws IOException, ServletException {
+        long catalogVersion = ProductCatalogCache.getInstance().getVersion(); // Read before the page is rendered
+        CaptureResponseWrapper capture = new CaptureResponseWrapper(res);
+        boolean isAsync = false;
+        try {
+            chain.doFilter(new IdentityEncodingRequest(req), capture);
+            if (req.isAsyncStarted()) {
+                isAsync = true;
+                // The body is still being written on another thread; store it when processing completes
+                req.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        try {
+                            store(key, capture, catalogVersion);
+                        } finally {
+                            release(key);
+                        }
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                        capture.isIncomplete = true; // Never store a partial page
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                        capture.isIncomplete = true;
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                store(key, capture, catalogVersion);
+            }
+        } finally {
+            if (!isAsync) {
+                release(key);
+            }
+        }
+    }
+
+    private void release(String key) {
+        fills.remove(key); // The next request for an expired page may render it again
+    }
+
+    /**
+     * Stores a captured page if it is a complete 200 HTML response.
+     */
+    private void store(String key, CaptureResponseWrapper capture, long catalogVersion) {
+        String contentType = capture.getContentType();
+        byte[] body = capture.getBody();
+        if (capture.isIncomplete || capture.getStatus() != HttpServletResponse.SC_OK || body == null || contentType == null
+                || !contentType.startsWith("text/html")) {
+            return;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String etag = "\"" + HexFormat.of().formatHex(digest.digest(body), 0, 16) + "\""; // 128 bits
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream(body.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+                gzip.write(body);
+            }
+            CachedResponse cached = new CachedResponse(body, gzipped.toByteArray(), contentType, etag,
+                    catalogVersion, System.currentTimeMillis() + ttlMillis);
+            synchronized (entries) {
+                entries.put(key, cached);
+            }
+        } catch (NoSuchAlgorithmException | IOException e) {
+            System.err.println("ResponseCacheFilter store: Could not cache " + key + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sends a cached page, or 304 if the client already has it.
+     */
+    private void send(HttpServletRequest req, HttpServletResponse res, CachedResponse cached) throws IOException {
+        boolean isGzip = CompressionUtil.acceptsGzip(req);
+        String etag = isGzip ? ConditionalRequestUtil.gzipEtag(cached.etag) : cached.etag;
+        res.setHeader("ETag", etag);
+        res.setHeader("Vary", "Accept-Encoding");
+        if (ConditionalRequestUtil.isNotModified(req, etag, -1)) {
+            res.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        byte[] body = isGzip ? cached.gzipBody : cached.body;
+        res.setContentType(cached.contentType);
+        if (isGzip) {
+            res.setHeader("Content-Encoding", "gzip"); // CompressionFilter leaves encoded bodies alone
+        }
+        res.setContentLength(body.length);
+        res.getOutputStream().write(body);
+    }
+
+    /**
+     * A cached page with its validators.
+     */
+    private static final class CachedResponse {
+        private final byte[] body; // The HTML as sent
+        private final byte[] gzipBody; // The HTML gzip-compressed
+        private final String contentType; // Content-Type including the charset
+        private final String etag; // Quoted strong entity tag of the plain body
+        private final long catalogVersion; // ProductCatalogCache version the page was rendered from
+        private final long expiresAt; // Time after which the entry is stale
+
+        private CachedResponse(byte[] body, byte[] gzipBody, String contentType, String etag, long catalogVersion,
+                long expiresAt) {
+            this.body = body;
+            this.gzipBody = gzipBody;
+            this.contentType = contentType;
+            this.etag = etag;
+            this.catalogVersion = catalogVersion;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Request wrapper that hides Accept-Encoding, so the page is rendered uncompressed.
+     */
+    private static final class IdentityEncodingRequest extends HttpServletRequestWrapper {
+        private IdentityEncodingRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return "Accept-Encoding".equalsIgnoreCase(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return "Accept-Encoding".equalsIgnoreCase(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+    }
+
+    /**
+     * Response wrapper that passes the body through to the client and keeps a copy of it.
+     * Characters written through getWriter() are copied as characters and encoded once when
+     * the page is stored, so the wrapper adds no buffering of its own.
+     */
+    private static final class CaptureResponseWrapper extends HttpServletResponseWrapper {
+        private volatile boolean isIncomplete; // Set if asynchronous processing timed out or failed
+        private ByteArrayOutputStream bytes; // Copy of getOutputStream() output
+        private CharArrayWriter chars; // Copy of getWriter() output
+        private ServletOutputStream stream; // Created on first use of getOutputStream()
+        private PrintWriter writer; // Created on first use of getWriter()
+        private boolean isTooLarge; // Set once the copy exceeds MAX_BODY_SIZE
+
+        private CaptureResponseWrapper(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (stream == null) {
+                ServletOutputStream out = super.getOutputStream();
+                bytes = new ByteArrayOutputStream(16 * 1024);
+                stream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        out.write(b);
+                        copy(new byte[] {(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        out.write(b, off, len);
+                        copy(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        out.flush();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return out.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        out.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                PrintWriter out = super.getWriter();
+                chars = new CharArrayWriter(16 * 1024);
+                writer = new PrintWriter(new Writer() {
+                    @Override
+                    public void write(char[] cbuf, int off, int len) {
+                        out.write(cbuf, off, len);
+                        copy(cbuf, off, len);
+                    }
+
+                    @Override
+                    public void write(String str, int off, int len) {
+                        out.write(str, off, len);
+                        copy(str, off, len);
+                    }
+
+                    @Override
+                    public void flush() {
+                        out.flush();
+                    }
+
+                    @Override
+                    public void close() {
+                        out.close();
+                    }
+                });
+            }
+            return writer;
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            clearCopy();
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            clearCopy();
+        }
+
+        private void copy(byte[] b, int off, int len) {
+            if (!isTooLarge) {
+                bytes.write(b, off, len);
+                isTooLarge = bytes.size() > MAX_BODY_SIZE;
+            }
+        }
+
+        private void copy(char[] cbuf, int off, int len) {
+            if (!isTooLarge) {
+                chars.write(cbuf, off, len);
+                isTooLarge = chars.size() > MAX_BODY_SIZE;
+            }
+        }
+
+        private void copy(String str, int off, int len) {
+            if (!isTooLarge) {
+                chars.write(str, off, len);
+                isTooLarge = chars.size() > MAX_BODY_SIZE;
+            }
+        }
+
+        private void clearCopy() {
+            if (bytes != null) {
+                bytes.reset();
+            }
+            if (chars != null) {
+                chars.reset();
+            }
+            isTooLarge = false;
+        }
+
+        /**
+         * Returns the copied body, or null if nothing was written or it was too large.
+         */
+        private byte[] getBody() {
+            if (isTooLarge) {
+                return null;
+            }
+            if (chars != null) {
+                return chars.toString().getBytes(Charset.forName(getCharacterEncoding()));
+            }
+            return bytes != null ? bytes.toByteArray() : null;
+        }
+    }
+}
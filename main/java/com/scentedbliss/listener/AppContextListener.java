@@ -0,0 +1,131 @@
+package com.scentedbliss.listener;
+
+import com.scentedbliss.config.AppConfig;
+import com.scentedbliss.config.ConnectionPool;
+import com.scentedbliss.config.QueryPlanCheck;
+import com.scentedbliss.config.SchemaMigrator;
+import com.scentedbliss.config.StatementCache;
+import com.scentedbliss.controller.StaticResourceController;
+import com.scentedbliss.filter.AuthenticationFilter;
+import com.scentedbliss.filter.CompressionFilter;
+import com.scentedbliss.filter.ResponseCacheFilter;
+import com.scentedbliss.service.AbandonedCartSweeper;
+import com.scentedbliss.service.BlockingWorkExecutor;
+import com.scentedbliss.service.CartWriteBehindQueue;
+import com.scentedbliss.service.ImageVariantService;
+import com.scentedbliss.service.ProductSearchIndex;
+import com.scentedbliss.service.UserUniquenessService;
+import com.scentedbliss.util.AssetManifest;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterRegistration;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.ServletRegistration;
+import jakarta.servlet.annotation.WebListener;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * @author 23049172 Sabin Devkota
+ *
+ * Application lifecycle listener that starts background components when the web application
+ * is deployed and stops them cleanly when it is undeployed.
+ *
+ * Filters: AuthenticationFilter, CompressionFilter and ResponseCacheFilter are mapped here, in
+ * that order, to every servlet except StaticResourceController, including the container's JSP
+ * servlet that renders dispatched pages. A "/*" mapping cannot leave paths out, and static
+ * files need neither a session check nor compression on the fly.
+ *
+ * Components:
+ * - SchemaMigrator: applies pending migrations from /WEB-INF/db/migration before anything uses the database.
+ *   If the schema cannot be brought up to date, the cart flush timer and the sweeper are not started.
+ * - QueryPlanCheck: optionally checks that the frequent queries use indexes.
+ * - CartWriteBehindQueue: periodically persists session cart changes to cart_product.
+ * - AbandonedCartSweeper: periodically deletes carts idle for longer than the configured TTL.
+ * - AssetManifest: content-hashed names of the static files, built once at startup.
+ * - ImageVariantService: creates downscaled copies of uploaded images on a small worker pool.
+ * - UserUniquenessService: Bloom filters of existing usernames, emails and phone numbers.
+ * - ConnectionPool: open database connections reused by short queries, closed on shutdown.
+ * - BlockingWorkExecutor: optional virtual threads for blocking controller work.
+ * - ProductSearchIndex: in-memory search suggestions over the catalog, built at startup.
+ */
+@WebListener
+public class AppContextListener implements ServletContextListener {
+
+    /**
+     * Starts background components when the application starts.
+     *
+     * @param sce The servlet context event
+     */
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        AppConfig.init(sce.getServletContext()); // Make the web.xml context parameters available
+        registerFilters(sce.getServletContext()); // Keep static file requests out of the filters
+        boolean isSchemaCurrent = SchemaMigrator.migrate(sce.getServletContext()); // Bring the schema up to date
+        if (!isSchemaCurrent) {
+            System.err.println("AppContextListener: Schema is not up to date; cart changes are written through "
+                    + "and the abandoned cart sweeper is off until the next restart");
+        }
+        QueryPlanCheck.run(); // Report full table scans in frequent queries, if enabled
+        AssetManifest.build(sce.getServletContext()); // Fingerprint static files for immutable caching
+        if (isSchemaCurrent) {
+            CartWriteBehindQueue.getInstance().start(); // Start the periodic cart flush
+            AbandonedCartSweeper.getInstance().start(); // Start the periodic abandoned cart cleanup
+        }
+        ImageVariantService.getInstance().start(sce.getServletContext().getRealPath("/")); // Start the image resize workers
+        UserUniquenessService.getInstance().load(); // Load the registration uniqueness filters
+        BlockingWorkExecutor.getInstance().start(); // Enable virtual thread request work, if configured
+        ProductSearchIndex.getInstance().rebuild(); // Build the search suggestions from the catalog
+    }
+
+    /**
+     * Maps the request filters to the names of all servlets except StaticResourceController.
+     *
+     * @param context The servlet context, not yet started
+     */
+    private static void registerFilters(ServletContext context) {
+        List<String> names = new ArrayList<>();
+        for (ServletRegistration servlet : context.getServletRegistrations().values()) {
+            if (!StaticResourceController.class.getName().equals(servlet.getClassName())) {
+                names.add(servlet.getName());
+            }
+        }
+        String[] servletNames = names.toArray(new String[0]);
+        addFilter(context, AuthenticationFilter.class, EnumSet.of(DispatcherType.REQUEST), servletNames);
+        // ASYNC: a page rendered through AsyncContext.dispatch is finished by the filter
+        addFilter(context, CompressionFilter.class, EnumSet.of(DispatcherType.REQUEST, DispatcherType.ASYNC), servletNames);
+        addFilter(context, ResponseCacheFilter.class, EnumSet.of(DispatcherType.REQUEST), servletNames);
+    }
+
+    private static void addFilter(ServletContext context, Class<? extends Filter> filterClass,
+            EnumSet<DispatcherType> dispatcherTypes, String[] servletNames) {
+        FilterRegistration.Dynamic filter = context.addFilter(filterClass.getName(), filterClass);
+        if (filter == null) {
+            System.err.println("AppContextListener: " + filterClass.getSimpleName() + " is already registered");
+            return;
+        }
+        filter.setAsyncSupported(true);
+        filter.addMappingForServletNames(dispatcherTypes, true, servletNames); // After the filters added before it
+    }
+
+    /**
+     * Stops background components and flushes pending work when the application stops.
+     *
+     * @param sce The servlet context event
+     */
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        BlockingWorkExecutor.getInstance().shutdown(); // Let in-flight requests finish before the rest stops
+        ImageVariantService.getInstance().shutdown(); // Abandon queued resize jobs, originals stay usable
+        AbandonedCartSweeper.getInstance().shutdown(); // Stop the cleanup before the last cart flush
+        CartWriteBehindQueue.getInstance().shutdown(); // Stop the timer and write remaining cart changes
+        ConnectionPool.shutdown(); // Close idle pooled connections
+        StatementCache.logStats(); // Report how often prepared statements were reused
+        UserUniquenessService.getInstance().logStats(); // Report how many checks skipped the database
+    }
+}
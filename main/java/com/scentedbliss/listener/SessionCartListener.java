@@ -0,0 +1,58 @@
+package com.scentedbliss.listener;
+
+import com.scentedbliss.model.SessionCart;
+import com.scentedbliss.service.AbandonedCartSweeper;
+
+import jakarta.servlet.annotation.WebListener;
+import jakarta.servlet.http.HttpSessionAttributeListener;
+import jakarta.servlet.http.HttpSessionBindingEvent;
+
+/**
+ * @author 23049172 Sabin Devkota
+ *
+ * Session attribute listener that tells the AbandonedCartSweeper which carts are held by a
+ * live session. A cart is held from the moment a SessionCart is stored in a session until it
+ * is removed, replaced, or the session is invalidated or times out, so the sweeper never
+ * deletes a cart that a logged-in user may still change.
+ */
+@WebListener
+public class SessionCartListener implements HttpSessionAttributeListener {
+
+    /**
+     * Holds the cart of a SessionCart stored in a session.
+     *
+     * @param event The session binding event
+     */
+    @Override
+    public void attributeAdded(HttpSessionBindingEvent event) {
+        if (event.getValue() instanceof SessionCart) {
+            AbandonedCartSweeper.getInstance().holdCart(((SessionCart) event.getValue()).getCartId());
+        }
+    }
+
+    /**
+     * Releases the cart of a SessionCart removed from a session, including on invalidation.
+     *
+     * @param event The session binding event
+     */
+    @Override
+    public void attributeRemoved(HttpSessionBindingEvent event) {
+        if (event.getValue() instanceof SessionCart) {
+            AbandonedCartSweeper.getInstance().releaseCart(((SessionCart) event.getValue()).getCartId());
+        }
+    }
+
+    /**
+     * Releases the cart of a replaced SessionCart and holds the cart of the new one.
+     *
+     * @param event The session binding event, whose value is the replaced attribute
+     */
+    @Override
+    public void attributeReplaced(HttpSessionBindingEvent event) {
+        attributeRemoved(event);
+        Object current = event.getSession().getAttribute(event.getName());
+        if (current instanceof SessionCart) {
+            AbandonedCartSweeper.getInstance().holdCart(((SessionCart) current).getCartId());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.scentedbliss.model;
+
+/**
+ * A lean view of a product for list pages such as the shop grid and the cart.
+ * It holds only the columns those pages show, plus updatedAt to version the cached shop card,
+ * so list queries do not read the product description. The full product, including its description, is loaded as a
+ * ProductModel only where it is needed (the product detail and edit pages).
+ */
+public class ProductSummaryModel {
+    private int productId; // Unique identifier for the product
+    private String productName; // Name of the product
+    private double price; // Price of the product per unit
+    private int stock; // Available stock quantity of the product
+    private String brand; // Brand name of the product
+    private String productImage; // URL or path to the product's image
+    private String updatedAt; // Last update time of the product
+
+    /**
+     * Default constructor for creating an empty ProductSummaryModel instance.
+     */
+    public ProductSummaryModel() {
+    }
+
+    /**
+     * Parameterized constructor to initialize a ProductSummaryModel instance with all fields.
+     *
+     * @param productId The unique identifier for the product
+     * @param productName The name of the product
+     * @param price The price of the product per unit
+     * @param stock The available stock quantity of the product
+     * @param brand The brand name of the product
+     * @param productImage The URL or path to the product's image
+     * @param updatedAt The last update time of the product
+     */
+    public ProductSummaryModel(int productId, String productName, double price, int stock, String brand,
+            String productImage, String updatedAt) {
+        this.productId = productId;
+        this.productName = productName;
+        this.price = price;
+        this.stock = stock;
+        this.brand = brand;
+        this.productImage = productImage;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Gets the product ID.
+     *
+     * @return The product ID
+     */
+    public int getProductId() {
+        return productId;
+    }
+
+    /**
+     * Sets the product ID.
+     *
+     * @param productId The product ID to set
+     */
+    public void setProductId(int productId) {
+        this.productId = productId;
+    }
+
+    /**
+     * Gets the name of the product.
+     *
+     * @return The product name
+     */
+    public String getProductName() {
+        return productName;
+    }
+
+    /**
+     * Sets the name of the product.
+     *
+     * @param productName The product name to set
+     */
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    /**
+     * Gets the price per unit of the product.
+     *
+     * @return The price
+     */
+    public double getPrice() {
+        return price;
+    }
+
+    /**
+     * Sets the price per unit of the product.
+     *
+     * @param price The price to set
+     */
+    public void setPrice(double price) {
+        this.price = price;
+    }
+
+    /**
+     * Gets the available stock quantity of the product.
+     *
+     * @return The stock quantity
+     */
+    public int getStock() {
+        return stock;
+    }
+
+    /**
+     * Sets the available stock quantity of the product.
+     *
+     * @param stock The stock quantity to set
+     */
+    public void setStock(int stock) {
+        this.stock = stock;
+    }
+
+    /**
+     * Gets the brand name of the product.
+     *
+     * @return The brand name
+     */
+    public String getBrand() {
+        return brand;
+    }
+
+    /**
+     * Sets the brand name of the product.
+     *
+     * @param brand The brand name to set
+     */
+    public void setBrand(String brand) {
+        this.brand = brand;
+    }
+
+    /**
+     * Gets the URL or path to the product's image.
+     *
+     * @return The product image URL or path
+     */
+    public String getProductImage() {
+        return productImage;
+    }
+
+    /**
+     * Sets the URL or path to the product's image.
+     *
+     * @param productImage The product image URL or path to set
+     */
+    public void setProductImage(String productImage) {
+        this.productImage = productImage;
+    }
+
+    /**
+     * Gets the last update time of the product.
+     *
+     * @return The last update time
+     */
+    public String getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * Sets the last update time of the product.
+     *
+     * @param updatedAt The last update time to set
+     */
+    public void setUpdatedAt(String updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,156 @@
+package com.scentedbliss.model;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A model class representing the active shopping cart of a logged-in user, kept in the HTTP session.
+ * It holds only product IDs and quantities (in insertion order); names, prices and images are looked
+ * up from the product catalog cache when the cart is displayed. The database copy in cart_product is
+ * kept up to date asynchronously by the cart write-behind queue.
+ *
+ * All methods are synchronized because the same session may be used by concurrent requests
+ * (e.g. a double-clicked quantity button). SessionCartService also holds the cart's lock while it
+ * queues a change for the database, so changes are written in the order they were made.
+ */
+public class SessionCart implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String username; // Username of the cart owner (matches the username cookie)
+    private final int userId; // Identifier of the cart owner
+    private final int cartId; // Identifier of the persistent cart row
+    private final Map<Integer, Integer> lines = new LinkedHashMap<>(); // productId -> quantity
+    private int itemCount; // Sum of all line quantities, maintained on every change for the header badge
+
+    /**
+     * Creates an empty session cart for the given user and persistent cart.
+     *
+     * @param username The username of the cart owner
+     * @param userId The identifier of the cart owner
+     * @param cartId The identifier of the persistent cart row
+     */
+    public SessionCart(String username, int userId, int cartId) {
+        this.username = username;
+        this.userId = userId;
+        this.cartId = cartId;
+    }
+
+    /**
+     * Gets the username of the cart owner.
+     *
+     * @return The username
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Gets the identifier of the cart owner.
+     *
+     * @return The user ID
+     */
+    public int getUserId() {
+        return userId;
+    }
+
+    /**
+     * Gets the identifier of the persistent cart row.
+     *
+     * @return The cart ID
+     */
+    public int getCartId() {
+        return cartId;
+    }
+
+    /**
+     * Gets the quantity of a product in the cart.
+     *
+     * @param productId The product ID
+     * @return The quantity, or 0 if the product is not in the cart
+     */
+    public synchronized int getQuantity(int productId) {
+        Integer quantity = lines.get(productId);
+        return quantity != null ? quantity : 0;
+    }
+
+    /**
+     * Adds a quantity of a product to the cart.
+     *
+     * @param productId The product ID
+     * @param quantity The quantity to add (positive value)
+     * @return The new quantity of the product in the cart
+     */
+    public synchronized int add(int productId, int quantity) {
+        return setQuantity(productId, getQuantity(productId) + quantity);
+    }
+
+    /**
+     * Sets the quantity of a product in the cart. A quantity of 0 or less removes the line.
+     *
+     * @param productId The product ID
+     * @param quantity The new quantity
+     * @return The new quantity of the product in the cart
+     */
+    public synchronized int setQuantity(int productId, int quantity) {
+        itemCount -= getQuantity(productId);
+        if (quantity <= 0) {
+            lines.remove(productId);
+            return 0;
+        }
+        lines.put(productId, quantity);
+        itemCount += quantity;
+        return quantity;
+    }
+
+    /**
+     * Removes a product from the cart.
+     *
+     * @param productId The product ID
+     * @return true if the product was in the cart, false otherwise
+     */
+    public synchronized boolean remove(int productId) {
+        Integer quantity = lines.remove(productId);
+        if (quantity == null) {
+            return false;
+        }
+        itemCount -= quantity;
+        return true;
+    }
+
+    /**
+     * Removes all products from the cart.
+     */
+    public synchronized void clear() {
+        lines.clear();
+        itemCount = 0;
+    }
+
+    /**
+     * Gets the number of distinct products in the cart.
+     *
+     * @return The number of cart lines
+     */
+    public synchronized int getLineCount() {
+        return lines.size();
+    }
+
+    /**
+     * Gets the total quantity of all products in the cart. Kept up to date on every change,
+     * so the header badge can show it without touching the database.
+     *
+     * @return The sum of all line quantities
+     */
+    public synchronized int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Returns a copy of the cart lines, safe to iterate without holding the cart lock.
+     *
+     * @return Map of product ID to quantity, in insertion order
+     */
+    public synchronized Map<Integer, Integer> getLines() {
+        return new LinkedHashMap<>(lines);
+    }
+}
@@ -0,0 +1,265 @@
+package com.scentedbliss.service;
+
+import com.scentedbliss.config.AppConfig;
+import com.scentedbliss.config.DbConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author 23049172 Sabin Devkota
+ *
+ * Background job that deletes carts which have not been changed for longer than a configurable
+ * time-to-live, together with their cart_product lines. Idle carts are found through the
+ * (updatedAt, cartId) index and deleted in small batches, each in its own short transaction,
+ * walking the index with a keyset cursor so no statement scans or locks more than one batch.
+ * Carts that still have unwritten changes in the cart write-behind queue, and carts held by a
+ * live session (reported by SessionCartListener), are skipped.
+ *
+ * Settings (context parameters in web.xml):
+ * - cartSweeper.ttlDays: days without changes after which a cart is deleted (default 30)
+ * - cartSweeper.intervalMinutes: delay between two sweeps (default 60)
+ * - cartSweeper.batchSize: maximum number of carts deleted per transaction (default 200)
+ *
+ * Counters of the work done are kept in memory and logged after every sweep.
+ */
+public class AbandonedCartSweeper {
+    private static final AbandonedCartSweeper INSTANCE = new AbandonedCartSweeper();
+
+    // Next batch of idle carts after the keyset cursor (updatedAt, cartId)
+    public static final String SELECT_IDLE_CARTS_QUERY = // Public so QueryPlanCheck explains it
+            "SELECT cartId, updatedAt FROM cart WHERE updatedAt < ? " +
+            "AND (updatedAt > ? OR (updatedAt = ? AND cartId > ?)) " +
+            "ORDER BY updatedAt, cartId LIMIT ?";
+
+    private final AtomicLong sweepCount = new AtomicLong(); // Number of completed sweeps
+    private final AtomicLong cartsReclaimed = new AtomicLong(); // Total cart rows deleted
+    private final AtomicLong linesReclaimed = new AtomicLong(); // Total cart_product rows deleted
+    private final AtomicLong cartsSkipped = new AtomicLong(); // Idle carts kept because of pending writes or live sessions
+    private final Map<Integer, Integer> heldCarts = new ConcurrentHashMap<>(); // cartId -> number of sessions holding it
+    private volatile long lastSweepMillis; // Duration of the last sweep
+    private volatile LocalDateTime lastSweepAt; // Start time of the last sweep, null before the first
+
+    private ScheduledExecutorService scheduler; // Timer for periodic sweeps
+
+    private AbandonedCartSweeper() {
+    }
+
+    /**
+     * Returns the shared sweeper.
+     *
+     * @return The AbandonedCartSweeper instance
+     */
+    public static AbandonedCartSweeper getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts the periodic sweep. Called once when the application starts.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return; // Already started
+        }
+        int intervalMinutes = Math.max(AppConfig.getInt("cartSweeper.intervalMinutes", 60), 1);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "abandoned-cart-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sweep, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+        System.out.println("AbandonedCartSweeper start: Sweeping every " + intervalMinutes + " minutes");
+    }
+
+    /**
+     * Stops the periodic sweep. Called when the application stops.
+     */
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow(); // A sweep in progress stops after its current batch
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Records that a session holds a cart, so the cart is not swept while the session lives.
+     *
+     * @param cartId The ID of the cart
+     */
+    public void holdCart(int cartId) {
+        heldCarts.merge(cartId, 1, Integer::sum);
+    }
+
+    /**
+     * Records that a session no longer holds a cart.
+     *
+     * @param cartId The ID of the cart
+     */
+    public void releaseCart(int cartId) {
+        heldCarts.computeIfPresent(cartId, (id, sessions) -> sessions > 1 ? sessions - 1 : null);
+    }
+
+    /**
+     * Runs one sweep: deletes all carts idle for longer than the time-to-live, batch by batch.
+     */
+    public void sweep() {
+        int ttlDays = Math.max(AppConfig.getInt("cartSweeper.ttlDays", 30), 1);
+        int batchSize = Math.max(AppConfig.getInt("cartSweeper.batchSize", 200), 1);
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(ttlDays));
+        long start = System.currentTimeMillis();
+        lastSweepAt = LocalDateTime.now();
+        long carts = 0;
+        long lines = 0;
+
+        try (Connection dbConn = DbConfig.getDbConnection()) {
+            Timestamp lastUpdatedAt = new Timestamp(0); // Keyset cursor
+            int lastCartId = 0;
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Integer> cartIds = new ArrayList<>();
+                int selected = 0; // Rows read in this batch, including skipped carts
+                try (PreparedStatement stmt = dbConn.prepareStatement(SELECT_IDLE_CARTS_QUERY)) {
+                    stmt.setTimestamp(1, cutoff);
+                    stmt.setTimestamp(2, lastUpdatedAt);
+                    stmt.setTimestamp(3, lastUpdatedAt);
+                    stmt.setInt(4, lastCartId);
+                    stmt.setInt(5, batchSize);
+                    ResultSet rs = stmt.executeQuery();
+                    while (rs.next()) {
+                        selected++;
+                        lastCartId = rs.getInt("cartId");
+                        lastUpdatedAt = rs.getTimestamp("updatedAt");
+                        if (heldCarts.containsKey(lastCartId) || CartWriteBehindQueue.getInstance().hasPending(lastCartId)) {
+                            cartsSkipped.incrementAndGet(); // Still in use; its next change refreshes updatedAt
+                        } else {
+                            cartIds.add(lastCartId);
+                        }
+                    }
+                }
+                if (!cartIds.isEmpty()) {
+                    long[] deleted = deleteBatch(dbConn, cartIds, cutoff);
+                    carts += deleted[0];
+                    lines += deleted[1];
+                }
+                if (selected < batchSize) {
+                    break; // Reached the end of the idle carts
+                }
+            }
+        } catch (SQLException | ClassNotFoundException e) {
+            System.err.println("AbandonedCartSweeper sweep: Error after deleting " + carts + " cart(s): " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        cartsReclaimed.addAndGet(carts);
+        linesReclaimed.addAndGet(lines);
+        sweepCount.incrementAndGet();
+        lastSweepMillis = System.currentTimeMillis() - start;
+        System.out.println("AbandonedCartSweeper sweep: Reclaimed " + carts + " cart(s) and " + lines
+                + " cart line(s) idle since " + cutoff + " in " + lastSweepMillis + " ms (totals: "
+                + cartsReclaimed.get() + " carts, " + linesReclaimed.get() + " lines, "
+                + cartsSkipped.get() + " skipped)");
+    }
+
+    /**
+     * Deletes one batch of carts and their lines in a single short transaction. The updatedAt
+     * condition is checked again, so a cart changed since it was selected is kept.
+     *
+     * @return The number of deleted carts and deleted cart lines
+     */
+    private long[] deleteBatch(Connection dbConn, List<Integer> cartIds, Timestamp cutoff) throws SQLException {
+        String placeholders = String.join(",", Collections.nCopies(cartIds.size(), "?"));
+        String deleteLinesQuery = "DELETE cp FROM cart_product cp JOIN cart c ON c.cartId = cp.cartId "
+                + "WHERE c.cartId IN (" + placeholders + ") AND c.updatedAt < ?";
+        String deleteCartsQuery = "DELETE FROM cart WHERE cartId IN (" + placeholders + ") AND updatedAt < ?";
+
+        dbConn.setAutoCommit(false);
+        try (PreparedStatement linesStmt = dbConn.prepareStatement(deleteLinesQuery);
+             PreparedStatement cartsStmt = dbConn.prepareStatement(deleteCartsQuery)) {
+            bindBatch(linesStmt, cartIds, cutoff);
+            bindBatch(cartsStmt, cartIds, cutoff);
+            long lines = linesStmt.executeUpdate();
+            long carts = cartsStmt.executeUpdate();
+            dbConn.commit();
+            return new long[] {carts, lines};
+        } catch (SQLException e) {
+            dbConn.rollback();
+            throw e;
+        } finally {
+            dbConn.setAutoCommit(true);
+        }
+    }
+
+    private static void bindBatch(PreparedStatement stmt, List<Integer> cartIds, Timestamp cutoff) throws SQLException {
+        int index = 1;
+        for (Integer cartId : cartIds) {
+            stmt.setInt(index++, cartId);
+        }
+        stmt.setTimestamp(index, cutoff);
+    }
+
+    /**
+     * Gets the number of completed sweeps.
+     *
+     * @return The sweep count
+     */
+    public long getSweepCount() {
+        return sweepCount.get();
+    }
+
+    /**
+     * Gets the total number of cart rows deleted since startup.
+     *
+     * @return The number of reclaimed carts
+     */
+    public long getCartsReclaimed() {
+        return cartsReclaimed.get();
+    }
+
+    /**
+     * Gets the total number of cart_product rows deleted since startup.
+     *
+     * @return The number of reclaimed cart lines
+     */
+    public long getLinesReclaimed() {
+        return linesReclaimed.get();
+    }
+
+    /**
+     * Gets the number of idle carts skipped because they had unwritten changes or a live session.
+     *
+     * @return The number of skipped carts
+     */
+    public long getCartsSkipped() {
+        return cartsSkipped.get();
+    }
+
+    /**
+     * Gets the duration of the last sweep.
+     *
+     * @return The duration in milliseconds
+     */
+    public long getLastSweepMillis() {
+        return lastSweepMillis;
+    }
+
+    /**
+     * Gets the start time of the last sweep.
+     *
+     * @return The start time, or null if no sweep has run yet
+     */
+    public LocalDateTime getLastSweepAt() {
+        return lastSweepAt;
+    }
+}
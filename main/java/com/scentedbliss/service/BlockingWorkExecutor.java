@@ -0,0 +1,136 @@
+package com.scentedbliss.service;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.scentedbliss.config.AppConfig;
+
+/**
+ * @author 23049172 Sabin Devkota
+ *
+ * Runs blocking request work (JDBC calls and page rendering) on virtual threads instead of
+ * the container's worker threads, so a slow database ties up cheap virtual threads rather
+ * than the limited Tomcat pool. Used by AsyncHttpServlet when the async.virtualThreads
+ * context parameter is true; off by default.
+ *
+ * A semaphore bounds how many requests do their work at the same time
+ * (async.maxConcurrentWork, default 10), so thousands of waiting requests do not all hit the
+ * database at once. The services used by these requests borrow a pooled connection per call,
+ * so the bound is best kept at or below db.poolSize; work beyond it would only wait for a
+ * connection. Virtual threads need Java 21; on older runtimes the mode stays off and requests
+ * run on the container threads as before.
+ */
+public class BlockingWorkExecutor {
+    private static final BlockingWorkExecutor INSTANCE = new BlockingWorkExecutor();
+    private static final long PERMIT_TIMEOUT_SECONDS = 30; // Longest wait for a work slot before giving up
+
+    private volatile ExecutorService executor; // Virtual thread per task, null while the mode is off
+    private Semaphore permits; // Limits concurrent request work
+
+    private BlockingWorkExecutor() {
+    }
+
+    /**
+     * Returns the shared executor.
+     *
+     * @return The BlockingWorkExecutor instance
+     */
+    public static BlockingWorkExecutor getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Creates the virtual thread executor if the mode is enabled. Called once when the
+     * application starts.
+     */
+    public synchronized void start() {
+        if (executor != null || !AppConfig.getBoolean("async.virtualThreads", false)) {
+            return;
+        }
+        int maxConcurrentWork = Math.max(AppConfig.getInt("async.maxConcurrentWork", 10), 1);
+        try {
+            // Looked up reflectively so the application still compiles and runs on Java 17
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            permits = new Semaphore(maxConcurrentWork, true);
+            executor = (ExecutorService) factory.invoke(null);
+            System.out.println("BlockingWorkExecutor start: Virtual threads enabled, " + maxConcurrentWork + " concurrent requests");
+        } catch (ReflectiveOperationException e) {
+            System.err.println("BlockingWorkExecutor start: Virtual threads need Java 21, requests stay on container threads");
+        }
+    }
+
+    /**
+     * Stops accepting work and waits briefly for running requests. Called when the application stops.
+     */
+    public synchronized void shutdown() {
+        ExecutorService running = executor;
+        executor = null;
+        if (running != null) {
+            running.shutdown();
+            try {
+                running.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Tells whether requests should be handed to virtual threads.
+     *
+     * @return true if the mode is enabled and running
+     */
+    public boolean isEnabled() {
+        return executor != null;
+    }
+
+    /**
+     * Runs request work on a virtual thread once a work slot is free.
+     *
+     * @param work The work to run
+     * @param onBusy Runs instead of the work if no slot frees up in time
+     * @return false if the executor is not running, so the caller must do the work itself
+     */
+    public boolean submit(Runnable work, Runnable onBusy) {
+        ExecutorService current = executor;
+        if (current == null) {
+            return false;
+        }
+        try {
+            current.execute(() -> {
+                boolean hasPermit = false;
+                try {
+                    hasPermit = permits.tryAcquire(PERMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                    if (hasPermit) {
+                        work.run();
+                    } else {
+                        onBusy.run();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    onBusy.run();
+                } finally {
+                    if (hasPermit) {
+                        permits.release();
+                    }
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false; // Shutting down
+        }
+    }
+
+    /**
+     * Gets the number of requests that could start their work right now.
+     *
+     * @return The number of free work slots, or 0 while the mode is off
+     */
+    public int getAvailableSlots() {
+        return executor != null ? permits.availablePermits() : 0;
+    }
+}
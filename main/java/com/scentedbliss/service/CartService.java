@@ -1,7 +1,8 @@
 package com.scentedbliss.service;
 
-import com.scentedbliss.config.DbConfig;
+import com.scentedbliss.config.ConnectionPool;
 import com.scentedbliss.model.ProductModel;
+import com.scentedbliss.util.RowMapper;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -10,43 +11,40 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author 23049172 Sabin Devkota
  * 
  * This class provides service layer functionality for managing cart-related operations,
- * including creating carts, adding/removing/updating products, clearing carts, and retrieving
- * cart contents. It interacts with the database using JDBC and includes a reconnection
- * mechanism for handling connection errors.
+ * including creating carts, adding products and setting quantities (which CartWriteBehindQueue
+ * uses to write the session cart changes), and retrieving cart contents. It interacts with the
+ * database using JDBC; every call borrows its own connection from the ConnectionPool, so one
+ * instance can serve concurrent requests.
  */
 public class CartService {
-    private Connection dbConn; // Database connection instance
-    private boolean isConnectionError = false; // Flag to track connection issues
+    private static final RowMapper<ProductModel> CART_PRODUCT_MAPPER = RowMapper.of(ProductModel.class); // getCartProducts rows
 
-    /**
-     * Constructor initializes the database connection by calling the private
-     * initializeConnection method.
-     */
-    public CartService() {
-        initializeConnection(); // Initialize the database connection
-    }
-
-    /**
-     * Initializes or re-establishes the database connection.
-     * 
-     * @throws SQLException if a database access error occurs
-     * @throws ClassNotFoundException if the JDBC driver class is not found
-     */
-    private void initializeConnection() {
-        try {
-            this.dbConn = DbConfig.getDbConnection(); // Establish connection to the database
-        } catch (SQLException | ClassNotFoundException ex) {
-            System.err.println("Database connection error: " + ex.getMessage()); // Log the error message
-            ex.printStackTrace(); // Print stack trace for debugging
-            isConnectionError = true; // Set flag to indicate connection failure
-        }
-    }
+    // Frequent lookups, public so QueryPlanCheck explains the same SQL
+    public static final String CART_ID_BY_USER_ID_QUERY = "SELECT cartId FROM cart WHERE userId = ?";
+    public static final String USER_ID_BY_USERNAME_QUERY = "SELECT userId FROM users WHERE username = ?";
+    public static final String CART_PRODUCTS_QUERY =
+            "SELECT cp.productId, cp.quantity, p.productName, p.productDescription, p.price, p.stock, " +
+            "p.brand, p.productImage, p.createdAt, p.updatedAt " +
+            "FROM cart_product cp JOIN products p ON cp.productId = p.productId WHERE cp.cartId = ?";
+    public static final String CART_QUANTITIES_QUERY = "SELECT productId, quantity FROM cart_product WHERE cartId = ?";
+    // Atomic insert-or-increment on the (cartId, productId) primary key of cart_product
+    public static final String UPSERT_CART_PRODUCT_QUERY =
+            "INSERT INTO cart_product (cartId, productId, quantity) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity)";
+    // Insert-or-overwrite of a line's absolute quantity
+    public static final String SET_CART_PRODUCT_QUERY =
+            "INSERT INTO cart_product (cartId, productId, quantity) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE quantity = VALUES(quantity)";
+    private static final String DELETE_CART_PRODUCT_QUERY = "DELETE FROM cart_product WHERE cartId = ? AND productId = ?";
 
     /**
      * Retrieves the cart ID for a given user ID from the database.
@@ -55,27 +53,42 @@ public class CartService {
      * @return The cart ID if found, null otherwise or if connection fails
      */
     public Integer getCartIdByUserId(int userId) {
-        if (isConnectionError) {
-            System.err.println("Cannot fetch cart ID due to connection error");
-            reconnectIfNeeded(); // Attempt to reconnect if connection is lost
-            return null; // Return null if connection fails or reconnection fails
-        }
-
-        String query = "SELECT cartId FROM cart WHERE userId = ?";
-        try (PreparedStatement stmt = dbConn.prepareStatement(query)) {
+        try (Connection dbConn = ConnectionPool.getConnection();
+             PreparedStatement stmt = dbConn.prepareStatement(CART_ID_BY_USER_ID_QUERY)) {
             stmt.setInt(1, userId); // Bind the userId parameter
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
                 return rs.getInt("cartId"); // Return the found cart ID
             }
-        } catch (SQLException e) {
+        } catch (SQLException | ClassNotFoundException e) {
             System.err.println("SQL Error during cart ID retrieval: " + e.getMessage());
             e.printStackTrace(); // Log the exception for debugging
-            isConnectionError = true; // Update flag if error occurs
         }
         return null; // Return null if no cart found or an error occurs
     }
 
+    /**
+     * Retrieves the user ID for a given username from the database.
+     * 
+     * @param username The username to look up
+     * @return The user ID if found, -1 otherwise or if connection fails
+     */
+    public int getUserIdByUsername(String username) {
+        try (Connection dbConn = ConnectionPool.getConnection();
+             PreparedStatement stmt = dbConn.prepareStatement(USER_ID_BY_USERNAME_QUERY)) {
+            stmt.setString(1, username); // Bind the username parameter
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return rs.getInt("userId"); // Return the found user ID
+            }
+        } catch (SQLException | ClassNotFoundException e) {
+            System.err.println("SQL Error during user ID retrieval: " + e.getMessage());
+            e.printStackTrace(); // Log the exception for debugging
+        }
+        System.out.println("getUserIdByUsername: No userId found for username = " + username);
+        return -1; // Return -1 if user not found or an error occurs
+    }
+
     /**
      * Creates a new cart for a given user ID and returns the generated cart ID.
      * Note: For testing, the createdAt timestamp is hardcoded to May 13, 2025, 06:11 PM +0545.
@@ -84,14 +97,9 @@ public class CartService {
      * @return The generated cart ID if successful, null otherwise or if connection fails
      */
     public Integer createCart(int userId) {
-        if (isConnectionError) {
-            System.err.println("Cannot create cart due to connection error");
-            reconnectIfNeeded(); // Attempt to reconnect if connection is lost
-            return null; // Return null if connection fails or reconnection fails
-        }
-
         String insertQuery = "INSERT INTO cart (userId, createdAt) VALUES (?, ?)";
-        try (PreparedStatement stmt = dbConn.prepareStatement(insertQuery, PreparedStatement.RETURN_GENERATED_KEYS)) {
+        try (Connection dbConn = ConnectionPool.getConnection();
+             PreparedStatement stmt = dbConn.prepareStatement(insertQuery, PreparedStatement.RETURN_GENERATED_KEYS)) {
             stmt.setInt(1, userId); // Bind the userId parameter
             // Hardcoded timestamp for testing (May 13, 2025, 06:11 PM +0545)
             stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.of(2025, 5, 13, 18, 11, 0)));
@@ -102,196 +110,221 @@ public class CartService {
                     return rs.getInt(1); // Return the auto-generated cart ID
                 }
             }
-        } catch (SQLException e) {
+        } catch (SQLException | ClassNotFoundException e) {
             System.err.println("SQL Error during cart creation: " + e.getMessage());
             e.printStackTrace(); // Log the exception for debugging
-            isConnectionError = true; // Update flag if error occurs
         }
         return null; // Return null if creation fails or an error occurs
     }
 
     /**
-     * Adds a product to the cart or updates its quantity if already present.
+     * Retrieves all products in a cart by joining cart_product and products tables.
      * 
-     * @param cartId The ID of the cart
-     * @param productId The ID of the product to add
-     * @param quantity The quantity to add (positive value)
-     * @return true if the operation succeeds, false otherwise or if connection fails
+     * @param cartId The ID of the cart to retrieve products from
+     * @return List of ProductModel objects, empty list if connection fails or no products
      */
-    public boolean addProductToCart(int cartId, int productId, int quantity) {
-        if (isConnectionError) {
-            System.err.println("Cannot add product to cart due to connection error");
-            reconnectIfNeeded(); // Attempt to reconnect if connection is lost
-            return false; // Return false if connection fails or reconnection fails
+    public List<ProductModel> getCartProducts(int cartId) {
+        try (Connection dbConn = ConnectionPool.getConnection();
+             PreparedStatement stmt = dbConn.prepareStatement(CART_PRODUCTS_QUERY)) {
+            stmt.setInt(1, cartId); // Bind the cartId parameter
+            ResultSet rs = stmt.executeQuery();
+            return CART_PRODUCT_MAPPER.mapAll(rs); // Quantity comes from cart_product
+        } catch (SQLException | ClassNotFoundException e) {
+            System.err.println("SQL Error during cart products retrieval: " + e.getMessage());
+            e.printStackTrace(); // Log the exception for debugging
+            return new ArrayList<>(); // Return empty list if an error occurs
         }
+    }
 
-        String checkQuery = "SELECT quantity FROM cart_product WHERE cartId = ? AND productId = ?";
-        try (PreparedStatement checkStmt = dbConn.prepareStatement(checkQuery)) {
-            checkStmt.setInt(1, cartId); // Bind the cartId parameter
-            checkStmt.setInt(2, productId); // Bind the productId parameter
-            ResultSet rs = checkStmt.executeQuery();
-            if (rs.next()) {
-                int currentQuantity = rs.getInt("quantity");
-                String updateQuery = "UPDATE cart_product SET quantity = ? WHERE cartId = ? AND productId = ?";
-                try (PreparedStatement updateStmt = dbConn.prepareStatement(updateQuery)) {
-                    updateStmt.setInt(1, currentQuantity + quantity); // Increment existing quantity
-                    updateStmt.setInt(2, cartId);
-                    updateStmt.setInt(3, productId);
-                    return updateStmt.executeUpdate() > 0; // Return true if update succeeds
-                }
-            } else {
-                String insertQuery = "INSERT INTO cart_product (cartId, productId, quantity) VALUES (?, ?, ?)";
-                try (PreparedStatement insertStmt = dbConn.prepareStatement(insertQuery)) {
-                    insertStmt.setInt(1, cartId);
-                    insertStmt.setInt(2, productId);
-                    insertStmt.setInt(3, quantity); // Set initial quantity
-                    return insertStmt.executeUpdate() > 0; // Return true if insert succeeds
-                }
+    /**
+     * Retrieves the product IDs and quantities in a cart without joining the products table.
+     * Used to seed the session-resident cart; product details come from the catalog cache.
+     * 
+     * @param cartId The ID of the cart
+     * @return Map of product ID to quantity, empty map if connection fails or the cart is empty
+     */
+    public Map<Integer, Integer> getCartQuantities(int cartId) {
+        try (Connection dbConn = ConnectionPool.getConnection();
+             PreparedStatement stmt = dbConn.prepareStatement(CART_QUANTITIES_QUERY)) {
+            stmt.setInt(1, cartId); // Bind the cartId parameter
+            ResultSet rs = stmt.executeQuery();
+            Map<Integer, Integer> quantities = new LinkedHashMap<>();
+            while (rs.next()) {
+                quantities.put(rs.getInt("productId"), rs.getInt("quantity"));
             }
-        } catch (SQLException e) {
-            System.err.println("SQL Error during add product to cart: " + e.getMessage());
+            return quantities; // Return the cart lines
+        } catch (SQLException | ClassNotFoundException e) {
+            System.err.println("SQL Error during cart quantities retrieval: " + e.getMessage());
             e.printStackTrace(); // Log the exception for debugging
-            isConnectionError = true; // Update flag if error occurs
-            return false; // Return false if an error occurs
+            return new LinkedHashMap<>(); // Return empty map if an error occurs
         }
     }
 
     /**
-     * Updates the quantity of a product in the cart.
+     * Adds a product to the cart or updates its quantity if already present.
+     * Uses a single upsert on the (cartId, productId) primary key of cart_product, so
+     * concurrent adds of the same product (e.g. a double-submitted /addtocart) are summed
+     * by the database instead of racing between a SELECT and an UPDATE/INSERT.
      * 
      * @param cartId The ID of the cart
-     * @param productId The ID of the product to update
-     * @param quantity The new quantity (positive value)
-     * @return true if the operation succeeds, false otherwise or if connection fails
+     * @param productId The ID of the product to add
+     * @param quantity The quantity to add
+     * @return true if the product was added or updated successfully, false otherwise
      */
-    public boolean updateCartProductQuantity(int cartId, int productId, int quantity) {
-        if (isConnectionError) {
-            System.err.println("Cannot update cart product quantity due to connection error");
-            reconnectIfNeeded(); // Attempt to reconnect if connection is lost
-            return false; // Return false if connection fails or reconnection fails
-        }
+    public boolean addProductToCart(int cartId, int productId, int quantity) {
+        return addProductsToCart(cartId, Collections.singletonMap(productId, quantity));
+    }
 
-        String query = "UPDATE cart_product SET quantity = ? WHERE cartId = ? AND productId = ?";
-        try (PreparedStatement stmt = dbConn.prepareStatement(query)) {
-            stmt.setInt(1, quantity); // Set the new quantity
-            stmt.setInt(2, cartId); // Bind the cartId parameter
-            stmt.setInt(3, productId); // Bind the productId parameter
-            return stmt.executeUpdate() > 0; // Return true if update succeeds
-        } catch (SQLException e) {
-            System.err.println("SQL Error during update cart product quantity: " + e.getMessage());
-            e.printStackTrace(); // Log the exception for debugging
-            isConnectionError = true; // Update flag if error occurs
-            return false; // Return false if an error occurs
-        }
+    /**
+     * Adds several products to the cart in one batched round-trip. Each entry is applied
+     * with the same upsert as {@link #addProductToCart(int, int, int)}, inside a single
+     * transaction. Used by the cart write-behind queue to persist coalesced adds.
+     * A line that refers to a deleted cart or product can never be written; it is logged and
+     * dropped so the rest of the cart is still saved and the queue does not retry it forever.
+     * 
+     * @param cartId The ID of the cart
+     * @param quantities Map of product ID to the quantity to add (positive values)
+     * @return true if every line was applied or dropped, false otherwise or if connection fails
+     */
+    public boolean addProductsToCart(int cartId, Map<Integer, Integer> quantities) {
+        return writeCart(cartId, Collections.emptyMap(), quantities);
     }
 
     /**
-     * Removes a product from the cart.
+     * Sets the quantities of several lines of a cart in one transaction. Used by the cart
+     * write-behind queue to persist coalesced quantity changes and removals.
+     * Each quantity overwrites the line, or deletes it if 0 or less. Lines that refer to a
+     * deleted cart or product are logged and dropped, as in {@link #addProductsToCart}.
      * 
      * @param cartId The ID of the cart
-     * @param productId The ID of the product to remove
-     * @return true if the operation succeeds, false otherwise or if connection fails
+     * @param quantities Map of product ID to the new absolute quantity
+     * @return true if all lines were written or dropped, false otherwise or if connection fails
      */
-    public boolean removeProductFromCart(int cartId, int productId) {
-        if (isConnectionError) {
-            System.err.println("Cannot remove product from cart due to connection error");
-            reconnectIfNeeded(); // Attempt to reconnect if connection is lost
-            return false; // Return false if connection fails or reconnection fails
-        }
+    public boolean saveCartQuantities(int cartId, Map<Integer, Integer> quantities) {
+        return writeCart(cartId, quantities, Collections.emptyMap());
+    }
 
-        String query = "DELETE FROM cart_product WHERE cartId = ? AND productId = ?";
-        try (PreparedStatement stmt = dbConn.prepareStatement(query)) {
-            stmt.setInt(1, cartId); // Bind the cartId parameter
-            stmt.setInt(2, productId); // Bind the productId parameter
-            return stmt.executeUpdate() > 0; // Return true if deletion succeeds
-        } catch (SQLException e) {
-            System.err.println("SQL Error during remove product from cart: " + e.getMessage());
+    /**
+     * Writes absolute quantities and added quantities of a cart in one transaction, batched.
+     * 
+     * @param cartId The ID of the cart
+     * @param quantities Map of product ID to the new absolute quantity
+     * @param additions Map of product ID to the quantity to add (positive values)
+     * @return true if all lines were written or dropped, false otherwise or if connection fails
+     */
+    private boolean writeCart(int cartId, Map<Integer, Integer> quantities, Map<Integer, Integer> additions) {
+        if (quantities.isEmpty() && additions.isEmpty()) {
+            return true; // Nothing to write
+        }
+        try (Connection dbConn = ConnectionPool.getConnection();
+             PreparedStatement setStmt = dbConn.prepareStatement(SET_CART_PRODUCT_QUERY);
+             PreparedStatement addStmt = dbConn.prepareStatement(UPSERT_CART_PRODUCT_QUERY);
+             PreparedStatement deleteStmt = dbConn.prepareStatement(DELETE_CART_PRODUCT_QUERY)) {
+            dbConn.setAutoCommit(false); // Write all lines of the cart atomically
+            try {
+                try {
+                    writeLines(cartId, quantities, additions, setStmt, addStmt, deleteStmt, true);
+                } catch (SQLException e) {
+                    if (!isConstraintViolation(e)) {
+                        throw e;
+                    }
+                    dbConn.rollback(); // Start over, one line at a time, to find the lines that cannot be written
+                    writeLines(cartId, quantities, additions, setStmt, addStmt, deleteStmt, false);
+                }
+                touchCart(dbConn, cartId); // Record activity so the abandoned cart sweeper keeps this cart
+                dbConn.commit();
+                return true;
+            } catch (SQLException e) {
+                dbConn.rollback(); // Roll back partial write
+                throw e;
+            } finally {
+                dbConn.setAutoCommit(true); // Restore auto-commit mode
+            }
+        } catch (SQLException | ClassNotFoundException e) {
+            System.err.println("SQL Error during cart write: " + e.getMessage());
             e.printStackTrace(); // Log the exception for debugging
-            isConnectionError = true; // Update flag if error occurs
             return false; // Return false if an error occurs
         }
     }
 
     /**
-     * Clears all products from a cart.
+     * Executes the changes of writeCart, either as batches or one line at a time. One line
+     * at a time, a line rejected by a foreign key (deleted cart or product) is logged and skipped;
+     * InnoDB only rolls back the failing statement, so the transaction goes on.
      * 
-     * @param cartId The ID of the cart to clear
-     * @return true if the operation succeeds (rows affected >= 0), false otherwise or if connection fails
+     * @throws SQLException if a database access error occurs, or in batches any constraint violation
      */
-    public boolean clearCart(int cartId) {
-        if (isConnectionError) {
-            System.err.println("Cannot clear cart due to connection error");
-            reconnectIfNeeded(); // Attempt to reconnect if connection is lost
-            return false; // Return false if connection fails or reconnection fails
+    private void writeLines(int cartId, Map<Integer, Integer> quantities, Map<Integer, Integer> additions,
+            PreparedStatement setStmt, PreparedStatement addStmt, PreparedStatement deleteStmt, boolean isBatch) throws SQLException {
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            PreparedStatement stmt = entry.getValue() > 0 ? setStmt : deleteStmt;
+            stmt.setInt(1, cartId);
+            stmt.setInt(2, entry.getKey()); // Product ID
+            if (entry.getValue() > 0) {
+                stmt.setInt(3, entry.getValue()); // New quantity
+            }
+            writeLine(stmt, cartId, entry.getKey(), isBatch);
+        }
+        for (Map.Entry<Integer, Integer> entry : additions.entrySet()) {
+            addStmt.setInt(1, cartId);
+            addStmt.setInt(2, entry.getKey()); // Product ID
+            addStmt.setInt(3, entry.getValue()); // Quantity to insert or add to the existing line
+            writeLine(addStmt, cartId, entry.getKey(), isBatch);
+        }
+        if (isBatch) {
+            setStmt.executeBatch();
+            addStmt.executeBatch();
+            deleteStmt.executeBatch();
         }
+    }
 
-        String query = "DELETE FROM cart_product WHERE cartId = ?";
-        try (PreparedStatement stmt = dbConn.prepareStatement(query)) {
-            stmt.setInt(1, cartId); // Bind the cartId parameter
-            return stmt.executeUpdate() >= 0; // Return true if deletion succeeds (rows affected >= 0)
+    private void writeLine(PreparedStatement stmt, int cartId, int productId, boolean isBatch) throws SQLException {
+        if (isBatch) {
+            stmt.addBatch();
+            return;
+        }
+        try {
+            stmt.executeUpdate();
         } catch (SQLException e) {
-            System.err.println("SQL Error during clear cart: " + e.getMessage());
-            e.printStackTrace(); // Log the exception for debugging
-            isConnectionError = true; // Update flag if error occurs
-            return false; // Return false if an error occurs
+            if (!isConstraintViolation(e)) {
+                throw e;
+            }
+            System.err.println("Dropping cart change for cartId = " + cartId + ", productId = " + productId
+                    + ": the cart or product no longer exists (" + e.getMessage() + ")");
         }
     }
 
     /**
-     * Retrieves all products in a cart by joining cart_product and products tables.
+     * Checks whether an error is an integrity constraint violation (SQLSTATE class 23), such as a
+     * foreign key to a deleted row, which fails the same way however often it is retried.
      * 
-     * @param cartId The ID of the cart to retrieve products from
-     * @return List of ProductModel objects, empty list if connection fails or no products
+     * @param e The error, possibly a batch error wrapping the statement error
+     * @return true if the error or one of its causes is a constraint violation
      */
-    public List<ProductModel> getCartProducts(int cartId) {
-        if (isConnectionError) {
-            System.err.println("Cannot fetch cart products due to connection error");
-            reconnectIfNeeded(); // Attempt to reconnect if connection is lost
-            return new ArrayList<>(); // Return empty list if connection fails or reconnection fails
-        }
-
-        String query = "SELECT cp.productId, cp.quantity, p.productName, p.productDescription, p.price, p.stock, " +
-                      "p.brand, p.productImage, p.createdAt, p.updatedAt " +
-                      "FROM cart_product cp JOIN products p ON cp.productId = p.productId WHERE cp.cartId = ?";
-        try (PreparedStatement stmt = dbConn.prepareStatement(query)) {
-            stmt.setInt(1, cartId); // Bind the cartId parameter
-            ResultSet rs = stmt.executeQuery();
-            List<ProductModel> products = new ArrayList<>();
-
-            while (rs.next()) {
-                ProductModel product = new ProductModel(); // Create a new ProductModel for each row
-                product.setProductId(rs.getInt("productId"));
-                product.setProductName(rs.getString("productName"));
-                product.setProductDescription(rs.getString("productDescription"));
-                product.setPrice(rs.getDouble("price"));
-                product.setStock(rs.getInt("stock"));
-                product.setQuantity(rs.getInt("quantity")); // Set quantity from cart_product
-                product.setBrand(rs.getString("brand"));
-                product.setProductImage(rs.getString("productImage"));
-                product.setCreatedAt(rs.getString("createdAt"));
-                product.setUpdatedAt(rs.getString("updatedAt"));
-                products.add(product); // Add product to the list
+    private static boolean isConstraintViolation(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException && ((SQLException) cause).getSQLState() != null
+                    && ((SQLException) cause).getSQLState().startsWith("23")) {
+                return true;
             }
-            return products; // Return the list of cart products
-        } catch (SQLException e) {
-            System.err.println("SQL Error during cart products retrieval: " + e.getMessage());
-            e.printStackTrace(); // Log the exception for debugging
-            isConnectionError = true; // Update flag if error occurs
-            return new ArrayList<>(); // Return empty list if an error occurs
         }
+        return e.getNextException() != null && isConstraintViolation(e.getNextException());
     }
 
     /**
-     * Attempts to reconnect to the database if a connection error is detected.
-     * Resets the isConnectionError flag if reconnection succeeds.
+     * Sets the cart's updatedAt timestamp to now. The abandoned cart sweeper removes carts whose
+     * updatedAt is older than the configured time-to-live. A failure is only logged, so cart changes
+     * are still saved on a database that does not have the column yet (it is added by migration V1).
+     * 
+     * @param dbConn The connection of the cart write
+     * @param cartId The ID of the cart
      */
-    private void reconnectIfNeeded() {
-        if (isConnectionError) {
-            initializeConnection(); // Attempt to re-establish the connection
-            if (dbConn != null) {
-                isConnectionError = false; // Reset flag if connection is successful
-                System.out.println("Reconnected to database successfully."); // Log successful reconnection
-            }
+    private void touchCart(Connection dbConn, int cartId) {
+        try (PreparedStatement stmt = dbConn.prepareStatement("UPDATE cart SET updatedAt = NOW() WHERE cartId = ?")) {
+            stmt.setInt(1, cartId); // Bind the cartId parameter
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Could not record cart activity for cartId = " + cartId + ": " + e.getMessage());
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,275 @@
+package com.scentedbliss.service;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author 23049172 Sabin Devkota
+ *
+ * Coalescing write-behind queue that persists session cart changes to the cart_product table.
+ * Each pending entry holds the change of one cart line since the last flush: the quantity added
+ * to it, or its absolute quantity once it was set or removed. Adds are written as increments, so
+ * adds of the same product from two sessions of one user are summed by the database, and several
+ * clicks on the same line between two flushes result in a single write. Pending changes are
+ * flushed on a fixed timer, and explicitly for one cart on logout and before checkout. While the
+ * timer is not running (e.g. the schema could not be migrated at startup), every change is
+ * written through at once instead.
+ */
+public class CartWriteBehindQueue {
+    private static final CartWriteBehindQueue INSTANCE = new CartWriteBehindQueue();
+    private static final long FLUSH_INTERVAL_SECONDS = 5; // Delay between two timed flushes
+
+    // Pending line changes keyed by cartId/productId
+    private final Map<Long, PendingLine> pending = new ConcurrentHashMap<>();
+    private CartService cartService; // Used only by the flushing thread(s), created lazily
+    private volatile ScheduledExecutorService scheduler; // Timer for periodic flushes, null while not running
+
+    private CartWriteBehindQueue() {
+    }
+
+    /**
+     * Returns the shared write-behind queue.
+     *
+     * @return The CartWriteBehindQueue instance
+     */
+    public static CartWriteBehindQueue getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts the periodic flush timer. Called once when the application starts.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return; // Already started
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushAll, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        System.out.println("CartWriteBehindQueue start: Flushing every " + FLUSH_INTERVAL_SECONDS + " seconds");
+    }
+
+    /**
+     * Stops the flush timer and writes any remaining changes. Called when the application stops.
+     */
+    public void shutdown() {
+        ScheduledExecutorService stopping;
+        synchronized (this) {
+            stopping = scheduler;
+            scheduler = null;
+        }
+        if (stopping != null) {
+            stopping.shutdown();
+            try {
+                stopping.awaitTermination(10, TimeUnit.SECONDS); // Not holding the lock a timed flush needs
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushAll(); // Do not lose changes made since the last timed flush
+    }
+
+    /**
+     * Records a quantity added to a cart line, on top of any pending change of the line.
+     * Callers hold the session cart's lock, so changes are queued in the order they were made.
+     *
+     * @param cartId The ID of the cart
+     * @param productId The ID of the product
+     * @param quantity The quantity added
+     */
+    public void enqueueAdd(int cartId, int productId, int quantity) {
+        pending.merge(key(cartId, productId), new PendingLine(false, quantity), PendingLine::then);
+        writeThroughIfStopped(cartId);
+    }
+
+    /**
+     * Records the new absolute quantity of a cart line, replacing any pending change of the line.
+     * Callers hold the session cart's lock, so changes are queued in the order they were made.
+     *
+     * @param cartId The ID of the cart
+     * @param productId The ID of the product
+     * @param quantity The new quantity, or 0 to delete the line
+     */
+    public void enqueueSet(int cartId, int productId, int quantity) {
+        pending.merge(key(cartId, productId), new PendingLine(true, Math.max(quantity, 0)), PendingLine::then);
+        writeThroughIfStopped(cartId);
+    }
+
+    /**
+     * Writes a cart at once if no timer would flush it; a failed write stays queued for the next change.
+     */
+    private void writeThroughIfStopped(int cartId) {
+        if (scheduler == null) {
+            flushCart(cartId);
+        }
+    }
+
+    /**
+     * Checks whether a cart has changes that have not been written yet.
+     *
+     * @param cartId The ID of the cart
+     * @return true if at least one line of the cart is pending
+     */
+    public boolean hasPending(int cartId) {
+        for (Long key : pending.keySet()) {
+            if (cartIdOf(key) == cartId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Immediately writes all pending changes of one cart. Used on logout and before checkout.
+     *
+     * @param cartId The ID of the cart to flush
+     * @return true if the cart has no unwritten changes left, false if the write failed
+     */
+    public synchronized boolean flushCart(int cartId) {
+        Map<Long, PendingLine> lines = new LinkedHashMap<>();
+        for (Map.Entry<Long, PendingLine> entry : pending.entrySet()) {
+            if (cartIdOf(entry.getKey()) == cartId) {
+                lines.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return write(cartId, lines);
+    }
+
+    /**
+     * Drops all pending changes of one cart without writing them, e.g. once the cart has been
+     * emptied by a checkout. Waits for a flush in progress, so no queued line of the cart is
+     * written after this returns.
+     *
+     * @param cartId The ID of the cart
+     * @return The number of lines dropped
+     */
+    public synchronized int discardCart(int cartId) {
+        int discarded = 0;
+        for (Long key : pending.keySet()) {
+            if (cartIdOf(key) == cartId && pending.remove(key) != null) {
+                discarded++;
+            }
+        }
+        if (discarded > 0) {
+            System.out.println("CartWriteBehindQueue discardCart: Dropped " + discarded + " pending line(s) for cartId = " + cartId);
+        }
+        return discarded;
+    }
+
+    /**
+     * Writes all pending changes, grouped per cart. Runs on the flush timer.
+     */
+    public synchronized void flushAll() {
+        Set<Integer> cartIds = new LinkedHashSet<>();
+        for (Long key : pending.keySet()) {
+            cartIds.add(cartIdOf(key));
+        }
+        for (Integer cartId : cartIds) {
+            flushCart(cartId);
+        }
+    }
+
+    /**
+     * Writes the captured lines of one cart and takes what was written off the queue. Absolute
+     * quantities go through CartService.saveCartQuantities and increments through the batch
+     * CartService.addProductsToCart; each batch is taken off the queue once it is saved. Changes
+     * made to a line while the write was in progress stay queued for the next flush. Flushes are
+     * serialized by the queue's lock, so an increment is never written twice.
+     */
+    private boolean write(int cartId, Map<Long, PendingLine> lines) {
+        Map<Long, PendingLine> absolute = new LinkedHashMap<>(); // Set quantities, 0 deletes
+        Map<Long, PendingLine> increments = new LinkedHashMap<>(); // Quantities to add
+        for (Map.Entry<Long, PendingLine> line : lines.entrySet()) {
+            (line.getValue().isAbsolute ? absolute : increments).put(line.getKey(), line.getValue());
+        }
+        boolean isSaved = absolute.isEmpty() || getCartService().saveCartQuantities(cartId, toQuantities(absolute));
+        if (isSaved) {
+            takeOff(absolute);
+        }
+        boolean isAdded = increments.isEmpty() || getCartService().addProductsToCart(cartId, toQuantities(increments));
+        if (isAdded) {
+            takeOff(increments);
+        }
+        if (!isSaved || !isAdded) {
+            System.err.println("CartWriteBehindQueue write: Failed to persist line(s) for cartId = " + cartId + ", will retry");
+        }
+        return isSaved && isAdded;
+    }
+
+    private static Map<Integer, Integer> toQuantities(Map<Long, PendingLine> lines) {
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        for (Map.Entry<Long, PendingLine> line : lines.entrySet()) {
+            quantities.put(productIdOf(line.getKey()), line.getValue().quantity);
+        }
+        return quantities;
+    }
+
+    /**
+     * Removes written lines from the queue, keeping any change made since they were captured.
+     */
+    private void takeOff(Map<Long, PendingLine> written) {
+        for (Map.Entry<Long, PendingLine> line : written.entrySet()) {
+            pending.computeIfPresent(line.getKey(), (key, current) -> current.after(line.getValue()));
+        }
+    }
+
+    private CartService getCartService() {
+        if (cartService == null) {
+            cartService = new CartService();
+        }
+        return cartService;
+    }
+
+    private static long key(int cartId, int productId) {
+        return ((long) cartId << 32) | (productId & 0xFFFFFFFFL);
+    }
+
+    private static int cartIdOf(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int productIdOf(long key) {
+        return (int) key;
+    }
+
+    /**
+     * The unwritten change of one cart line. Immutable, so a flush can tell whether the line
+     * changed while it was being written.
+     */
+    private static final class PendingLine {
+        private final boolean isAbsolute; // true: set the quantity (0 deletes); false: add it
+        private final int quantity;
+
+        private PendingLine(boolean isAbsolute, int quantity) {
+            this.isAbsolute = isAbsolute;
+            this.quantity = quantity;
+        }
+
+        /**
+         * Combines this change with a later one.
+         */
+        private PendingLine then(PendingLine next) {
+            return next.isAbsolute ? next : new PendingLine(isAbsolute, quantity + next.quantity);
+        }
+
+        /**
+         * Returns what is left to write once the given earlier change has been written, or null
+         * if nothing changed since.
+         */
+        private PendingLine after(PendingLine written) {
+            if (this == written) {
+                return null;
+            }
+            return isAbsolute ? this : new PendingLine(false, quantity - written.quantity); // Only the newer increments
+        }
+    }
+}
@@ -18,6 +18,13 @@ import java.util.List;
  * handling connection errors.
  */
 public class DashboardService {
+    // Public so QueryPlanCheck explains the same SQL
+    public static final String TOTAL_CUSTOMERS_QUERY = "SELECT COUNT(*) AS total FROM users WHERE role = 'Customer'";
+    public static final String WEEKLY_SALES_QUERY = "SELECT WEEK(orderDate, 1) AS week, SUM(totalAmount) AS total " +
+            "FROM orders " +
+            "WHERE orderDate >= DATE_SUB(CURDATE(), INTERVAL 4 WEEK) " +
+            "GROUP BY WEEK(orderDate, 1) " +
+            "ORDER BY MIN(orderDate) LIMIT 4";
     private Connection dbConn; // Database connection instance
     private boolean isConnectionError = false; // Flag to track connection issues
 
@@ -69,8 +76,7 @@ public class DashboardService {
             reconnectIfNeeded(); // Attempt to reconnect if connection is lost
             return 0; // Return 0 if connection fails or reconnection fails
         }
-        String query = "SELECT COUNT(*) AS total FROM users WHERE role = 'Customer'";
-        try (PreparedStatement stmt = dbConn.prepareStatement(query)) {
+        try (PreparedStatement stmt = dbConn.prepareStatement(TOTAL_CUSTOMERS_QUERY)) {
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
                 return rs.getInt("total"); // Return the count of customers
@@ -167,12 +173,7 @@ public class DashboardService {
             return new ArrayList<>(); // Return empty list if connection fails or reconnection fails
         }
         List<Double> sales = new ArrayList<>();
-        String query = "SELECT WEEK(orderDate, 1) AS week, SUM(totalAmount) AS total " +
-                      "FROM orders " +
-                      "WHERE orderDate >= DATE_SUB(CURDATE(), INTERVAL 4 WEEK) " +
-                      "GROUP BY WEEK(orderDate, 1) " +
-                      "ORDER BY MIN(orderDate) LIMIT 4";
-        try (PreparedStatement stmt = dbConn.prepareStatement(query)) {
+        try (PreparedStatement stmt = dbConn.prepareStatement(WEEKLY_SALES_QUERY)) {
             ResultSet rs = stmt.executeQuery();
             int expectedWeeks = 4;
             int weekIndex = 0;
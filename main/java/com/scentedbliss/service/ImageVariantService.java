@@ -0,0 +1,344 @@
+package com.scentedbliss.service;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * @author 23049172 Sabin Devkota
+ *
+ * Produces downscaled copies of uploaded product and profile images, so pages can show a
+ * small file instead of the full-size upload. Each image gets up to three variants stored
+ * next to the original with a size suffix (e.g. photo.jpg -> photo-card.jpg):
+ * - thumb: at most 160 px, for the cart, admin lists and profile pictures
+ * - card: at most 480 px, for the shop product grid
+ * - detail: at most 1000 px, for the product detail page
+ *
+ * Variants are created after the upload on a small bounded worker pool, so the upload request
+ * does not wait for image decoding. Until a variant exists (or if the original is already
+ * smaller), pages keep using the original through the asset:image EL function. Uploads that
+ * arrive while the queue is full are set aside and queued again as workers finish, rather than
+ * run on the uploading thread, which holds the image index lock.
+ */
+public class ImageVariantService {
+    private static final ImageVariantService INSTANCE = new ImageVariantService();
+
+    private static final String[] VARIANT_NAMES = {"thumb", "card", "detail"}; // Variant suffixes
+    private static final int[] VARIANT_SIZES = {160, 480, 1000}; // Longest side in pixels, by variant
+    private static final String[] UPLOAD_DIRECTORIES = {"/resources/images/perfumes", "/resources/images/profiles",
+            "/resources/images/imageuser"}; // Folders holding uploads, checked for missing variants at startup
+    private static final int QUEUE_CAPACITY = 100; // Pending uploads waiting for a worker
+
+    // Resolved URL per "path|variant", so pages do not check the file system on every render
+    private static final Map<String, String> resolvedUrls = new ConcurrentHashMap<>();
+    private static volatile String rootPath; // Real path of the web application, set at startup
+
+    private final Set<String> deferred = ConcurrentHashMap.newKeySet(); // Uploads rejected by a full queue
+    private ThreadPoolExecutor workers; // Bounded pool running the resize jobs
+
+    private ImageVariantService() {
+    }
+
+    /**
+     * Returns the shared image variant service.
+     *
+     * @return The ImageVariantService instance
+     */
+    public static ImageVariantService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts the worker pool and queues variant creation for uploads that have none yet.
+     * Called once when the application starts.
+     *
+     * @param webRootPath The real path of the web application directory
+     */
+    public synchronized void start(String webRootPath) {
+        if (workers != null) {
+            return; // Already started
+        }
+        rootPath = webRootPath;
+        int threads = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+        workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1); // Page requests come first
+                    return thread;
+                }, this::defer); // Pages use the original until the job runs
+        workers.execute(this::createMissingVariants);
+        System.out.println("ImageVariantService start: " + threads + " worker(s)");
+    }
+
+    /**
+     * Stops the worker pool. Called when the application stops.
+     */
+    public synchronized void shutdown() {
+        if (workers != null) {
+            workers.shutdownNow();
+            workers = null;
+        }
+    }
+
+    /**
+     * Queues creation of the variants of an uploaded image.
+     *
+     * @param imageUrl The image path relative to the context root, e.g. /resources/images/perfumes/a.jpg
+     */
+    public void submit(String imageUrl) {
+        ThreadPoolExecutor pool = workers;
+        if (pool == null || imageUrl == null) {
+            return;
+        }
+        pool.execute(new VariantJob(imageUrl));
+    }
+
+    /**
+     * Keeps an upload rejected by the full queue for later. Called by the pool.
+     */
+    private void defer(Runnable job, ThreadPoolExecutor pool) {
+        if (job instanceof VariantJob && !pool.isShutdown() && deferred.add(((VariantJob) job).imageUrl)) {
+            System.err.println("ImageVariantService: Queue full, deferring " + ((VariantJob) job).imageUrl);
+        }
+    }
+
+    /**
+     * Queues deferred uploads again while the queue has room. Runs on a worker thread after each job.
+     */
+    private void resubmitDeferred() {
+        ThreadPoolExecutor pool = workers;
+        for (String imageUrl : deferred) {
+            if (pool == null || pool.getQueue().remainingCapacity() == 0) {
+                return;
+            }
+            if (deferred.remove(imageUrl)) {
+                pool.execute(new VariantJob(imageUrl)); // Deferred again if the queue filled up meanwhile
+            }
+        }
+    }
+
+    /**
+     * Deletes the variants of an image whose original has been deleted.
+     *
+     * @param imageUrl The original image path relative to the context root
+     */
+    public void removeVariants(String imageUrl) {
+        if (rootPath == null) {
+            return;
+        }
+        for (String variant : VARIANT_NAMES) {
+            String variantPath = toVariantPath(imageUrl, variant);
+            if (variantPath != null) {
+                new File(rootPath, variantPath).delete();
+            }
+            resolvedUrls.remove(imageUrl + "|" + variant);
+        }
+    }
+
+    /**
+     * Returns the URL of an image variant if it exists, otherwise the original URL.
+     * Used by JSP pages through the asset:image EL function.
+     *
+     * @param imageUrl The original image path relative to the context root
+     * @param variant The variant name: thumb, card or detail
+     * @return The path of the variant, or the original path
+     */
+    public static String variantUrl(String imageUrl, String variant) {
+        if (imageUrl == null || imageUrl.isEmpty() || rootPath == null) {
+            return imageUrl;
+        }
+        return resolvedUrls.computeIfAbsent(imageUrl + "|" + variant, key -> {
+            String candidate = toVariantPath(imageUrl, variant);
+            return candidate != null && new File(rootPath, candidate).isFile() ? candidate : imageUrl;
+        });
+    }
+
+    /**
+     * Creates all variants of one image. Runs on a worker thread.
+     */
+    private void createVariants(String imageUrl) {
+        File original = new File(rootPath, imageUrl);
+        String format = formatOf(imageUrl);
+        if (format == null || !original.isFile()) {
+            return; // ImageIO cannot write this format (e.g. avif or webp); the original is used
+        }
+        try {
+            BufferedImage image = ImageIO.read(original);
+            if (image == null) {
+                System.err.println("ImageVariantService: Unsupported image " + imageUrl);
+                return;
+            }
+            for (int i = 0; i < VARIANT_NAMES.length; i++) {
+                int longestSide = Math.max(image.getWidth(), image.getHeight());
+                if (longestSide <= VARIANT_SIZES[i]) {
+                    continue; // Already small enough, the original is served
+                }
+                double scale = (double) VARIANT_SIZES[i] / longestSide;
+                BufferedImage scaled = scale(image, (int) Math.round(image.getWidth() * scale),
+                        (int) Math.round(image.getHeight() * scale), "png".equals(format));
+                writeAtomically(scaled, format, new File(rootPath, toVariantPath(imageUrl, VARIANT_NAMES[i])));
+            }
+        } catch (IOException e) {
+            System.err.println("ImageVariantService: Could not create variants of " + imageUrl + ": " + e.getMessage());
+        } finally {
+            for (String variant : VARIANT_NAMES) {
+                resolvedUrls.remove(imageUrl + "|" + variant); // Let pages pick up the new files
+            }
+        }
+    }
+
+    /**
+     * Writes an image to a temporary file next to the target and then moves it into place in one
+     * step. Pages switch to a variant as soon as its file exists and it is cached as immutable,
+     * so a half-written file must never be visible under the variant's name.
+     */
+    private static void writeAtomically(BufferedImage image, String format, File target) throws IOException {
+        File temp = File.createTempFile(".variant-", ".tmp", target.getParentFile()); // Not an image name, so never scanned
+        try {
+            if (!ImageIO.write(image, format, temp)) {
+                throw new IOException("No writer for " + format);
+            }
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp.toPath()); // Only left over if the write or move failed
+        }
+    }
+
+    /**
+     * Creates variants for uploads made before this service existed. Runs on a worker thread.
+     * Images no larger than the smallest variant never get one, so their size is read from the
+     * file header instead of decoding them again on every startup.
+     */
+    private void createMissingVariants() {
+        for (String directory : UPLOAD_DIRECTORIES) {
+            File[] files = new File(rootPath, directory).listFiles();
+            if (files == null) {
+                continue;
+            }
+            for (File file : files) {
+                String imageUrl = directory + "/" + file.getName();
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                if (file.isFile() && !isVariant(file.getName()) && formatOf(imageUrl) != null
+                        && !new File(rootPath, toVariantPath(imageUrl, VARIANT_NAMES[0])).exists()
+                        && longestSide(file) > VARIANT_SIZES[0]) {
+                    createVariants(imageUrl);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the longest side of an image from its header without decoding the pixels.
+     *
+     * @return The size in pixels, or Integer.MAX_VALUE if it cannot be read (the image is then decoded)
+     */
+    private static int longestSide(File file) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file)) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : Collections.emptyIterator();
+            if (!readers.hasNext()) {
+                return Integer.MAX_VALUE;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return Math.max(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Draws the image at the given size with bilinear filtering.
+     */
+    private static BufferedImage scale(BufferedImage image, int width, int height, boolean hasAlpha) {
+        BufferedImage scaled = new BufferedImage(Math.max(width, 1), Math.max(height, 1),
+                hasAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, scaled.getWidth(), scaled.getHeight(), null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    /**
+     * Builds the variant path by inserting the variant name before the extension.
+     */
+    private static String toVariantPath(String imageUrl, String variant) {
+        int extension = imageUrl.lastIndexOf('.');
+        if (extension <= imageUrl.lastIndexOf('/')) {
+            return null;
+        }
+        return imageUrl.substring(0, extension) + "-" + variant + imageUrl.substring(extension);
+    }
+
+    /**
+     * A queued resize job, which keeps its image URL so a rejected job can be deferred.
+     */
+    private final class VariantJob implements Runnable {
+        private final String imageUrl;
+
+        private VariantJob(String imageUrl) {
+            this.imageUrl = imageUrl;
+        }
+
+        @Override
+        public void run() {
+            try {
+                createVariants(imageUrl);
+            } finally {
+                resubmitDeferred();
+            }
+        }
+    }
+
+    private static boolean isVariant(String fileName) {
+        int extension = fileName.lastIndexOf('.');
+        String base = extension > 0 ? fileName.substring(0, extension) : fileName;
+        for (String variant : VARIANT_NAMES) {
+            if (base.endsWith("-" + variant)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the ImageIO format name for the file extension, or null if it is not supported.
+     */
+    private static String formatOf(String imageUrl) {
+        String name = imageUrl.toLowerCase();
+        if (name.endsWith(".jpg") || name.endsWith(".jpeg")) {
+            return "jpg";
+        }
+        if (name.endsWith(".png")) {
+            return "png";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,188 @@
+package com.scentedbliss.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.scentedbliss.config.AppConfig;
+import com.scentedbliss.model.ProductSummaryModel;
+
+/**
+ * @author 23049172 Sabin Devkota
+ *
+ * Cache of the rendered HTML of the product cards on the shop page. A card only changes when
+ * its product changes, so each card is rendered once and the shop grid is assembled by
+ * concatenating the cached cards instead of running the JSP loop for every product on every
+ * request.
+ *
+ * A card is stored per product ID together with the version it was rendered from: the
+ * product's updatedAt plus the resolved image path (which changes when a smaller image variant
+ * becomes available). A lookup whose version differs re-renders the card. ProductService also
+ * evicts a product's card when the product is updated or deleted, because the edit form does
+ * not always change updatedAt. The cache holds at most shop.cardCacheSize cards (default 1000)
+ * and evicts the least recently used one.
+ */
+public class ProductCardCache {
+    private static final ProductCardCache INSTANCE = new ProductCardCache();
+
+    private final int capacity = Math.max(AppConfig.getInt("shop.cardCacheSize", 1000), 1); // Maximum number of cached cards
+    private final Map<Integer, Card> cards = new LinkedHashMap<Integer, Card>(64, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Card> eldest) {
+            return size() > capacity; // Least recently used card goes first
+        }
+    };
+
+    private ProductCardCache() {
+    }
+
+    /**
+     * Returns the shared card cache.
+     *
+     * @return The ProductCardCache instance
+     */
+    public static ProductCardCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Builds the HTML of the shop grid from cached cards.
+     *
+     * @param products The products to show, in display order
+     * @param limit The maximum number of cards to include
+     * @param contextPath The context path of the application
+     * @return The concatenated card HTML
+     */
+    public String renderGrid(List<ProductSummaryModel> products, int limit, String contextPath) {
+        int count = Math.min(products.size(), limit);
+        StringBuilder html = new StringBuilder(count * 1600);
+        for (int i = 0; i < count; i++) {
+            html.append(getCard(products.get(i), contextPath));
+        }
+        return html.toString();
+    }
+
+    /**
+     * Returns the HTML of one product card, rendering it if it is missing or out of date.
+     *
+     * @param product The product to show
+     * @param contextPath The context path of the application
+     * @return The card HTML
+     */
+    public String getCard(ProductSummaryModel product, String contextPath) {
+        String imageUrl = ImageVariantService.variantUrl(product.getProductImage(), "card");
+        String version = product.getUpdatedAt() + "|" + imageUrl + "|" + contextPath;
+        Card card;
+        synchronized (cards) {
+            card = cards.get(product.getProductId());
+        }
+        if (card != null && card.version.equals(version)) {
+            return card.html;
+        }
+        card = new Card(version, render(product, imageUrl, contextPath)); // Rendered outside the lock
+        synchronized (cards) {
+            cards.put(product.getProductId(), card);
+        }
+        return card.html;
+    }
+
+    /**
+     * Drops the cached card of a product. Called after the product is updated or deleted.
+     *
+     * @param productId The ID of the product
+     */
+    public void evict(int productId) {
+        synchronized (cards) {
+            cards.remove(productId);
+        }
+    }
+
+    /**
+     * Renders the card markup that ShopProduct.jsp used to produce for each product.
+     */
+    private static String render(ProductSummaryModel product, String imageUrl, String contextPath) {
+        String id = String.valueOf(product.getProductId());
+        String name = escape(product.getProductName());
+        String brand = escape(product.getBrand());
+        String price = String.valueOf(product.getPrice());
+        String path = escape(contextPath);
+        StringBuilder html = new StringBuilder(1600);
+        html.append("<div class=\"product-card\" data-price=\"").append(price).append("\" data-type=\"").append(brand)
+                .append("\" data-product-id=\"").append(id).append("\">\n")
+            .append("    <div class=\"product-image-wrapper\">\n")
+            .append("        <a href=\"").append(path).append("/productDetail?productId=").append(id).append("\" class=\"product-link\">\n")
+            .append("            <img src=\"").append(path).append(escape(imageUrl)).append("\" alt=\"").append(name)
+                .append("\" class=\"product-image\"/>\n")
+            .append("        </a>\n")
+            .append("        <form action=\"").append(path).append("/wishlist\" method=\"post\">\n")
+            .append("            <input type=\"hidden\" name=\"productId\" value=\"").append(id).append("\" />\n")
+            .append("            <button type=\"submit\" class=\"wishlist-button\"><i class=\"far fa-heart\"></i></button>\n")
+            .append("        </form>\n")
+            .append("    </div>\n")
+            .append("    <h3 class=\"product-name\">").append(name).append("</h3>\n")
+            .append("    <p class=\"product-type\">").append(brand).append("</p>\n")
+            .append("    <p class=\"price\">$").append(price).append("</p>\n")
+            .append("    <div class=\"cart-controls\">\n")
+            .append("        <form action=\"").append(path).append("/addtocart\" method=\"post\">\n")
+            .append("            <input type=\"hidden\" name=\"productId\" value=\"").append(id).append("\" />\n")
+            .append("            <input type=\"hidden\" name=\"productName\" value=\"").append(name).append("\" />\n")
+            .append("            <input type=\"hidden\" name=\"price\" value=\"").append(price).append("\" />\n")
+            .append("            <input type=\"hidden\" name=\"brand\" value=\"").append(brand).append("\" />\n")
+            .append("            <input type=\"hidden\" name=\"productImage\" value=\"").append(escape(product.getProductImage())).append("\" />\n")
+            .append("            <input type=\"number\" name=\"quantity\" class=\"quantity-input\" min=\"1\" value=\"1\" style=\"width: 60px; margin-right: 10px;\" />\n")
+            .append("            <button type=\"submit\" class=\"add-to-bag\">ADD TO CART</button>\n")
+            .append("        </form>\n")
+            .append("    </div>\n")
+            .append("</div>\n");
+        return html.toString();
+    }
+
+    /**
+     * Escapes a value for use in HTML text and quoted attributes. Null becomes an empty string,
+     * as in EL.
+     */
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement;
+            switch (c) {
+                case '&': replacement = "&amp;"; break;
+                case '<': replacement = "&lt;"; break;
+                case '>': replacement = "&gt;"; break;
+                case '"': replacement = "&#34;"; break;
+                case '\'': replacement = "&#39;"; break;
+                default: replacement = null;
+            }
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(value.length() + 16).append(value, 0, i); // First special character
+            }
+            if (escaped != null) {
+                if (replacement != null) {
+                    escaped.append(replacement);
+                } else {
+                    escaped.append(c);
+                }
+            }
+        }
+        return escaped != null ? escaped.toString() : value;
+    }
+
+    /**
+     * A rendered card and the version of the product it was rendered from.
+     */
+    private static final class Card {
+        private final String version; // updatedAt, image path and context path at render time
+        private final String html; // The card markup
+
+        private Card(String version, String html) {
+            this.version = version;
+            this.html = html;
+        }
+    }
+}
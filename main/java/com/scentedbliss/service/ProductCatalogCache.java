@@ -0,0 +1,205 @@
+package com.scentedbliss.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.scentedbliss.model.ProductSummaryModel;
+
+/**
+ * @author 23049172 Sabin Devkota
+ *
+ * Application-wide, read-mostly cache of the product catalog, keyed by product ID.
+ * Used to price session carts and render product data without querying the products
+ * table on every request. Only the list view of each product is cached (no descriptions),
+ * which keeps the snapshot small. The cache is reloaded from the database when it is older than
+ * the refresh interval, and is invalidated by ProductService whenever a product is added,
+ * updated or deleted.
+ *
+ * The cache also provides the entity tags of the product detail pages, so a repeat visit can
+ * be answered with 304 Not Modified without loading the product.
+ *
+ * A product missing from the snapshot is looked up on its own, without holding a lock; a
+ * product found that way is added to the snapshot, and an ID that does not exist is remembered
+ * for a short time, so repeated requests for a bogus product ID do not all reach the database.
+ */
+public class ProductCatalogCache {
+    private static final ProductCatalogCache INSTANCE = new ProductCatalogCache();
+    private static final long REFRESH_INTERVAL_MILLIS = 5 * 60 * 1000L; // Reload at most every 5 minutes
+    private static final long MISSING_TTL_MILLIS = 30 * 1000L; // How long an unknown product ID is answered from memory
+    private static final int MAX_MISSING_IDS = 10000; // Bound on remembered unknown IDs
+
+    private final ProductService productService = new ProductService(); // Borrows a pooled connection per call
+    private final Map<Integer, Long> missingUntil = new ConcurrentHashMap<>(); // Unknown product ID -> expiry time
+    private volatile Map<Integer, ProductSummaryModel> products = Collections.emptyMap(); // Immutable snapshot
+    private volatile long loadedAt = 0L; // Time of the last successful load, 0 if stale
+    private volatile long version = 0L; // Incremented every time the catalog is invalidated
+    private final String startStamp = Long.toString(System.currentTimeMillis(), 36); // Keeps versions of different runs apart
+
+    private ProductCatalogCache() {
+    }
+
+    /**
+     * Returns the shared catalog cache.
+     *
+     * @return The ProductCatalogCache instance
+     */
+    public static ProductCatalogCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Retrieves a product by its ID. Falls back to a single-row database lookup if the
+     * product is not in the current snapshot (e.g. added since the last load).
+     *
+     * @param productId The ID of the product
+     * @return The cached ProductSummaryModel, or null if the product does not exist
+     */
+    public ProductSummaryModel getProduct(int productId) {
+        ProductSummaryModel product = getSnapshot().get(productId);
+        if (product == null) {
+            product = loadProduct(productId);
+        }
+        return product;
+    }
+
+    /**
+     * Returns all cached products. Neither the map nor the shared ProductSummaryModel instances
+     * may be modified by callers; copy a product before changing it.
+     *
+     * @return Unmodifiable map of product ID to ProductSummaryModel
+     */
+    public Map<Integer, ProductSummaryModel> getProducts() {
+        return getSnapshot();
+    }
+
+    /**
+     * Returns the catalog version, which changes every time the catalog is invalidated.
+     * Lets dependent caches detect that products have changed without a database query.
+     *
+     * @return The current catalog version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Marks the cached catalog as stale so the next lookup reloads it from the database.
+     * Called after a product is added, updated or deleted.
+     */
+    public synchronized void invalidate() {
+        loadedAt = 0L;
+        version++;
+        missingUntil.clear(); // A new product may use a remembered ID
+    }
+
+    /**
+     * Returns the entity tag of a product's data, built from its updatedAt and the catalog
+     * version. It changes whenever the product may have changed, including edits that keep
+     * the same updatedAt, and after a restart. Read it before loading the product to render,
+     * so the tag is never newer than the page it is sent with.
+     *
+     * @param productId The ID of the product
+     * @return The quoted entity tag, or null if the product does not exist
+     */
+    public String getProductEtag(int productId) {
+        long currentVersion = version;
+        ProductSummaryModel product = getProduct(productId);
+        if (product == null) {
+            return null;
+        }
+        return "\"" + productId + "-" + Long.toString(toMillis(product.getUpdatedAt()), 36) + "-" + startStamp + "."
+                + currentVersion + "\"";
+    }
+
+    /**
+     * Converts a DATETIME value read as text (e.g. 2025-04-20 10:15:00) to milliseconds.
+     */
+    private static long toMillis(String dateTime) {
+        if (dateTime == null) {
+            return 0L;
+        }
+        try {
+            return LocalDateTime.parse(dateTime.trim().replace(' ', 'T')).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return 0L; // Unknown format, the catalog version still changes the tag
+        }
+    }
+
+    /**
+     * Returns the current snapshot, reloading it first if it is stale.
+     */
+    private Map<Integer, ProductSummaryModel> getSnapshot() {
+        if (System.currentTimeMillis() - loadedAt > REFRESH_INTERVAL_MILLIS) {
+            reload();
+        }
+        return products;
+    }
+
+    /**
+     * Reloads the catalog from the database. Only one thread reloads at a time; the
+     * previous snapshot stays visible to readers until the new one is published.
+     */
+    private synchronized void reload() {
+        if (System.currentTimeMillis() - loadedAt <= REFRESH_INTERVAL_MILLIS) {
+            return; // Another thread reloaded while we were waiting
+        }
+        List<ProductSummaryModel> productList = productService.getAllProductSummaries();
+        if (productList == null) {
+            System.err.println("ProductCatalogCache reload: Could not load products, keeping previous snapshot");
+            return;
+        }
+        Map<Integer, ProductSummaryModel> snapshot = new LinkedHashMap<>();
+        for (ProductSummaryModel product : productList) {
+            snapshot.put(product.getProductId(), product);
+        }
+        products = Collections.unmodifiableMap(snapshot);
+        loadedAt = System.currentTimeMillis();
+        System.out.println("ProductCatalogCache reload: Loaded " + snapshot.size() + " products");
+    }
+
+    /**
+     * Loads a single product missing from the snapshot. The query runs without holding the
+     * cache's lock; its result is only kept if the catalog was not invalidated meanwhile.
+     */
+    private ProductSummaryModel loadProduct(int productId) {
+        Long expiry = missingUntil.get(productId);
+        if (expiry != null) {
+            if (expiry > System.currentTimeMillis()) {
+                return null; // Recently looked up and not found
+            }
+            missingUntil.remove(productId, expiry);
+        }
+        long loadVersion = version;
+        ProductSummaryModel product = productService.getProductSummaryById(productId);
+        if (product != null) {
+            addToSnapshot(product, loadVersion);
+        } else if (version == loadVersion) {
+            if (missingUntil.size() >= MAX_MISSING_IDS) {
+                missingUntil.clear(); // Many bogus IDs; start over rather than grow without bound
+            }
+            missingUntil.put(productId, System.currentTimeMillis() + MISSING_TTL_MILLIS);
+            if (version != loadVersion) {
+                missingUntil.remove(productId); // Invalidated meanwhile, the product may exist now
+            }
+        }
+        return product;
+    }
+
+    /**
+     * Publishes a new snapshot that also holds a product loaded on its own.
+     */
+    private synchronized void addToSnapshot(ProductSummaryModel product, long loadVersion) {
+        if (version != loadVersion) {
+            return; // Invalidated while loading; the next reload reads the current row
+        }
+        Map<Integer, ProductSummaryModel> snapshot = new LinkedHashMap<>(products);
+        snapshot.put(product.getProductId(), product);
+        products = Collections.unmodifiableMap(snapshot);
+    }
+}
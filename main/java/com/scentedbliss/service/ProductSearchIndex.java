@@ -0,0 +1,190 @@
+package com.scentedbliss.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.scentedbliss.model.ProductSummaryModel;
+import com.scentedbliss.util.RadixTrie;
+import com.scentedbliss.util.TrigramIndex;
+
+/**
+ * @author 23049172 Sabin Devkota
+ *
+ * In-memory search structures over the product catalog, used by the search box on the shop
+ * page. Suggestions for search-as-you-type come from a compressed prefix trie
+ * ({@link RadixTrie}) over the product names and brands. Every word of a name is indexed,
+ * so "sauv" finds "Dior Sauvage". Suggestions are ranked by units sold; a brand ranks by the
+ * units sold of all its products.
+ *
+ * Misspelled searches ("sauvge", "chanal") are matched by a {@link TrigramIndex} over the name
+ * and brand of every product, which ProductService falls back to when the exact search finds
+ * too few products. Equally close matches are ranked by units sold.
+ *
+ * The index is built from ProductCatalogCache and the order items when the application
+ * starts, and rebuilt by ProductService whenever a product is added, updated or deleted.
+ * A lookup only reads the current immutable index and never queries the database.
+ */
+public class ProductSearchIndex {
+    public static final int MAX_SUGGESTIONS = 10; // Largest number of suggestions kept per prefix
+    private static final ProductSearchIndex INSTANCE = new ProductSearchIndex();
+
+    private ProductService productService; // Created lazily so the index does not open a connection at class load
+    private volatile RadixTrie<Suggestion> suggestions = new RadixTrie.Builder<Suggestion>().build(MAX_SUGGESTIONS); // Empty until built
+    private volatile TrigramIndex<Integer> fuzzyProducts = new TrigramIndex.Builder<Integer>().build(); // Product IDs, empty until built
+
+    private ProductSearchIndex() {
+    }
+
+    /**
+     * Returns the shared search index.
+     *
+     * @return The ProductSearchIndex instance
+     */
+    public static ProductSearchIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the best suggestions for what the shopper has typed so far.
+     *
+     * @param prefix The typed text; case and repeated spaces are ignored
+     * @param limit The maximum number of suggestions, at most MAX_SUGGESTIONS
+     * @return Suggestions ranked by units sold, empty if the prefix is blank or matches nothing
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return suggestions.top(key, limit);
+    }
+
+    /**
+     * Finds products whose name or brand matches the search despite small typos.
+     *
+     * @param searchTerm The search as typed
+     * @param limit The maximum number of products
+     * @return IDs of the matching products, closest and best-selling first
+     */
+    public List<Integer> fuzzyMatch(String searchTerm, int limit) {
+        return fuzzyProducts.search(searchTerm, limit);
+    }
+
+    /**
+     * Rebuilds the index from the current catalog and sales. The previous index stays in use
+     * until the new one is complete. Called at startup and after every product change.
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<Integer, ProductSummaryModel> products = ProductCatalogCache.getInstance().getProducts();
+        Map<Integer, Integer> unitsSold = getProductService().getUnitsSoldByProduct();
+        if (unitsSold == null) {
+            unitsSold = Collections.emptyMap(); // Still suggest, in catalog order
+        }
+
+        Map<String, Long> brandUnits = new HashMap<>();
+        Map<String, String> brandNames = new HashMap<>(); // Normalized brand -> brand as first spelled
+        for (ProductSummaryModel product : products.values()) {
+            String brand = normalize(product.getBrand());
+            if (!brand.isEmpty()) {
+                brandUnits.merge(brand, (long) unitsSold.getOrDefault(product.getProductId(), 0), Long::sum);
+                brandNames.putIfAbsent(brand, product.getBrand().trim());
+            }
+        }
+
+        RadixTrie.Builder<Suggestion> builder = new RadixTrie.Builder<>();
+        TrigramIndex.Builder<Integer> fuzzyBuilder = new TrigramIndex.Builder<>();
+        for (ProductSummaryModel product : products.values()) {
+            if (product.getProductName() == null) {
+                continue;
+            }
+            int sold = unitsSold.getOrDefault(product.getProductId(), 0);
+            Suggestion suggestion = new Suggestion(product.getProductName().trim(), "product", product.getProductId());
+            addWords(builder, normalize(product.getProductName()), suggestion, sold);
+            fuzzyBuilder.add(product.getProductName() + " " + product.getBrand(), product.getProductId(), sold);
+        }
+        for (Map.Entry<String, Long> brand : brandUnits.entrySet()) {
+            Suggestion suggestion = new Suggestion(brandNames.get(brand.getKey()), "brand", 0);
+            addWords(builder, brand.getKey(), suggestion, brand.getValue());
+        }
+        suggestions = builder.build(MAX_SUGGESTIONS);
+        fuzzyProducts = fuzzyBuilder.build();
+        System.out.println("ProductSearchIndex rebuild: Indexed " + products.size() + " products and " + brandUnits.size()
+                + " brands in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Adds a suggestion under the whole text and under every later word of it.
+     */
+    private static void addWords(RadixTrie.Builder<Suggestion> builder, String text, Suggestion suggestion, long rank) {
+        if (text.isEmpty()) {
+            return;
+        }
+        builder.add(text, suggestion, rank);
+        for (int i = text.indexOf(' '); i >= 0; i = text.indexOf(' ', i + 1)) {
+            builder.add(text.substring(i + 1), suggestion, rank);
+        }
+    }
+
+    /**
+     * Lower-cases text and collapses runs of whitespace, for both keys and lookups.
+     */
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private synchronized ProductService getProductService() {
+        if (productService == null) {
+            productService = new ProductService();
+        }
+        return productService;
+    }
+
+    /**
+     * A search suggestion: a product name or a brand.
+     */
+    public static final class Suggestion {
+        private final String text; // Shown to the shopper and used as the search term
+        private final String type; // "product" or "brand"
+        private final int productId; // The product for product suggestions, 0 for brands
+
+        private Suggestion(String text, String type, int productId) {
+            this.text = text;
+            this.type = type;
+            this.productId = productId;
+        }
+
+        /**
+         * Gets the suggested text.
+         *
+         * @return The product name or brand
+         */
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * Gets the kind of suggestion.
+         *
+         * @return "product" or "brand"
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * Gets the product of a product suggestion.
+         *
+         * @return The product ID, or 0 for a brand
+         */
+        public int getProductId() {
+            return productId;
+        }
+    }
+}
@@ -5,38 +5,37 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-import com.scentedbliss.config.DbConfig;
+import com.scentedbliss.config.AppConfig;
+import com.scentedbliss.config.ConnectionPool;
 import com.scentedbliss.model.ProductModel;
+import com.scentedbliss.model.ProductSummaryModel;
+import com.scentedbliss.util.RowMapper;
 
 /**
  * @author 23049172 Sabin Devkota
  * 
  * This class provides service layer functionality for managing product-related operations
  * such as adding, updating, deleting, retrieving, and filtering products. It interacts
- * with the database using JDBC and handles connection errors gracefully.
+ * with the database using JDBC and handles connection errors gracefully. Every call borrows its
+ * own connection from the ConnectionPool, so one instance can serve concurrent requests.
  */
 public class ProductService {
-    private Connection dbConn; // Database connection instance
-    private boolean isConnectionError = false; // Flag to track connection issues
-
-    /**
-     * Constructor initializes the database connection. Sets the connection error
-     * flag if the connection fails.
-     * 
-     * @throws SQLException if a database access error occurs
-     * @throws ClassNotFoundException if the JDBC driver class is not found
-     */
-    public ProductService() {
-        try {
-            this.dbConn = DbConfig.getDbConnection(); // Establish connection to the database
-        } catch (SQLException | ClassNotFoundException ex) {
-            System.err.println("Database connection error: " + ex.getMessage()); // Log the error message
-            ex.printStackTrace(); // Print stack trace for debugging
-            isConnectionError = true; // Set flag to indicate connection failure
-        }
-    }
+    // Columns shown by list views, plus updatedAt to version cached cards; the description is only read for a single product
+    private static final String SUMMARY_COLUMNS = "productId, productName, price, stock, brand, productImage, updatedAt";
+    private static final RowMapper<ProductModel> PRODUCT_MAPPER = RowMapper.of(ProductModel.class); // SELECT * rows
+    private static final RowMapper<ProductSummaryModel> SUMMARY_MAPPER = RowMapper.of(ProductSummaryModel.class); // SUMMARY_COLUMNS rows
+    private static final int MAX_FUZZY_MATCHES = 20; // Misspelling matches added to a sparse search result
+    private static final String FULLTEXT_MATCH = "MATCH(productName, productDescription, brand)"; // Columns of idx_products_fulltext
+    private static final String FULLTEXT_OPERATORS = "[\\s+\\-<>()~*\"@]+"; // Whitespace and boolean mode operators, split out of words
+    private static final int MIN_FULLTEXT_WORD = 3; // InnoDB's default innodb_ft_min_token_size
+    public static final String BRANDS_QUERY = "SELECT DISTINCT brand FROM products"; // Public so QueryPlanCheck explains it
 
     /**
      * Adds a new product to the database.
@@ -46,15 +45,11 @@ public class ProductService {
      *         null if a connection or unexpected error occurs
      */
     public Boolean addProduct(ProductModel product) {
-        if (isConnectionError) {
-            System.err.println("Database connection is not available.");
-            return null; // Return null if database connection is unavailable
-        }
-
         String insertQuery = "INSERT INTO products (productName, productDescription, price, stock, createdAt, updatedAt, quantity, productImage, brand) " +
                             "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        
-        try (PreparedStatement stmt = dbConn.prepareStatement(insertQuery)) {
+        int rowsAffected;
+        try (Connection dbConn = ConnectionPool.getConnection();
+             PreparedStatement stmt = dbConn.prepareStatement(insertQuery)) {
             System.out.println("Adding product with values:"); // Log product details
             System.out.println("Product Name: " + product.getProductName());
             System.out.println("Description: " + product.getProductDescription());
@@ -76,15 +71,8 @@ public class ProductService {
             stmt.setString(8, product.getProductImage());
             stmt.setString(9, product.getBrand());
            
-            int rowsAffected = stmt.executeUpdate();
-            if (rowsAffected > 0) {
-                System.out.println("Product successfully added!");
-                return true; // Return true if insertion succeeds
-            } else {
-                System.err.println("No rows affected — product addition failed.");
-                return false; // Return false if no rows were affected
-            }
-        } catch (SQLException e) {
+            rowsAffected = stmt.executeUpdate();
+        } catch (SQLException | ClassNotFoundException e) {
             System.err.println("SQL Error during product addition: " + e.getMessage());
             e.printStackTrace(); // Log the exception for debugging
             return null; // Return null if an SQL error occurs
@@ -93,6 +81,16 @@ public class ProductService {
             e.printStackTrace(); // Log unexpected errors
             return null; // Return null for other exceptions
         }
+
+        // Refresh the caches after the connection is back in the pool, as they borrow their own
+        if (rowsAffected > 0) {
+            System.out.println("Product successfully added!");
+            ProductCatalogCache.getInstance().invalidate(); // Make the new product visible to cached readers
+            ProductSearchIndex.getInstance().rebuild(); // Suggest the new product
+            return true; // Return true if insertion succeeds
+        }
+        System.err.println("No rows affected — product addition failed.");
+        return false; // Return false if no rows were affected
     }
 
     /**
@@ -103,15 +101,11 @@ public class ProductService {
      *         null if a connection or unexpected error occurs
      */
     public Boolean updateProduct(ProductModel product) {
-        if (isConnectionError) {
-            System.err.println("Database connection is not available.");
-            return null; // Return null if database connection is unavailable
-        }
-
         String updateQuery = "UPDATE products SET productName = ?, productDescription = ?, price = ?, stock = ?, " +
                             "updatedAt = ?, quantity = ?, productImage = ?, brand = ? WHERE productId = ?";
-        
-        try (PreparedStatement stmt = dbConn.prepareStatement(updateQuery)) {
+        int rowsAffected;
+        try (Connection dbConn = ConnectionPool.getConnection();
+             PreparedStatement stmt = dbConn.prepareStatement(updateQuery)) {
             System.out.println("Updating product with values:"); // Log product details
             System.out.println("Product ID: " + product.getProductId());
             System.out.println("Product Name: " + product.getProductName());
@@ -133,15 +127,8 @@ public class ProductService {
             stmt.setString(8, product.getBrand());
             stmt.setInt(9, product.getProductId());
 
-            int rowsAffected = stmt.executeUpdate();
-            if (rowsAffected > 0) {
-                System.out.println("Product successfully updated!");
-                return true; // Return true if update succeeds
-            } else {
-                System.err.println("No rows affected — product update failed.");
-                return false; // Return false if no rows were affected
-            }
-        } catch (SQLException e) {
+            rowsAffected = stmt.executeUpdate();
+        } catch (SQLException | ClassNotFoundException e) {
             System.err.println("SQL Error during product update: " + e.getMessage());
             e.printStackTrace(); // Log the exception for debugging
             return null; // Return null if an SQL error occurs
@@ -150,6 +137,17 @@ public class ProductService {
             e.printStackTrace(); // Log unexpected errors
             return null; // Return null for other exceptions
         }
+
+        // Refresh the caches after the connection is back in the pool, as they borrow their own
+        if (rowsAffected > 0) {
+            System.out.println("Product successfully updated!");
+            ProductCatalogCache.getInstance().invalidate(); // Drop stale cached product data
+            ProductCardCache.getInstance().evict(product.getProductId()); // Re-render the shop card
+            ProductSearchIndex.getInstance().rebuild(); // Suggest the new name and brand
+            return true; // Return true if update succeeds
+        }
+        System.err.println("No rows affected — product update failed.");
+        return false; // Return false if no rows were affected
     }
 
     /**
@@ -160,58 +158,52 @@ public class ProductService {
      *         null if a connection or unexpected error occurs
      */
     public Boolean deleteProduct(int productId) {
-        if (isConnectionError) {
-            System.err.println("ProductService: Cannot delete product due to connection error");
-            return null;
-        }
         // First, delete related rows in cart_product and orderItems to avoid foreign key constraints
         String deleteCartProductQuery = "DELETE FROM cart_product WHERE productId = ?";
         String deleteOrderItemsQuery = "DELETE FROM orderItems WHERE productId = ?";
         String deleteProductQuery = "DELETE FROM products WHERE productId = ?";
-        
-        try (PreparedStatement cartStmt = dbConn.prepareStatement(deleteCartProductQuery);
-             PreparedStatement orderStmt = dbConn.prepareStatement(deleteOrderItemsQuery);
-             PreparedStatement productStmt = dbConn.prepareStatement(deleteProductQuery)) {
-            // Begin transaction
-            dbConn.setAutoCommit(false);
-            
-            // Delete from cart_product
-            cartStmt.setInt(1, productId);
-            cartStmt.executeUpdate();
-            
-            // Delete from orderItems
-            orderStmt.setInt(1, productId);
-            orderStmt.executeUpdate();
-            
-            // Delete from products
-            productStmt.setInt(1, productId);
-            int rowsAffected = productStmt.executeUpdate();
-            
-            // Commit transaction
-            dbConn.commit();
-            System.out.println("ProductService: Product deleted successfully, productId=" + productId);
-            return rowsAffected > 0;
-        } catch (SQLException e) {
-            System.err.println("ProductService: SQL Error deleting product, productId=" + productId + ": " + e.getMessage());
-            e.printStackTrace();
-            try {
+        int rowsAffected;
+        try (Connection dbConn = ConnectionPool.getConnection()) {
+            try (PreparedStatement cartStmt = dbConn.prepareStatement(deleteCartProductQuery);
+                 PreparedStatement orderStmt = dbConn.prepareStatement(deleteOrderItemsQuery);
+                 PreparedStatement productStmt = dbConn.prepareStatement(deleteProductQuery)) {
+                // Begin transaction
+                dbConn.setAutoCommit(false);
+
+                // Delete from cart_product
+                cartStmt.setInt(1, productId);
+                cartStmt.executeUpdate();
+
+                // Delete from orderItems
+                orderStmt.setInt(1, productId);
+                orderStmt.executeUpdate();
+
+                // Delete from products
+                productStmt.setInt(1, productId);
+                rowsAffected = productStmt.executeUpdate();
+
+                // Commit transaction
+                dbConn.commit();
+            } catch (SQLException e) {
                 dbConn.rollback();
                 System.out.println("ProductService: Transaction rolled back for productId=" + productId);
-            } catch (SQLException rollbackEx) {
-                System.err.println("ProductService: Error during rollback: " + rollbackEx.getMessage());
-                rollbackEx.printStackTrace();
-            }
-            isConnectionError = true;
-            return null;
-        } finally {
-            try {
+                throw e;
+            } finally {
                 dbConn.setAutoCommit(true);
-            } catch (SQLException e) {
-                System.err.println("ProductService: Error restoring auto-commit: " + e.getMessage());
             }
+        } catch (SQLException | ClassNotFoundException e) {
+            System.err.println("ProductService: SQL Error deleting product, productId=" + productId + ": " + e.getMessage());
+            e.printStackTrace();
+            return null;
         }
-    }
 
+        // Refresh the caches after the connection is back in the pool, as they borrow their own
+        ProductCatalogCache.getInstance().invalidate(); // Remove the deleted product from cached readers
+        ProductCardCache.getInstance().evict(productId); // Drop the deleted product's shop card
+        ProductSearchIndex.getInstance().rebuild(); // Stop suggesting the deleted product
+        System.out.println("ProductService: Product deleted successfully, productId=" + productId);
+        return rowsAffected > 0;
+    }
 
     /**
      * Retrieves a product from the database by its ID.
@@ -220,28 +212,14 @@ public class ProductService {
      * @return ProductModel object if found, null otherwise or if connection fails
      */
     public ProductModel getProductById(int productId) {
-        if (isConnectionError) {
-            System.err.println("Connection Error for productId: " + productId);
-            return null; // Return null if database connection is unavailable
-        }
-
         String query = "SELECT * FROM products WHERE productId = ?";
-        try (PreparedStatement stmt = dbConn.prepareStatement(query)) {
+        try (Connection dbConn = ConnectionPool.getConnection();
+             PreparedStatement stmt = dbConn.prepareStatement(query)) {
             stmt.setInt(1, productId);
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                ProductModel product = new ProductModel(); // Create a new ProductModel instance
-                product.setProductId(rs.getInt("productId"));
-                product.setProductName(rs.getString("productName"));
-                product.setProductDescription(rs.getString("productDescription"));
-                product.setPrice(rs.getDouble("price"));
-                product.setStock(rs.getInt("stock"));
-                product.setQuantity(rs.getInt("quantity"));
-                product.setBrand(rs.getString("brand"));
-                product.setProductImage(rs.getString("productImage"));
-                product.setCreatedAt(rs.getString("createdAt"));
-                product.setUpdatedAt(rs.getString("updatedAt"));
+                ProductModel product = PRODUCT_MAPPER.mapRow(rs); // Create a ProductModel from the row
                 rs.close();
                 System.out.println("Product found for productId: " + productId + ", Name: " + product.getProductName());
                 return product; // Return the populated product object
@@ -249,7 +227,7 @@ public class ProductService {
             rs.close();
             System.err.println("No product found for productId: " + productId);
             return null; // Return null if product not found
-        } catch (SQLException e) {
+        } catch (SQLException | ClassNotFoundException e) {
             System.err.println("SQL Error during product retrieval for productId: " + productId + ": " + e.getMessage());
             e.printStackTrace(); // Log the exception for debugging
             return null; // Return null if an SQL error occurs
@@ -262,52 +240,89 @@ public class ProductService {
      * @return List of ProductModel objects, null if connection fails
      */
     public List<ProductModel> getAllProducts() {
-        if (isConnectionError) {
-            System.err.println("Connection Error!");
-            return null; // Return null if database connection is unavailable
-        }
-
         String query = "SELECT * FROM products";
-        try (PreparedStatement stmt = dbConn.prepareStatement(query)) {
+        try (Connection dbConn = ConnectionPool.getConnection();
+             PreparedStatement stmt = dbConn.prepareStatement(query)) {
             ResultSet rs = stmt.executeQuery();
-            List<ProductModel> productList = new ArrayList<>();
-
-            while (rs.next()) {
-                ProductModel product = new ProductModel(); // Create a new ProductModel for each row
-                product.setProductId(rs.getInt("productId"));
-                product.setProductName(rs.getString("productName"));
-                product.setProductDescription(rs.getString("productDescription"));
-                product.setPrice(rs.getDouble("price"));
-                product.setStock(rs.getInt("stock"));
-                product.setQuantity(rs.getInt("quantity"));
-                product.setBrand(rs.getString("brand"));
-                product.setProductImage(rs.getString("productImage"));
-                product.setCreatedAt(rs.getString("createdAt"));
-                product.setUpdatedAt(rs.getString("updatedAt"));
-                productList.add(product); // Add product to the list
-            }
+            List<ProductModel> productList = PRODUCT_MAPPER.mapAll(rs); // One ProductModel per row
             rs.close();
             return productList; // Return the list of all products
-        } catch (SQLException e) {
+        } catch (SQLException | ClassNotFoundException e) {
             System.err.println("SQL Error during product retrieval: " + e.getMessage());
             e.printStackTrace(); // Log the exception for debugging
             return null; // Return null if an SQL error occurs
         }
     }
 
+    /**
+     * Retrieves the list view of a product by its ID, without its description.
+     * 
+     * @param productId The ID of the product to retrieve
+     * @return ProductSummaryModel object if found, null otherwise or if connection fails
+     */
+    public ProductSummaryModel getProductSummaryById(int productId) {
+        String query = "SELECT " + SUMMARY_COLUMNS + " FROM products WHERE productId = ?";
+        try (Connection dbConn = ConnectionPool.getConnection();
+             PreparedStatement stmt = dbConn.prepareStatement(query)) {
+            stmt.setInt(1, productId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? SUMMARY_MAPPER.mapRow(rs) : null; // Null if product not found
+            }
+        } catch (SQLException | ClassNotFoundException e) {
+            System.err.println("SQL Error during product summary retrieval for productId: " + productId + ": " + e.getMessage());
+            e.printStackTrace(); // Log the exception for debugging
+            return null; // Return null if an SQL error occurs
+        }
+    }
+
+    /**
+     * Retrieves the list view of all products, without descriptions.
+     * 
+     * @return List of ProductSummaryModel objects ordered by product ID, null if connection fails
+     */
+    public List<ProductSummaryModel> getAllProductSummaries() {
+        String query = "SELECT " + SUMMARY_COLUMNS + " FROM products ORDER BY productId";
+        try (Connection dbConn = ConnectionPool.getConnection();
+             PreparedStatement stmt = dbConn.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
+            return SUMMARY_MAPPER.mapAll(rs); // Return the list of all products
+        } catch (SQLException | ClassNotFoundException e) {
+            System.err.println("SQL Error during product summary retrieval: " + e.getMessage());
+            e.printStackTrace(); // Log the exception for debugging
+            return null; // Return null if an SQL error occurs
+        }
+    }
+
+    /**
+     * Retrieves the number of units sold of each product, summed over all order items.
+     * 
+     * @return Map of product ID to units sold (products never ordered are absent), null if connection fails
+     */
+    public Map<Integer, Integer> getUnitsSoldByProduct() {
+        String query = "SELECT productId, SUM(quantity) AS unitsSold FROM orderItems GROUP BY productId";
+        try (Connection dbConn = ConnectionPool.getConnection();
+             PreparedStatement stmt = dbConn.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
+            Map<Integer, Integer> unitsSold = new HashMap<>();
+            while (rs.next()) {
+                unitsSold.put(rs.getInt("productId"), rs.getInt("unitsSold")); // Add each product's total
+            }
+            return unitsSold; // Return the units sold per product
+        } catch (SQLException | ClassNotFoundException e) {
+            System.err.println("SQL Error during sales retrieval: " + e.getMessage());
+            e.printStackTrace(); // Log the exception for debugging
+            return null; // Return null if an SQL error occurs
+        }
+    }
+
     /**
      * Retrieves all unique brands from the products table.
      * 
      * @return List of brand names, null if connection fails
      */
     public List<String> getAllBrands() {
-        if (isConnectionError) {
-            System.err.println("Connection Error!");
-            return null; // Return null if database connection is unavailable
-        }
-
-        String query = "SELECT DISTINCT brand FROM products";
-        try (PreparedStatement stmt = dbConn.prepareStatement(query)) {
+        try (Connection dbConn = ConnectionPool.getConnection();
+             PreparedStatement stmt = dbConn.prepareStatement(BRANDS_QUERY)) {
             ResultSet rs = stmt.executeQuery();
             List<String> brands = new ArrayList<>();
 
@@ -316,7 +331,7 @@ public class ProductService {
             }
             rs.close();
             return brands; // Return the list of brands
-        } catch (SQLException e) {
+        } catch (SQLException | ClassNotFoundException e) {
             System.err.println("SQL Error during brand retrieval: " + e.getMessage());
             e.printStackTrace(); // Log the exception for debugging
             return null; // Return null if an SQL error occurs
@@ -325,24 +340,86 @@ public class ProductService {
 
     /**
      * Retrieves a filtered and sorted list of products based on search term, brand filter, and sort order.
+     * The search uses LIKE on product names, or the FULLTEXT index on name, description and brand if the
+     * search.mode setting is "natural" or "boolean"; full-text results are ordered by relevance unless
+     * sorted by price. When the search finds fewer products than the search.fuzzyBelow setting, products
+     * whose name or brand is a close misspelling of the search are appended after the exact matches.
      * 
-     * @param searchTerm The term to search in product names
+     * @param searchTerm The term to search for
      * @param sort The sort order (e.g., "low-high", "high-low", or "default")
      * @param filter The brand filter (e.g., "all" or a specific brand)
      * @param showMore Unused parameter (reserved for future pagination logic)
-     * @return List of ProductModel objects, empty list if connection fails or no results
+     * @return List of ProductSummaryModel objects, empty list if connection fails or no results
      */
-    public List<ProductModel> getFilteredProducts(String searchTerm, String sort, String filter, boolean showMore) {
-        if (isConnectionError) {
-            System.err.println("Connection Error!");
-            return new ArrayList<>(); // Return empty list if database connection is unavailable
+    public List<ProductSummaryModel> getFilteredProducts(String searchTerm, String sort, String filter, boolean showMore) {
+        String fullTextMode = getFullTextMode(searchTerm);
+        List<ProductSummaryModel> productList = findProducts(searchTerm, sort, filter, fullTextMode);
+        if (productList == null && fullTextMode != null) {
+            System.err.println("Falling back to LIKE search after full-text search failed");
+            productList = findProducts(searchTerm, sort, filter, null); // E.g. the FULLTEXT index is missing
+        }
+        if (productList == null) {
+            return new ArrayList<>(); // Return empty list if an SQL error occurs
+        }
+        if (searchTerm != null && !searchTerm.trim().isEmpty()
+                && productList.size() < AppConfig.getInt("search.fuzzyBelow", 3)) {
+            addFuzzyMatches(productList, searchTerm, sort, filter);
         }
+        return productList; // Return the filtered and sorted product list
+    }
 
-        StringBuilder query = new StringBuilder("SELECT * FROM products WHERE 1=1"); // Base query with a always-true condition
+    /**
+     * Runs the product search query.
+     * 
+     * @param searchTerm The term to search for
+     * @param sort The sort order
+     * @param filter The brand filter
+     * @param fullTextMode The MATCH ... AGAINST modifier, or null to search with LIKE
+     * @return The matching products, or null if an SQL error occurs
+     */
+    private List<ProductSummaryModel> findProducts(String searchTerm, String sort, String filter, String fullTextMode) {
         List<Object> parameters = new ArrayList<>(); // Parameters for prepared statement
+        String query = buildSearchQuery(searchTerm, sort, filter, fullTextMode, parameters);
+
+        try (Connection dbConn = ConnectionPool.getConnection();
+             PreparedStatement stmt = dbConn.prepareStatement(query)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                stmt.setObject(i + 1, parameters.get(i)); // Bind parameters dynamically
+            }
+
+            ResultSet rs = stmt.executeQuery();
+            List<ProductSummaryModel> productList = SUMMARY_MAPPER.mapAll(rs); // One summary per row
+            rs.close();
+            return productList;
+        } catch (SQLException | ClassNotFoundException e) {
+            System.err.println("SQL Error during filtered product retrieval: " + e.getMessage());
+            e.printStackTrace(); // Log the exception for debugging
+            return null;
+        }
+    }
+
+    /**
+     * Builds the product search query. Public so QueryPlanCheck explains exactly the SQL the
+     * shop runs.
+     * 
+     * @param searchTerm The term to search for
+     * @param sort The sort order
+     * @param filter The brand filter
+     * @param fullTextMode The MATCH ... AGAINST modifier, or null to search with LIKE
+     * @param parameters Receives the values to bind, in order
+     * @return The SQL query
+     */
+    public static String buildSearchQuery(String searchTerm, String sort, String filter, String fullTextMode,
+            List<Object> parameters) {
+        StringBuilder query = new StringBuilder("SELECT " + SUMMARY_COLUMNS + " FROM products WHERE 1=1"); // Base query with a always-true condition
+        boolean isSearch = searchTerm != null && !searchTerm.trim().isEmpty();
+        String against = isSearch && fullTextMode != null ? toFullTextQuery(searchTerm, fullTextMode) : null;
 
-        // Search by product name
-        if (searchTerm != null && !searchTerm.trim().isEmpty()) {
+        // Search by product name, or by name, description and brand in full-text mode
+        if (against != null) {
+            query.append(" AND " + FULLTEXT_MATCH + " AGAINST (? IN " + fullTextMode + ")");
+            parameters.add(against);
+        } else if (isSearch) {
             query.append(" AND LOWER(productName) LIKE ?"); // Case-insensitive search
             parameters.add("%" + searchTerm.trim().toLowerCase() + "%");
         }
@@ -360,38 +437,98 @@ public class ProductService {
             } else if (sort.equals("high-low")) {
                 query.append(" ORDER BY price DESC"); // Sort descending by price
             }
+        } else if (against != null) {
+            query.append(" ORDER BY " + FULLTEXT_MATCH + " AGAINST (? IN " + fullTextMode + ") DESC, productId ASC"); // Most relevant first
+            parameters.add(against);
         } else {
             query.append(" ORDER BY productId ASC"); // Default sort by product ID
         }
+        return query.toString();
+    }
 
-        try (PreparedStatement stmt = dbConn.prepareStatement(query.toString())) {
-            for (int i = 0; i < parameters.size(); i++) {
-                stmt.setObject(i + 1, parameters.get(i)); // Bind parameters dynamically
-            }
+    /**
+     * Chooses how a search runs, from the search.mode setting: "like" (default), "natural" or "boolean".
+     * Searches without a word of at least MIN_FULLTEXT_WORD characters use LIKE, since the FULLTEXT
+     * index does not contain shorter words.
+     * 
+     * @param searchTerm The term to search for
+     * @return The MATCH ... AGAINST modifier, or null to search with LIKE
+     */
+    private static String getFullTextMode(String searchTerm) {
+        String mode = AppConfig.getString("search.mode", "like");
+        if (searchTerm == null || "like".equalsIgnoreCase(mode)) {
+            return null;
+        }
+        boolean hasIndexedWord = false;
+        for (String word : searchTerm.split(FULLTEXT_OPERATORS)) {
+            hasIndexedWord |= word.length() >= MIN_FULLTEXT_WORD;
+        }
+        if (!hasIndexedWord) {
+            return null;
+        }
+        if ("natural".equalsIgnoreCase(mode)) {
+            return "NATURAL LANGUAGE MODE";
+        }
+        if ("boolean".equalsIgnoreCase(mode)) {
+            return "BOOLEAN MODE";
+        }
+        System.err.println("Unknown search.mode " + mode + ", using like");
+        return null;
+    }
 
-            ResultSet rs = stmt.executeQuery();
-            List<ProductModel> productList = new ArrayList<>();
+    /**
+     * Builds the AGAINST text of a search. In boolean mode every word is required and matches as a
+     * prefix ("sauv" finds "Sauvage"); operators typed by the shopper are removed first.
+     * 
+     * @param searchTerm The term to search for
+     * @param fullTextMode The MATCH ... AGAINST modifier
+     * @return The text to bind to AGAINST
+     */
+    private static String toFullTextQuery(String searchTerm, String fullTextMode) {
+        if (!"BOOLEAN MODE".equals(fullTextMode)) {
+            return searchTerm.trim();
+        }
+        StringBuilder against = new StringBuilder();
+        for (String word : searchTerm.split(FULLTEXT_OPERATORS)) {
+            if (word.length() >= MIN_FULLTEXT_WORD) { // Shorter words are not indexed and would match nothing
+                against.append(against.length() > 0 ? " +" : "+").append(word).append('*');
+            }
+        }
+        return against.toString();
+    }
 
-            while (rs.next()) {
-                ProductModel product = new ProductModel(); // Create a new ProductModel for each row
-                product.setProductId(rs.getInt("productId"));
-                product.setProductName(rs.getString("productName"));
-                product.setProductDescription(rs.getString("productDescription"));
-                product.setPrice(rs.getDouble("price"));
-                product.setStock(rs.getInt("stock"));
-                product.setQuantity(rs.getInt("quantity"));
-                product.setBrand(rs.getString("brand"));
-                product.setProductImage(rs.getString("productImage"));
-                product.setCreatedAt(rs.getString("createdAt"));
-                product.setUpdatedAt(rs.getString("updatedAt"));
-                productList.add(product); // Add product to the list
+    /**
+     * Appends the products matching a search despite typos, from the in-memory ProductSearchIndex,
+     * to a sparse exact result. They keep the brand filter and are sorted by price if requested,
+     * otherwise closest match first.
+     * 
+     * @param productList The exact matches, extended in place
+     * @param searchTerm The search as typed
+     * @param sort The sort order
+     * @param filter The brand filter
+     */
+    private void addFuzzyMatches(List<ProductSummaryModel> productList, String searchTerm, String sort, String filter) {
+        Set<Integer> listed = new HashSet<>();
+        for (ProductSummaryModel product : productList) {
+            listed.add(product.getProductId());
+        }
+        List<ProductSummaryModel> fuzzyList = new ArrayList<>();
+        ProductCatalogCache catalog = ProductCatalogCache.getInstance();
+        for (int productId : ProductSearchIndex.getInstance().fuzzyMatch(searchTerm, MAX_FUZZY_MATCHES)) {
+            ProductSummaryModel product = catalog.getProduct(productId);
+            if (product == null || listed.contains(productId)) {
+                continue; // Deleted since the index was built, or already an exact match
             }
-            rs.close();
-            return productList; // Return the filtered and sorted product list
-        } catch (SQLException e) {
-            System.err.println("SQL Error during filtered product retrieval: " + e.getMessage());
-            e.printStackTrace(); // Log the exception for debugging
-            return new ArrayList<>(); // Return empty list if an SQL error occurs
+            if (filter != null && !filter.equals("all") && !filter.equals(product.getBrand())) {
+                continue;
+            }
+            fuzzyList.add(product);
+        }
+        if ("low-high".equals(sort)) {
+            fuzzyList.sort(Comparator.comparingDouble(ProductSummaryModel::getPrice));
+        } else if ("high-low".equals(sort)) {
+            fuzzyList.sort(Comparator.comparingDouble(ProductSummaryModel::getPrice).reversed());
         }
+        productList.addAll(fuzzyList);
     }
-}
\ No newline at end of file
+}
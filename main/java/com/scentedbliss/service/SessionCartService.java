@@ -0,0 +1,207 @@
+package com.scentedbliss.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.scentedbliss.model.ProductModel;
+import com.scentedbliss.model.ProductSummaryModel;
+import com.scentedbliss.model.SessionCart;
+import com.scentedbliss.util.SessionUtil;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * @author 23049172 Sabin Devkota
+ *
+ * This class provides service layer functionality for the session-resident shopping cart.
+ * The cart lines live in a {@link SessionCart} stored in the user's session, products are priced
+ * from the {@link ProductCatalogCache}, and every change is persisted to cart_product through the
+ * {@link CartWriteBehindQueue}. The database is only read when a cart is first loaded for a session.
+ */
+public class SessionCartService {
+    public static final String SESSION_ATTRIBUTE = "cart"; // Session attribute holding the SessionCart
+
+    private final CartService cartService = new CartService(); // Used to resolve and load persistent carts
+    private final ProductCatalogCache catalog = ProductCatalogCache.getInstance();
+    private final CartWriteBehindQueue writeQueue = CartWriteBehindQueue.getInstance();
+
+    /**
+     * Retrieves the user's session cart, loading it from the database if the session does not
+     * hold a cart yet or holds the cart of a different user.
+     *
+     * @param request The HTTP request whose session holds the cart
+     * @param username The username of the logged-in user
+     * @return The SessionCart, or null if the user or cart could not be found
+     */
+    public SessionCart getSessionCart(HttpServletRequest request, String username) {
+        SessionCart cart = (SessionCart) SessionUtil.getAttribute(request, SESSION_ATTRIBUTE);
+        if (cart != null && username.equals(cart.getUsername())) {
+            return cart; // Reuse the cart already held in the session
+        }
+
+        int userId = cartService.getUserIdByUsername(username);
+        if (userId == -1) {
+            System.out.println("SessionCartService getSessionCart: User not found for username = " + username);
+            return null;
+        }
+        cart = loadCart(username, userId); // Load (or create) the persistent cart
+        if (cart != null) {
+            SessionUtil.setAttribute(request, SESSION_ATTRIBUTE, cart); // Keep it for later requests
+        }
+        return cart;
+    }
+
+    /**
+     * Replaces the session cart with a freshly loaded copy of the user's persistent cart, e.g.
+     * when the session holds a cart that is no longer the user's cart.
+     *
+     * @param request The HTTP request whose session holds the cart
+     * @param username The username of the logged-in user
+     * @param userId The ID of the logged-in user
+     * @return The reloaded SessionCart, or null if the cart could not be found or created
+     */
+    public SessionCart reloadSessionCart(HttpServletRequest request, String username, int userId) {
+        SessionCart cart = loadCart(username, userId);
+        if (cart != null) {
+            SessionUtil.setAttribute(request, SESSION_ATTRIBUTE, cart);
+        } else {
+            SessionUtil.removeAttribute(request, SESSION_ATTRIBUTE); // Do not keep using the stale cart
+        }
+        return cart;
+    }
+
+    /**
+     * Loads the persistent cart of a user into a new session cart, creating the cart row if the
+     * user does not have one yet. Pending writes for the cart are flushed first so the loaded
+     * lines reflect changes made from other sessions.
+     *
+     * @param username The username of the cart owner
+     * @param userId The ID of the cart owner
+     * @return The loaded SessionCart, or null if the cart could not be found or created
+     */
+    public SessionCart loadCart(String username, int userId) {
+        Integer cartId = cartService.getCartIdByUserId(userId);
+        if (cartId == null) {
+            cartId = cartService.createCart(userId); // Create a new cart if none exists
+            if (cartId == null) {
+                System.out.println("SessionCartService loadCart: Failed to create cart for userId = " + userId);
+                return null;
+            }
+        }
+        writeQueue.flushCart(cartId);
+
+        SessionCart cart = new SessionCart(username, userId, cartId);
+        for (Map.Entry<Integer, Integer> line : cartService.getCartQuantities(cartId).entrySet()) {
+            cart.setQuantity(line.getKey(), line.getValue());
+        }
+        return cart;
+    }
+
+    /**
+     * Adds a quantity of a product to the cart.
+     *
+     * @param cart The session cart
+     * @param productId The ID of the product to add
+     * @param quantity The quantity to add (positive value)
+     * @return true if the product exists and was added, false otherwise
+     */
+    public boolean addProduct(SessionCart cart, int productId, int quantity) {
+        if (quantity < 1 || catalog.getProduct(productId) == null) {
+            return false;
+        }
+        synchronized (cart) { // Queue the change in the order the session cart changed
+            cart.add(productId, quantity);
+            writeQueue.enqueueAdd(cart.getCartId(), productId, quantity); // Persisted as an increment
+        }
+        return true;
+    }
+
+    /**
+     * Sets the quantity of a product already in the cart.
+     *
+     * @param cart The session cart
+     * @param productId The ID of the product to update
+     * @param quantity The new quantity (positive value)
+     * @return true if the product is in the cart and was updated, false otherwise
+     */
+    public boolean updateQuantity(SessionCart cart, int productId, int quantity) {
+        if (quantity < 1) {
+            return false;
+        }
+        synchronized (cart) { // Queue the change in the order the session cart changed
+            if (cart.getQuantity(productId) == 0) {
+                return false;
+            }
+            cart.setQuantity(productId, quantity);
+            writeQueue.enqueueSet(cart.getCartId(), productId, quantity);
+        }
+        return true;
+    }
+
+    /**
+     * Removes a product from the cart.
+     *
+     * @param cart The session cart
+     * @param productId The ID of the product to remove
+     * @return true if the product was in the cart, false otherwise
+     */
+    public boolean removeProduct(SessionCart cart, int productId) {
+        synchronized (cart) { // Queue the change in the order the session cart changed
+            if (!cart.remove(productId)) {
+                return false;
+            }
+            writeQueue.enqueueSet(cart.getCartId(), productId, 0);
+        }
+        return true;
+    }
+
+    /**
+     * Writes any pending changes of the cart to the database. Used on logout and before checkout.
+     *
+     * @param cart The session cart
+     * @return true if the cart is fully persisted, false if the write failed
+     */
+    public boolean flush(SessionCart cart) {
+        return writeQueue.flushCart(cart.getCartId());
+    }
+
+    /**
+     * Builds the priced cart lines for display. Each line is built from the cached catalog
+     * summary with its quantity set to the cart quantity; the description and timestamps are
+     * not part of the cart view and are left empty. Products that no longer exist in the
+     * catalog are left out.
+     *
+     * @param cart The session cart
+     * @return List of ProductModel objects, one per cart line
+     */
+    public List<ProductModel> getCartProducts(SessionCart cart) {
+        List<ProductModel> products = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> line : cart.getLines().entrySet()) {
+            ProductSummaryModel product = catalog.getProduct(line.getKey());
+            if (product != null) {
+                products.add(new ProductModel(cart.getCartId(), product.getProductId(), product.getProductName(),
+                        null, product.getPrice(), product.getStock(), line.getValue(),
+                        product.getBrand(), product.getProductImage(), null, null));
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Calculates the cart subtotal (sum of price * quantity) from catalog prices.
+     *
+     * @param cart The session cart
+     * @return The subtotal, excluding shipping
+     */
+    public double getSubtotal(SessionCart cart) {
+        double subtotal = 0.0;
+        for (Map.Entry<Integer, Integer> line : cart.getLines().entrySet()) {
+            ProductSummaryModel product = catalog.getProduct(line.getKey());
+            if (product != null) {
+                subtotal += product.getPrice() * line.getValue();
+            }
+        }
+        return subtotal;
+    }
+}
@@ -3,12 +3,12 @@ package com.scentedbliss.service;
 import com.scentedbliss.config.DbConfig;
 import com.scentedbliss.model.UserModel;
 import com.scentedbliss.util.PasswordUtil;
+import com.scentedbliss.util.RowMapper;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -21,6 +21,10 @@ import java.util.List;
  * handles connection errors gracefully.
  */
 public class UserService {
+    private static final RowMapper<UserModel> USER_MAPPER = RowMapper.of(UserModel.class); // Profile column rows
+    // Public so QueryPlanCheck explains the same SQL
+    public static final String USER_BY_USERNAME_QUERY = "SELECT firstName, lastName, address, email, phoneNumber, gender, "
+            + "username, dob, role, imageUrl FROM users WHERE username = ?";
     private Connection dbConn; // Database connection instance
     private boolean isConnectionError = false; // Flag to track connection issues
 
@@ -51,22 +55,11 @@ public class UserService {
             return null; // Return null if database connection is unavailable
         }
 
-        String query = "SELECT firstName, lastName, address, email, phoneNumber, gender, username, dob, role, imageUrl FROM users WHERE username = ?";
-        try (PreparedStatement stmt = dbConn.prepareStatement(query)) {
+        try (PreparedStatement stmt = dbConn.prepareStatement(USER_BY_USERNAME_QUERY)) {
             stmt.setString(1, username); // Bind the username parameter
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                UserModel user = new UserModel(); // Create a new UserModel instance
-                user.setFirstName(rs.getString("firstName"));
-                user.setLastName(rs.getString("lastName"));
-                user.setAddress(rs.getString("address"));
-                user.setEmail(rs.getString("email"));
-                user.setPhoneNumber(rs.getString("phoneNumber"));
-                user.setGender(rs.getString("gender"));
-                user.setUsername(rs.getString("username"));
-                user.setDob(rs.getString("dob") != null ? LocalDate.parse(rs.getString("dob")) : null); // Parse DOB if present
-                user.setRole(rs.getString("role"));
-                user.setImageUrl(rs.getString("imageUrl"));
+                UserModel user = USER_MAPPER.mapRow(rs); // Create a UserModel from the row
                 return user; // Return the populated user object
             }
         } catch (SQLException e) {
@@ -112,6 +105,7 @@ public class UserService {
             int rowsAffected = stmt.executeUpdate();
             if (rowsAffected > 0) {
                 System.out.println("UserService: Profile updated successfully for username=" + user.getUsername());
+                UserUniquenessService.getInstance().register(null, user.getEmail(), user.getPhoneNumber()); // New values are now taken
                 return true; // Return true if update succeeds
             } else {
                 System.out.println("UserService: No rows affected during profile update for username=" + user.getUsername());
@@ -200,20 +194,7 @@ public class UserService {
         String query = "SELECT firstName, lastName, address, email, phoneNumber, gender, username, dob, role, imageUrl FROM users WHERE role = 'customer'";
         try (PreparedStatement stmt = dbConn.prepareStatement(query)) {
             ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                UserModel user = new UserModel(); // Create a new UserModel for each customer
-                user.setFirstName(rs.getString("firstName"));
-                user.setLastName(rs.getString("lastName"));
-                user.setAddress(rs.getString("address"));
-                user.setEmail(rs.getString("email"));
-                user.setPhoneNumber(rs.getString("phoneNumber"));
-                user.setGender(rs.getString("gender"));
-                user.setUsername(rs.getString("username"));
-                user.setDob(rs.getString("dob") != null ? LocalDate.parse(rs.getString("dob")) : null); // Parse DOB if present
-                user.setRole(rs.getString("role"));
-                user.setImageUrl(rs.getString("imageUrl"));
-                customers.add(user); // Add customer to the list
-            }
+            customers.addAll(USER_MAPPER.mapAll(rs)); // One UserModel per customer
         } catch (SQLException e) {
             System.out.println("UserService: SQLException in getAllCustomers: " + e.getMessage());
             e.printStackTrace(); // Log the exception for debugging
@@ -0,0 +1,191 @@
+package com.scentedbliss.service;
+
+import com.scentedbliss.config.ConnectionPool;
+import com.scentedbliss.util.BloomFilter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author 23049172 Sabin Devkota
+ *
+ * Checks whether a username, email or phone number is already used by another account.
+ * Bloom filters of all existing values are loaded at startup and kept up to date on
+ * registration and profile changes. If none of the three values can be in the filters,
+ * the check is answered without the database; otherwise a single query over a pooled
+ * connection confirms which values are really taken.
+ *
+ * Values are compared case-insensitively, like the users table collation.
+ */
+public class UserUniquenessService {
+    private static final UserUniquenessService INSTANCE = new UserUniquenessService();
+    private static final double FALSE_POSITIVE_RATE = 0.01; // Share of free values that still need a query
+    private static final int MIN_CAPACITY = 1000; // Filters are sized for growth beyond the current users
+
+    private static final String TAKEN_QUERY =
+            "SELECT username, email, phoneNumber FROM users WHERE username = ? OR email = ? OR phoneNumber = ?";
+
+    /**
+     * A user field that must be unique.
+     */
+    public enum Field {
+        EMAIL, PHONE, USERNAME
+    }
+
+    private volatile BloomFilter usernames; // Null until loaded; every check then goes to the database
+    private volatile BloomFilter emails;
+    private volatile BloomFilter phones;
+
+    private final AtomicLong filteredChecks = new AtomicLong(); // Checks answered by the Bloom filters alone
+    private final AtomicLong databaseChecks = new AtomicLong(); // Checks that needed the query
+
+    private UserUniquenessService() {
+    }
+
+    /**
+     * Returns the shared uniqueness service.
+     *
+     * @return The UserUniquenessService instance
+     */
+    public static UserUniquenessService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Loads the Bloom filters from the users table. Called once when the application starts.
+     */
+    public void load() {
+        try (Connection conn = ConnectionPool.getConnection()) {
+            int userCount = 0;
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM users");
+                 ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    userCount = rs.getInt(1);
+                }
+            }
+            int capacity = Math.max(userCount * 2, MIN_CAPACITY);
+            BloomFilter loadedUsernames = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+            BloomFilter loadedEmails = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+            BloomFilter loadedPhones = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT username, email, phoneNumber FROM users");
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    loadedUsernames.add(normalize(rs.getString("username")));
+                    loadedEmails.add(normalize(rs.getString("email")));
+                    loadedPhones.add(normalize(rs.getString("phoneNumber")));
+                }
+            }
+            usernames = loadedUsernames;
+            emails = loadedEmails;
+            phones = loadedPhones;
+            System.out.println("UserUniquenessService load: Loaded filters for " + userCount + " users");
+        } catch (SQLException | ClassNotFoundException e) {
+            System.err.println("UserUniquenessService load: Filters not loaded, checks will query the database: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Finds which of the given values are already used by an existing account.
+     *
+     * @param username The username to check
+     * @param email The email to check
+     * @param phoneNumber The phone number to check
+     * @return The taken fields (empty if all are free), or null if the database could not be reached
+     */
+    public Set<Field> getTakenFields(String username, String email, String phoneNumber) {
+        BloomFilter usernameFilter = usernames;
+        if (usernameFilter != null
+                && !usernameFilter.mightContain(normalize(username))
+                && !emails.mightContain(normalize(email))
+                && !phones.mightContain(normalize(phoneNumber))) {
+            filteredChecks.incrementAndGet();
+            return EnumSet.noneOf(Field.class); // None of the values has ever been registered
+        }
+
+        databaseChecks.incrementAndGet();
+        Set<Field> taken = EnumSet.noneOf(Field.class);
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(TAKEN_QUERY)) {
+            stmt.setString(1, username);
+            stmt.setString(2, email);
+            stmt.setString(3, phoneNumber);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (normalize(email).equals(normalize(rs.getString("email")))) {
+                        taken.add(Field.EMAIL);
+                    }
+                    if (normalize(phoneNumber).equals(normalize(rs.getString("phoneNumber")))) {
+                        taken.add(Field.PHONE);
+                    }
+                    if (normalize(username).equals(normalize(rs.getString("username")))) {
+                        taken.add(Field.USERNAME);
+                    }
+                }
+            }
+            return taken;
+        } catch (SQLException | ClassNotFoundException e) {
+            System.err.println("UserUniquenessService getTakenFields: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Records the values of a new or changed account in the filters.
+     *
+     * @param username The username, or null if unchanged
+     * @param email The email, or null if unchanged
+     * @param phoneNumber The phone number, or null if unchanged
+     */
+    public void register(String username, String email, String phoneNumber) {
+        if (usernames == null) {
+            return; // Not loaded, every check goes to the database anyway
+        }
+        if (username != null) {
+            usernames.add(normalize(username));
+        }
+        if (email != null) {
+            emails.add(normalize(email));
+        }
+        if (phoneNumber != null) {
+            phones.add(normalize(phoneNumber));
+        }
+    }
+
+    /**
+     * Gets the number of checks answered by the Bloom filters without a query.
+     *
+     * @return The number of filtered checks
+     */
+    public long getFilteredChecks() {
+        return filteredChecks.get();
+    }
+
+    /**
+     * Gets the number of checks that needed the database.
+     *
+     * @return The number of database checks
+     */
+    public long getDatabaseChecks() {
+        return databaseChecks.get();
+    }
+
+    /**
+     * Logs how many uniqueness checks the Bloom filters answered without the database.
+     * Called when the application stops.
+     */
+    public void logStats() {
+        System.out.println("UserUniquenessService: " + getFilteredChecks() + " check(s) answered by the filters, "
+                + getDatabaseChecks() + " by the database");
+    }
+
+    private static String normalize(String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : "";
+    }
+}
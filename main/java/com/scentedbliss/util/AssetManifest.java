@@ -0,0 +1,148 @@
+package com.scentedbliss.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import jakarta.servlet.ServletContext;
+
+/**
+ * @author 23049172 Sabin Devkota
+ */
+
+/**
+ * Manifest of content-hashed names for the static files under /css and /resources.
+ * <p>
+ * At startup every file is hashed and given a fingerprinted name that contains the
+ * first characters of its SHA-256 hash, e.g. /css/header.css becomes
+ * /css/header.3f2a9c1b7d.css. JSP pages link to the fingerprinted name through the
+ * asset:url EL function, so a changed file gets a new URL and browsers may cache each
+ * URL forever (Cache-Control: immutable). StaticResourceController maps the
+ * fingerprinted names back to the real files.
+ * </p>
+ */
+public class AssetManifest {
+
+    private static final String[] ASSET_DIRECTORIES = {"/css", "/resources"}; // Directories that are fingerprinted
+    private static final int FINGERPRINT_LENGTH = 10; // Hex characters of the hash kept in file names
+
+    private static volatile Map<String, String> fingerprintedByPath = Collections.emptyMap(); // /css/a.css -> /css/a.<hash>.css
+    private static volatile Map<String, String> pathByFingerprinted = Collections.emptyMap(); // Reverse lookup
+
+    /**
+     * Hashes every file under the asset directories and replaces the manifest.
+     * Called once when the application starts.
+     *
+     * @param context the ServletContext used to locate the web application files
+     */
+    public static void build(ServletContext context) {
+        Map<String, String> forward = new HashMap<>();
+        Map<String, String> reverse = new HashMap<>();
+        long start = System.currentTimeMillis();
+        for (String directory : ASSET_DIRECTORIES) {
+            String realPath = context.getRealPath(directory);
+            if (realPath != null) {
+                addDirectory(new File(realPath), directory, forward, reverse);
+            }
+        }
+        fingerprintedByPath = Collections.unmodifiableMap(forward);
+        pathByFingerprinted = Collections.unmodifiableMap(reverse);
+        System.out.println("AssetManifest: Fingerprinted " + forward.size() + " files in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Returns the fingerprinted URL path of an asset. Used by JSP pages through the
+     * asset:url EL function. Paths that are not in the manifest are returned unchanged.
+     *
+     * @param path the asset path relative to the context root, e.g. /css/header.css
+     * @return the fingerprinted path, or the given path if it is unknown
+     */
+    public static String url(String path) {
+        String fingerprinted = fingerprintedByPath.get(path);
+        return fingerprinted != null ? fingerprinted : path;
+    }
+
+    /**
+     * Returns the real asset path for a fingerprinted path.
+     *
+     * @param fingerprintedPath a path returned by {@link #url(String)}
+     * @return the original asset path, or null if the path is not fingerprinted
+     */
+    public static String getPath(String fingerprintedPath) {
+        return pathByFingerprinted.get(fingerprintedPath);
+    }
+
+    /**
+     * Extracts the fingerprint from a fingerprinted path.
+     *
+     * @param fingerprintedPath a path returned by {@link #url(String)}
+     * @return the hex fingerprint, or null if the path has none
+     */
+    public static String getFingerprint(String fingerprintedPath) {
+        int extension = fingerprintedPath.lastIndexOf('.');
+        int fingerprint = extension > 0 ? fingerprintedPath.lastIndexOf('.', extension - 1) : -1;
+        if (fingerprint < 0 || extension - fingerprint - 1 != FINGERPRINT_LENGTH) {
+            return null;
+        }
+        return fingerprintedPath.substring(fingerprint + 1, extension);
+    }
+
+    /**
+     * Computes the SHA-256 hash of a file as a lowercase hex string.
+     *
+     * @param file the file to hash
+     * @return the 64-character hex hash
+     * @throws IOException if the file cannot be read
+     */
+    public static String sha256Hex(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (channel.size() > 0) {
+                digest.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : digest.digest()) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Adds all files of a directory (recursively) to the manifest maps.
+     */
+    private static void addDirectory(File directory, String urlPath, Map<String, String> forward, Map<String, String> reverse) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String path = urlPath + "/" + file.getName();
+            if (file.isDirectory()) {
+                addDirectory(file, path, forward, reverse);
+                continue;
+            }
+            int extension = path.lastIndexOf('.');
+            if (extension <= path.lastIndexOf('/')) {
+                continue; // Without an extension the fingerprint could not be told apart from the name
+            }
+            try {
+                String fingerprint = sha256Hex(file).substring(0, FINGERPRINT_LENGTH);
+                String fingerprinted = path.substring(0, extension) + "." + fingerprint + path.substring(extension);
+                forward.put(path, fingerprinted);
+                reverse.put(fingerprinted, path);
+            } catch (IOException e) {
+                System.err.println("AssetManifest: Could not hash " + path + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.scentedbliss.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+
+/**
+ * @author 23049172 Sabin Devkota
+ */
+
+/**
+ * A small Bloom filter of strings.
+ * A negative answer from {@link #mightContain(String)} is certain; a positive answer
+ * may be wrong with roughly the false-positive rate the filter was sized for, so it
+ * must be confirmed elsewhere (e.g. in the database). Values can only be added.
+ * All methods are synchronized, as the filter is shared between request threads.
+ */
+public class BloomFilter {
+
+    private final BitSet bits; // The filter bits
+    private final int bitCount; // Number of bits in the filter
+    private final int hashCount; // Number of bit positions per value
+
+    /**
+     * Creates a filter sized for the expected number of values.
+     *
+     * @param expectedValues    the number of values the filter should hold
+     * @param falsePositiveRate the acceptable false-positive rate, e.g. 0.01
+     */
+    public BloomFilter(int expectedValues, double falsePositiveRate) {
+        int n = Math.max(expectedValues, 1);
+        // Optimal sizes: m = -n ln p / (ln 2)^2, k = m/n ln 2
+        this.bitCount = (int) Math.max(64, Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        this.bits = new BitSet(bitCount);
+    }
+
+    /**
+     * Adds a value to the filter.
+     *
+     * @param value the value to add; null is ignored
+     */
+    public synchronized void add(String value) {
+        if (value == null) {
+            return;
+        }
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            bits.set(Math.floorMod(h1 + i * h2, bitCount));
+        }
+    }
+
+    /**
+     * Checks whether a value may have been added.
+     *
+     * @param value the value to check
+     * @return false if the value was certainly never added, true if it may have been
+     */
+    public synchronized boolean mightContain(String value) {
+        if (value == null) {
+            return false;
+        }
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            if (!bits.get(Math.floorMod(h1 + i * h2, bitCount))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the UTF-8 bytes, finished with a mixing step so both
+     * halves are usable as independent hashes (double hashing).
+     */
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
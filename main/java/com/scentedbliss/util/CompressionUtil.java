@@ -0,0 +1,98 @@
+package com.scentedbliss.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * @author 23049172 Sabin Devkota
+ */
+
+/**
+ * Utility class for gzip response compression.
+ * Provides Accept-Encoding negotiation, a check for compressible content types and a
+ * small pool of Deflater instances, so compressing a response does not allocate
+ * (and later finalize) the native zlib state of a new Deflater every time.
+ */
+public class CompressionUtil {
+
+    private static final int COMPRESSION_LEVEL = 6; // zlib default, a good speed/size balance for HTML
+    private static final BlockingQueue<Deflater> DEFLATER_POOL =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 2);
+
+    /**
+     * Checks whether the client accepts a gzip-encoded response.
+     *
+     * @param request the HttpServletRequest carrying the Accept-Encoding header
+     * @return true if gzip is listed and not refused with q=0
+     */
+    public static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                return parts.length < 2 || !isZeroQuality(parts[1]);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a content type is text-like and worth compressing.
+     *
+     * @param contentType the Content-Type of the response, may include a charset
+     * @return true for HTML, CSS, JavaScript, JSON, XML, SVG and plain text
+     */
+    public static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase();
+        return type.startsWith("text/")
+                || type.startsWith("application/json")
+                || type.startsWith("application/javascript")
+                || type.startsWith("application/xml")
+                || type.startsWith("image/svg+xml");
+    }
+
+    /**
+     * Takes a Deflater for raw (headerless) deflate output from the pool, or creates one.
+     * The gzip header and trailer are written by the caller.
+     *
+     * @return a reset Deflater
+     */
+    public static Deflater borrowDeflater() {
+        Deflater deflater = DEFLATER_POOL.poll();
+        return deflater != null ? deflater : new Deflater(COMPRESSION_LEVEL, true);
+    }
+
+    /**
+     * Returns a Deflater to the pool. If the pool is full, the Deflater is released.
+     *
+     * @param deflater the Deflater obtained from {@link #borrowDeflater()}
+     */
+    public static void returnDeflater(Deflater deflater) {
+        deflater.reset();
+        if (!DEFLATER_POOL.offer(deflater)) {
+            deflater.end(); // Free the native memory right away
+        }
+    }
+
+    private static boolean isZeroQuality(String parameter) {
+        String param = parameter.trim();
+        if (!param.startsWith("q=")) {
+            return false;
+        }
+        try {
+            return Double.parseDouble(param.substring(2)) == 0.0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
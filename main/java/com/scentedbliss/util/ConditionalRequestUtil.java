@@ -0,0 +1,64 @@
+package com.scentedbliss.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * @author 23049172 Sabin Devkota
+ */
+
+/**
+ * Utility class for conditional GET requests.
+ * Compares the If-None-Match and If-Modified-Since headers of a request with the validators
+ * of the current representation, so callers can answer 304 Not Modified without a body.
+ */
+public class ConditionalRequestUtil {
+
+    /**
+     * Checks whether the client's copy is still current. If-None-Match is checked first and
+     * If-Modified-Since is only used without it, as required by RFC 9110.
+     *
+     * @param request      the HttpServletRequest carrying the conditional headers
+     * @param etag         the quoted strong entity tag of the current representation
+     * @param lastModified the last modification time in milliseconds, or -1 if unknown
+     * @return true if a 304 response can be sent
+     */
+    public static boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            if ("*".equals(ifNoneMatch.trim())) {
+                return true;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2); // Weak comparison is allowed for If-None-Match
+                }
+                if (candidate.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (lastModified < 0) {
+            return false;
+        }
+        try {
+            long ifModifiedSince = request.getDateHeader("If-Modified-Since");
+            // HTTP dates have a resolution of one second
+            return ifModifiedSince != -1 && lastModified / 1000 <= ifModifiedSince / 1000;
+        } catch (IllegalArgumentException e) {
+            return false; // Unparseable date, send the full response
+        }
+    }
+
+    /**
+     * Derives the entity tag of the gzip-encoded representation from that of the identity
+     * representation. Each encoding is a different representation and needs its own strong ETag.
+     *
+     * @param etag the quoted entity tag of the uncompressed representation
+     * @return the quoted entity tag for the gzip representation
+     */
+    public static String gzipEtag(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+}
@@ -1,9 +1,27 @@
 package com.scentedbliss.util;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
 import jakarta.servlet.http.Part;
 
+import com.scentedbliss.service.ImageVariantService;
+
 /**
  * @author 23049172 Sabin Devkota
  */
@@ -12,11 +30,28 @@ import jakarta.servlet.http.Part;
  * Utility class for handling image file uploads.
  * <p>
  * This class provides methods for extracting the file name from a {@link Part}
- * object and uploading the image file to a specified directory on the server.
+ * object and storing uploaded images under content-hashed names, so identical
+ * uploads are kept only once.
  * </p>
  */
 public class ImageUtil {
 
+    private static final int HASH_LENGTH = 32; // Hex characters of the SHA-256 hash used as file name
+    private static final String INDEX_FILE = "/resources/images/.image-index.properties"; // Image URL -> reference count, next to the uploads
+    private static final String LEGACY_INDEX_FILE = "/WEB-INF/image-index.properties"; // Read once if INDEX_FILE does not exist yet
+
+    private static final int SIGNATURE_LENGTH = 12; // Bytes needed to recognize every supported image type
+    private static final int TRANSFER_BUFFER_SIZE = 64 * 1024; // Chunk size for copying uploads to disk
+
+    // One reusable direct buffer per request thread, so uploads do not allocate per chunk
+    private static final ThreadLocal<ByteBuffer> TRANSFER_BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(TRANSFER_BUFFER_SIZE));
+
+    private static Map<String, Integer> refCounts; // Authoritative copy, loaded on first use, guarded by ImageUtil.class
+    private static long indexVersion; // Incremented on every change of refCounts, guarded by ImageUtil.class
+    private static final Object INDEX_WRITE_LOCK = new Object(); // Serializes writes of the index file
+    private static long writtenVersion; // Version of the index file on disk, guarded by INDEX_WRITE_LOCK
+
     /**
      * Extracts the file name from the given {@link Part} object based on the
      * "content-disposition" header.
@@ -52,23 +87,28 @@ public class ImageUtil {
     }
 
     /**
-     * Uploads the image file from the given {@link Part} object to a specified
-     * directory on the server.
+     * Stores the image file from the given {@link Part} object under a name derived
+     * from its content.
      * 
      * <p>
-     * This method ensures that the directory where the file will be saved exists
-     * and creates it if necessary. It writes the uploaded file to the server's file
-     * system. Returns {@code true} if the upload is successful, and {@code false}
-     * otherwise.
+     * The upload is streamed through a fixed-size direct buffer into a temporary file
+     * in the target directory while its SHA-256 hash is computed. The first chunk must
+     * carry a JPEG, PNG, GIF or WebP signature, otherwise the upload is rejected before
+     * anything is written. The file is then renamed to the first 32 hex characters
+     * of the hash plus the extension of the detected type, so identical uploads share one file and a
+     * stored file never changes under its URL. If a file with that hash already exists,
+     * the temporary copy is discarded. Every stored URL has a reference count in a small
+     * index, which {@link #releaseImage(String, String)} decrements. The index is kept in
+     * memory and written to disk after each change, outside the lock guarding it.
      * </p>
      * 
      * @param part the {@link Part} object representing the uploaded image file.
      * @param rootPath the root path of the servlet context.
      * @param saveFolder the folder where the image should be saved (relative to resources/images).
-     * @return {@code true} if the file was successfully uploaded, {@code false}
-     *         otherwise.
+     * @return the URL of the stored image relative to the context root, or
+     *         {@code null} if the upload failed.
      */
-    public boolean uploadImage(Part part, String rootPath, String saveFolder) {
+    public String uploadImage(Part part, String rootPath, String saveFolder) {
         String savePath = rootPath + "/resources/images" + saveFolder;
         File fileSaveDir = new File(savePath);
 
@@ -76,20 +116,252 @@ public class ImageUtil {
         if (!fileSaveDir.exists()) {
             if (!fileSaveDir.mkdirs()) {
                 System.out.println("ImageUtil: Failed to create directory: " + savePath);
-                return false;
+                return null;
             }
         }
-        try {
-            String imageName = getImageNameFromPart(part);
-            String filePath = savePath + File.separator + imageName;
-            System.out.println("ImageUtil: Saving image to: " + filePath);
-            part.write(filePath);
-            return true;
-        } catch (IOException e) {
-            System.out.println("ImageUtil: IOException during image upload: " + e.getMessage());
+        Path tempFile = null;
+        ByteBuffer buffer = TRANSFER_BUFFER.get();
+        buffer.clear();
+        try (ReadableByteChannel in = Channels.newChannel(part.getInputStream())) {
+            // Read the first chunk and check the file signature before anything is written
+            while (buffer.position() < SIGNATURE_LENGTH && in.read(buffer) != -1) {
+                // Keep reading until the signature is complete or the upload ends
+            }
+            buffer.flip();
+            String extension = detectImageExtension(buffer);
+            if (extension == null) {
+                System.out.println("ImageUtil: Rejected upload " + getImageNameFromPart(part) + ", not a JPEG, PNG, GIF or WebP image");
+                return null;
+            }
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            tempFile = Files.createTempFile(fileSaveDir.toPath(), "upload-", ".tmp");
+            try (FileChannel out = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                while (true) {
+                    digest.update(buffer.duplicate()); // Hash while writing, one pass over the data
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    buffer.clear();
+                    if (in.read(buffer) == -1) {
+                        break; // End of the upload
+                    }
+                    buffer.flip();
+                }
+            }
+            String imageName = toHex(digest.digest(), HASH_LENGTH) + extension;
+            String imageUrl = "/resources/images" + saveFolder + "/" + imageName;
+            Path target = fileSaveDir.toPath().resolve(imageName);
+
+            Properties snapshot;
+            long version;
+            synchronized (ImageUtil.class) {
+                if (Files.exists(target)) {
+                    System.out.println("ImageUtil: Reusing stored image " + imageUrl);
+                } else {
+                    Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+                    System.out.println("ImageUtil: Saved image to: " + target);
+                    // Downscaled copies are made in the background; pages use the original until then
+                    ImageVariantService.getInstance().submit(imageUrl);
+                }
+                getIndex(rootPath).merge(imageUrl, 1, Integer::sum);
+                snapshot = snapshotIndex();
+                version = ++indexVersion;
+            }
+            saveIndex(rootPath, snapshot, version);
+            return imageUrl;
+        } catch (IOException | NoSuchAlgorithmException e) {
+            System.out.println("ImageUtil: Exception during image upload: " + e.getMessage());
             e.printStackTrace();
+            return null;
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile); // Left over if the content was already stored
+                } catch (IOException e) {
+                    System.out.println("ImageUtil: Could not delete temporary file " + tempFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * Releases one reference to a stored image. When no product or user refers to the
+     * image any more, the file and its downscaled variants are deleted. Images that are
+     * not in the index (system images and uploads made before content-addressed storage)
+     * are never deleted.
+     * 
+     * @param rootPath the root path of the servlet context.
+     * @param imageUrl the URL returned by {@link #uploadImage(Part, String, String)}.
+     */
+    public void releaseImage(String rootPath, String imageUrl) {
+        if (imageUrl == null) {
+            return;
+        }
+        Properties snapshot;
+        long version;
+        synchronized (ImageUtil.class) {
+            Map<String, Integer> index = getIndex(rootPath);
+            Integer count = index.get(imageUrl);
+            if (count == null) {
+                return;
+            }
+            if (count > 1) {
+                index.put(imageUrl, count - 1);
+            } else {
+                index.remove(imageUrl);
+                try {
+                    Files.deleteIfExists(new File(rootPath, imageUrl).toPath());
+                    ImageVariantService.getInstance().removeVariants(imageUrl);
+                    System.out.println("ImageUtil: Deleted unreferenced image " + imageUrl);
+                } catch (IOException e) {
+                    System.out.println("ImageUtil: Could not delete " + imageUrl + ": " + e.getMessage());
+                }
+            }
+            snapshot = snapshotIndex();
+            version = ++indexVersion;
+        }
+        saveIndex(rootPath, snapshot, version);
+    }
+
+    /**
+     * Checks whether a path points to a content-addressed upload (or one of its
+     * variants). Such files never change, so they may be cached permanently.
+     * 
+     * @param path the path relative to the context root.
+     * @return {@code true} if the file name is a content hash.
+     */
+    public static boolean isContentAddressed(String path) {
+        if (!path.startsWith("/resources/images/")) {
+            return false;
+        }
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        if (name.length() < HASH_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            if (Character.digit(name.charAt(i), 16) < 0 || Character.isUpperCase(name.charAt(i))) {
+                return false;
+            }
+        }
+        char next = name.length() > HASH_LENGTH ? name.charAt(HASH_LENGTH) : '.';
+        return next == '.' || next == '-'; // Original or variant suffix
+    }
+
+    /**
+     * Returns the reference count index, reading it from disk only on first use. The index
+     * lives next to the uploads it counts, so both are kept or lost together; an index left
+     * in WEB-INF by an earlier version is read if there is none there yet. Callers hold
+     * ImageUtil.class.
+     */
+    private static Map<String, Integer> getIndex(String rootPath) {
+        if (refCounts == null) {
+            Map<String, Integer> index = new HashMap<>();
+            File indexFile = new File(rootPath, INDEX_FILE);
+            if (!indexFile.isFile()) {
+                indexFile = new File(rootPath, LEGACY_INDEX_FILE);
+            }
+            if (indexFile.isFile()) {
+                Properties properties = new Properties();
+                try (InputStream in = new FileInputStream(indexFile)) {
+                    properties.load(in);
+                    for (String url : properties.stringPropertyNames()) {
+                        index.put(url, Integer.parseInt(properties.getProperty(url)));
+                    }
+                } catch (IOException | NumberFormatException e) {
+                    System.out.println("ImageUtil: Could not read image index: " + e.getMessage());
+                }
+            }
+            refCounts = index;
+        }
+        return refCounts;
+    }
+
+    /**
+     * Copies the reference counts for writing. Callers hold ImageUtil.class.
+     */
+    private static Properties snapshotIndex() {
+        Properties properties = new Properties();
+        for (Map.Entry<String, Integer> entry : refCounts.entrySet()) {
+            properties.setProperty(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+        return properties;
+    }
+
+    /**
+     * Writes a snapshot of the index to a temporary file and moves it over the index in one
+     * step, so a crash never leaves a truncated index. A snapshot older than the one already
+     * on disk is skipped, as uploads and releases write their snapshots concurrently.
+     */
+    private static void saveIndex(String rootPath, Properties snapshot, long version) {
+        synchronized (INDEX_WRITE_LOCK) {
+            if (version <= writtenVersion) {
+                return; // A newer snapshot has been written meanwhile
+            }
+            Path indexFile = new File(rootPath, INDEX_FILE).toPath();
+            Path tempFile = null;
+            try {
+                Files.createDirectories(indexFile.getParent());
+                tempFile = Files.createTempFile(indexFile.getParent(), ".image-index-", ".tmp");
+                try (OutputStream out = Files.newOutputStream(tempFile)) {
+                    snapshot.store(out, "Reference counts of content-addressed uploads");
+                }
+                Files.move(tempFile, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                writtenVersion = version;
+            } catch (IOException e) {
+                System.out.println("ImageUtil: Could not write image index: " + e.getMessage());
+            } finally {
+                if (tempFile != null) {
+                    try {
+                        Files.deleteIfExists(tempFile); // Only left over if the write or move failed
+                    } catch (IOException e) {
+                        System.out.println("ImageUtil: Could not delete temporary file " + tempFile);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Identifies the image type from the signature at the start of the buffer.
+     *
+     * @param buffer the first bytes of the upload, positioned at the start
+     * @return the file extension for the type, or {@code null} if it is not a supported image
+     */
+    private static String detectImageExtension(ByteBuffer buffer) {
+        if (startsWith(buffer, 0, 0xFF, 0xD8, 0xFF)) {
+            return ".jpg";
+        }
+        if (startsWith(buffer, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return ".png";
+        }
+        if (startsWith(buffer, 0, 'G', 'I', 'F', '8') && (startsWith(buffer, 4, '7', 'a') || startsWith(buffer, 4, '9', 'a'))) {
+            return ".gif";
+        }
+        if (startsWith(buffer, 0, 'R', 'I', 'F', 'F') && startsWith(buffer, 8, 'W', 'E', 'B', 'P')) {
+            return ".webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int offset, int... signature) {
+        if (buffer.limit() < offset + signature.length) {
             return false;
         }
+        for (int i = 0; i < signature.length; i++) {
+            if ((buffer.get(offset + i) & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String toHex(byte[] bytes, int length) {
+        StringBuilder hex = new StringBuilder(length);
+        for (int i = 0; hex.length() < length; i++) {
+            hex.append(Character.forDigit((bytes[i] >> 4) & 0xF, 16)).append(Character.forDigit(bytes[i] & 0xF, 16));
+        }
+        return hex.toString();
     }
 
     /**
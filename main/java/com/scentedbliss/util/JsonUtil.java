@@ -0,0 +1,90 @@
+package com.scentedbliss.util;
+
+import java.io.IOException;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * @author 23049172 Sabin Devkota
+ */
+
+/**
+ * Utility class for writing small JSON responses without a JSON library.
+ * Provides string escaping and a helper to send a JSON body with a status code.
+ */
+public class JsonUtil {
+
+    /**
+     * Returns the given value as a quoted JSON string, escaping quotes, backslashes
+     * and control characters. A null value is returned as the JSON literal null.
+     *
+     * @param value the string to quote
+     * @return the quoted JSON string
+     */
+    public static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': json.append("\\\""); break;
+                case '\\': json.append("\\\\"); break;
+                case '\n': json.append("\\n"); break;
+                case '\r': json.append("\\r"); break;
+                case '\t': json.append("\\t"); break;
+                case '<': json.append("\\u003c"); break; // Safe to embed in HTML
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    /**
+     * Writes a JSON body to the response with the given status code. The response is
+     * marked as not cacheable.
+     *
+     * @param response the HttpServletResponse to write to
+     * @param status   the HTTP status code
+     * @param json     the JSON body
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(HttpServletResponse response, int status, String json) throws IOException {
+        write(response, status, json, "no-store");
+    }
+
+    /**
+     * Writes a JSON body to the response with the given status code and Cache-Control header.
+     *
+     * @param response     the HttpServletResponse to write to
+     * @param status       the HTTP status code
+     * @param json         the JSON body
+     * @param cacheControl the Cache-Control header value
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(HttpServletResponse response, int status, String json, String cacheControl) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", cacheControl);
+        response.getWriter().write(json);
+    }
+
+    /**
+     * Writes a JSON error body of the form {"ok":false,"error":"..."}.
+     *
+     * @param response the HttpServletResponse to write to
+     * @param status   the HTTP status code
+     * @param message  the error message
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        write(response, status, "{\"ok\":false,\"error\":" + quote(message) + "}");
+    }
+}
@@ -0,0 +1,213 @@
+package com.scentedbliss.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @author 23049172 Sabin Devkota
+ */
+
+/**
+ * An immutable compressed prefix trie (radix tree) that answers "the best k values whose key
+ * starts with this prefix". Chains of single-child nodes are merged into one edge labelled
+ * with a string, so a lookup visits at most one node per branching point of the keys.
+ * <p>
+ * The trie is built once with a {@link Builder}; every node then stores the top values of its
+ * whole subtree, ranked by the rank given when they were added, so a lookup never walks the
+ * subtree: it costs one pass over the prefix no matter how many keys match. Up to the
+ * maxResults given to {@link Builder#build(int)} values are kept per node. The same value may
+ * be added under several keys; it is listed once. Being immutable, a trie can be shared
+ * between threads without locking; to change it, build a new one and replace the reference.
+ *
+ * @param <T> the type of the values
+ */
+public class RadixTrie<T> {
+
+    private final Node<T> root;
+    private final int maxResults; // Values kept per node
+
+    private RadixTrie(Node<T> root, int maxResults) {
+        this.root = root;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Returns the best values whose key starts with the prefix, highest rank first.
+     *
+     * @param prefix the prefix, compared exactly (normalize it the same way as the keys)
+     * @param limit  the maximum number of values, at most the trie's maxResults
+     * @return the matching values; empty if there are none
+     */
+    public List<T> top(String prefix, int limit) {
+        Node<T> node = root;
+        int position = 0;
+        while (position < prefix.length()) {
+            Node<T> child = node.child(prefix.charAt(position));
+            if (child == null) {
+                return Collections.emptyList();
+            }
+            String label = child.label;
+            int length = Math.min(label.length(), prefix.length() - position);
+            if (!prefix.regionMatches(position, label, 0, length)) {
+                return Collections.emptyList(); // Prefix leaves the edge before its end
+            }
+            position += length;
+            node = child; // The prefix ends on or inside this edge, or continues below it
+        }
+        return node.top.subList(0, Math.min(Math.min(limit, maxResults), node.top.size()));
+    }
+
+    /**
+     * Collects keys and values and builds the trie. Not thread-safe.
+     *
+     * @param <T> the type of the values
+     */
+    public static class Builder<T> {
+        private final BuildNode<T> root = new BuildNode<>("");
+        private int sequence; // Insertion order, breaks ties between equal ranks
+
+        /**
+         * Adds a value under a key.
+         *
+         * @param key   the key, e.g. a lower-case name
+         * @param value the value returned for prefixes of the key
+         * @param rank  the rank of the value; higher ranks are returned first
+         * @return this builder
+         */
+        public Builder<T> add(String key, T value, long rank) {
+            BuildNode<T> node = root;
+            String rest = key;
+            while (!rest.isEmpty()) {
+                BuildNode<T> child = node.children.get(rest.charAt(0));
+                if (child == null) {
+                    child = new BuildNode<>(rest); // New edge holding the whole remainder
+                    node.children.put(rest.charAt(0), child);
+                    node = child;
+                    break;
+                }
+                int common = commonPrefixLength(child.label, rest);
+                if (common < child.label.length()) {
+                    // Split the edge: the shared part becomes a new node above the old child
+                    BuildNode<T> split = new BuildNode<>(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    split.children.put(child.label.charAt(0), child);
+                    node.children.put(split.label.charAt(0), split);
+                    child = split;
+                }
+                node = child;
+                rest = rest.substring(common);
+            }
+            node.entries.add(new Entry<>(value, rank, sequence++));
+            return this;
+        }
+
+        /**
+         * Builds the immutable trie.
+         *
+         * @param maxResults the number of top values kept per node, i.e. the largest useful limit
+         * @return the trie
+         */
+        public RadixTrie<T> build(int maxResults) {
+            return new RadixTrie<>(freeze(root, maxResults), maxResults);
+        }
+
+        /**
+         * Converts a subtree bottom-up, merging the top values of the children into each node.
+         */
+        private static <T> Node<T> freeze(BuildNode<T> node, int maxResults) {
+            @SuppressWarnings("unchecked")
+            Node<T>[] children = (Node<T>[]) new Node<?>[node.children.size()];
+            char[] firstChars = new char[children.length];
+            List<Entry<T>> candidates = new ArrayList<>(node.entries);
+            int i = 0;
+            for (Map.Entry<Character, BuildNode<T>> child : node.children.entrySet()) { // Sorted by first character
+                firstChars[i] = child.getKey();
+                children[i] = freeze(child.getValue(), maxResults);
+                candidates.addAll(children[i].topEntries);
+                i++;
+            }
+            candidates.sort(Entry.ORDER);
+            List<Entry<T>> topEntries = new ArrayList<>(maxResults);
+            List<T> top = new ArrayList<>(maxResults);
+            for (Entry<T> candidate : candidates) {
+                if (top.size() == maxResults) {
+                    break;
+                }
+                if (!top.contains(candidate.value)) { // A value added under several keys is listed once
+                    topEntries.add(candidate);
+                    top.add(candidate.value);
+                }
+            }
+            return new Node<>(node.label, firstChars, children, Collections.unmodifiableList(top), topEntries);
+        }
+
+        private static int commonPrefixLength(String a, String b) {
+            int length = Math.min(a.length(), b.length());
+            int i = 0;
+            while (i < length && a.charAt(i) == b.charAt(i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+
+    /**
+     * A node of the finished trie.
+     */
+    private static final class Node<T> {
+        private final String label; // Edge label from the parent
+        private final char[] firstChars; // First character of each child's label, sorted
+        private final Node<T>[] children; // Children in the order of firstChars
+        private final List<T> top; // Best values of the subtree
+        private final List<Entry<T>> topEntries; // The same values with their ranks, used while building
+
+        private Node(String label, char[] firstChars, Node<T>[] children, List<T> top, List<Entry<T>> topEntries) {
+            this.label = label;
+            this.firstChars = firstChars;
+            this.children = children;
+            this.top = top;
+            this.topEntries = topEntries;
+        }
+
+        private Node<T> child(char c) {
+            int index = Arrays.binarySearch(firstChars, c);
+            return index >= 0 ? children[index] : null;
+        }
+    }
+
+    /**
+     * A node while the trie is being built.
+     */
+    private static final class BuildNode<T> {
+        private String label; // Edge label from the parent, shortened when the edge is split
+        private final TreeMap<Character, BuildNode<T>> children = new TreeMap<>();
+        private final List<Entry<T>> entries = new ArrayList<>(); // Values whose key ends here
+
+        private BuildNode(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * A value with its rank.
+     */
+    private static final class Entry<T> {
+        private static final Comparator<Entry<?>> ORDER = (a, b) -> a.rank != b.rank
+                ? Long.compare(b.rank, a.rank) : Integer.compare(a.sequence, b.sequence);
+
+        private final T value;
+        private final long rank;
+        private final int sequence;
+
+        private Entry(T value, long rank, int sequence) {
+            this.value = value;
+            this.rank = rank;
+            this.sequence = sequence;
+        }
+    }
+}
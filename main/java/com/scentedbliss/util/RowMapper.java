@@ -0,0 +1,201 @@
+package com.scentedbliss.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * @author 23049172 Sabin Devkota
+ */
+
+/**
+ * Maps ResultSet rows to model objects through their setters, e.g. column "productName"
+ * to setProductName(String). Column labels are matched to properties ignoring case;
+ * columns without a matching setter are skipped.
+ *
+ * Each mapper serves one query (one list of columns). The first time it maps a result it
+ * resolves every column to its index and builds a MethodHandle that reads the column with
+ * the right ResultSet getter and passes it to the setter. Later executions of the same query
+ * reuse those handles, so no column is looked up by name again. Use mapAll for queries
+ * returning several rows: it checks the result's columns once, where mapRow checks them for
+ * every row it maps.
+ *
+ * Supported property types are int, long, double, boolean, String and LocalDate (read from
+ * the column's text, like the services did before).
+ */
+public class RowMapper<T> {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType COLUMN_TYPE = MethodType.methodType(void.class, Object.class, ResultSet.class);
+
+    private final Class<T> type; // The model class
+    private final MethodHandle constructor; // () -> Object, the no-argument constructor
+    private final Map<String, Method> setters; // Lower-case property name -> setter
+    private volatile Binding binding; // Column handles for the query, null until the first row
+
+    private RowMapper(Class<T> type) {
+        this.type = type;
+        try {
+            this.constructor = LOOKUP.findConstructor(type, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(type.getName() + " needs a public no-argument constructor", e);
+        }
+        this.setters = new HashMap<>();
+        for (Method method : type.getMethods()) {
+            if (method.getName().startsWith("set") && method.getName().length() > 3
+                    && method.getParameterCount() == 1 && !Modifier.isStatic(method.getModifiers())
+                    && getterFor(method.getParameterTypes()[0]) != null) {
+                setters.put(method.getName().substring(3).toLowerCase(Locale.ROOT), method);
+            }
+        }
+    }
+
+    /**
+     * Creates a mapper for one query returning rows of the given model class.
+     *
+     * @param type the model class, with a public no-argument constructor and setters
+     * @return a new RowMapper
+     */
+    public static <T> RowMapper<T> of(Class<T> type) {
+        return new RowMapper<>(type);
+    }
+
+    /**
+     * Maps the current row.
+     *
+     * @param rs a ResultSet positioned on a row
+     * @return a new model object filled from the row
+     * @throws SQLException if a column cannot be read
+     */
+    public T mapRow(ResultSet rs) throws SQLException {
+        return map(rs, bind(rs));
+    }
+
+    /**
+     * Maps all remaining rows.
+     *
+     * @param rs a ResultSet before its first row
+     * @return the mapped objects in row order
+     * @throws SQLException if a column cannot be read
+     */
+    public List<T> mapAll(ResultSet rs) throws SQLException {
+        MethodHandle[] handles = bind(rs);
+        List<T> rows = new ArrayList<>();
+        while (rs.next()) {
+            rows.add(map(rs, handles));
+        }
+        return rows;
+    }
+
+    private T map(ResultSet rs, MethodHandle[] handles) throws SQLException {
+        try {
+            Object row = (Object) constructor.invokeExact();
+            for (MethodHandle handle : handles) {
+                handle.invokeExact(row, rs);
+            }
+            return type.cast(row);
+        } catch (SQLException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new SQLException("Could not map row to " + type.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Returns the column handles, building them on first use. They are rebuilt if the query
+     * returns different column labels, e.g. after a schema change with SELECT *, so a column
+     * that was renamed or moved is never read into the wrong property.
+     */
+    private MethodHandle[] bind(ResultSet rs) throws SQLException {
+        Binding current = binding;
+        ResultSetMetaData metaData = rs.getMetaData();
+        String[] labels = new String[metaData.getColumnCount()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = metaData.getColumnLabel(i + 1);
+        }
+        if (current != null && Arrays.equals(current.labels, labels)) {
+            return current.handles;
+        }
+        List<MethodHandle> bound = new ArrayList<>();
+        for (int i = 0; i < labels.length; i++) {
+            Method setter = setters.get(labels[i].toLowerCase(Locale.ROOT));
+            if (setter != null) {
+                bound.add(columnHandle(setter, i + 1));
+            }
+        }
+        current = new Binding(labels, bound.toArray(new MethodHandle[0]));
+        binding = current;
+        return current.handles;
+    }
+
+    /**
+     * Builds (bean, rs) -> bean.setX(rs.getY(columnIndex)).
+     */
+    private static MethodHandle columnHandle(Method setter, int columnIndex) throws SQLException {
+        try {
+            MethodHandle set = LOOKUP.unreflect(setter); // (Model, P) -> void
+            MethodHandle get = MethodHandles.insertArguments(getterFor(setter.getParameterTypes()[0]), 1, columnIndex);
+            return MethodHandles.filterArguments(set, 1, get).asType(COLUMN_TYPE); // (Model, ResultSet) -> void
+        } catch (IllegalAccessException e) {
+            throw new SQLException("Cannot access " + setter, e);
+        }
+    }
+
+    /**
+     * Returns (ResultSet, int) -> P reading a column as the given property type, or null if
+     * the type is not supported.
+     */
+    private static MethodHandle getterFor(Class<?> propertyType) {
+        try {
+            if (propertyType == int.class) {
+                return LOOKUP.findVirtual(ResultSet.class, "getInt", MethodType.methodType(int.class, int.class));
+            } else if (propertyType == long.class) {
+                return LOOKUP.findVirtual(ResultSet.class, "getLong", MethodType.methodType(long.class, int.class));
+            } else if (propertyType == double.class) {
+                return LOOKUP.findVirtual(ResultSet.class, "getDouble", MethodType.methodType(double.class, int.class));
+            } else if (propertyType == boolean.class) {
+                return LOOKUP.findVirtual(ResultSet.class, "getBoolean", MethodType.methodType(boolean.class, int.class));
+            } else if (propertyType == String.class) {
+                return LOOKUP.findVirtual(ResultSet.class, "getString", MethodType.methodType(String.class, int.class));
+            } else if (propertyType == LocalDate.class) {
+                return LOOKUP.findStatic(RowMapper.class, "getLocalDate",
+                        MethodType.methodType(LocalDate.class, ResultSet.class, int.class));
+            }
+            return null;
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The column handles built for one query, with the column labels they were built for.
+     */
+    private static final class Binding {
+        private final String[] labels; // Column labels in column order
+        private final MethodHandle[] handles; // (Object, ResultSet) -> void per mapped column
+
+        private Binding(String[] labels, MethodHandle[] handles) {
+            this.labels = labels;
+            this.handles = handles;
+        }
+    }
+
+    @SuppressWarnings("unused") // Called through a MethodHandle
+    private static LocalDate getLocalDate(ResultSet rs, int columnIndex) throws SQLException {
+        String value = rs.getString(columnIndex);
+        return value != null ? LocalDate.parse(value) : null;
+    }
+}
@@ -0,0 +1,262 @@
+package com.scentedbliss.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author 23049172 Sabin Devkota
+ */
+
+/**
+ * An immutable index for typo-tolerant search over short texts such as product names.
+ * <p>
+ * Every word is split into trigrams (three-letter pieces, padded at the word edges, so
+ * "dior" gives "  d", " di", "dio", "ior", "or "). A query first collects the texts sharing
+ * enough trigrams with it; this is cheap and tolerant of typos, because a misspelled word
+ * still shares most of its trigrams with the right one. At most {@link #MAX_CANDIDATES} of
+ * them, those sharing the most trigrams, are then verified: every query word must be within a
+ * small edit distance (1 for words of up to 5 letters, 2 for longer ones, exact below 3) of
+ * some word of the text, counting a swap of two neighbouring letters as one edit. Results are
+ * ranked by total distance, then by the rank given when the text was added.
+ * <p>
+ * Letters and digits form words; everything else separates them, and case is ignored.
+ * Being immutable, an index can be shared between threads without locking.
+ *
+ * @param <T> the type of the values
+ */
+public class TrigramIndex<T> {
+
+    public static final int MAX_CANDIDATES = 100; // Texts verified per query, bounds the cost of a search
+
+    private final Map<String, int[]> postings; // Trigram -> ids of the texts containing it, ascending
+    private final List<T> values; // Value of each text, by id
+    private final String[][] words; // Words of each text, by id
+    private final long[] ranks; // Rank of each text, by id
+
+    private TrigramIndex(Map<String, int[]> postings, List<T> values, String[][] words, long[] ranks) {
+        this.postings = postings;
+        this.values = values;
+        this.words = words;
+        this.ranks = ranks;
+    }
+
+    /**
+     * Finds the values whose text matches the query despite small typos.
+     *
+     * @param query the search text
+     * @param limit the maximum number of values
+     * @return the matching values, closest matches first; empty if none
+     */
+    public List<T> search(String query, int limit) {
+        String[] queryWords = splitWords(query);
+        Set<String> queryTrigrams = new LinkedHashSet<>();
+        for (String word : queryWords) {
+            addTrigrams(word, queryTrigrams);
+        }
+        if (queryTrigrams.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // Count the shared trigrams of every text
+        int[] shared = new int[values.size()];
+        for (String trigram : queryTrigrams) {
+            int[] ids = postings.get(trigram);
+            if (ids != null) {
+                for (int id : ids) {
+                    shared[id]++;
+                }
+            }
+        }
+        int minShared = Math.max(1, queryTrigrams.size() / 3); // Two edits change at most six trigrams of a word
+        List<Integer> candidates = new ArrayList<>();
+        for (int id = 0; id < shared.length; id++) {
+            if (shared[id] >= minShared) {
+                candidates.add(id);
+            }
+        }
+        candidates.sort((a, b) -> Integer.compare(shared[b], shared[a]));
+        if (candidates.size() > MAX_CANDIDATES) {
+            candidates = candidates.subList(0, MAX_CANDIDATES);
+        }
+
+        // Verify with the edit distance and rank
+        List<long[]> matches = new ArrayList<>(); // {id, distance}
+        for (int id : candidates) {
+            int distance = distance(queryWords, words[id]);
+            if (distance >= 0) {
+                matches.add(new long[] {id, distance});
+            }
+        }
+        matches.sort((a, b) -> a[1] != b[1] ? Long.compare(a[1], b[1])
+                : ranks[(int) a[0]] != ranks[(int) b[0]] ? Long.compare(ranks[(int) b[0]], ranks[(int) a[0]])
+                : Integer.compare(shared[(int) b[0]], shared[(int) a[0]]));
+        List<T> result = new ArrayList<>(Math.min(limit, matches.size()));
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            result.add(values.get((int) matches.get(i)[0]));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the summed distance of each query word to its closest text word, or -1 if a
+     * query word has no text word within its allowed number of edits.
+     */
+    private static int distance(String[] queryWords, String[] textWords) {
+        int total = 0;
+        for (String queryWord : queryWords) {
+            int maxEdits = queryWord.length() < 3 ? 0 : queryWord.length() <= 5 ? 1 : 2;
+            int best = maxEdits + 1;
+            for (String textWord : textWords) {
+                best = Math.min(best, boundedDistance(queryWord, textWord, maxEdits));
+                if (best == 0) {
+                    break;
+                }
+            }
+            if (best > maxEdits) {
+                return -1;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    /**
+     * Computes the optimal string alignment distance (Levenshtein plus swaps of neighbouring
+     * letters) of two words, giving up as soon as it must exceed maxEdits.
+     *
+     * @return the distance, or maxEdits + 1 if it is larger than maxEdits
+     */
+    static int boundedDistance(String a, String b, int maxEdits) {
+        if (Math.abs(a.length() - b.length()) > maxEdits) {
+            return maxEdits + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1); // Swapped neighbours
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1; // Every path is already too long
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], maxEdits + 1);
+    }
+
+    /**
+     * Splits text into lower-case words of letters and digits.
+     */
+    private static String[] splitWords(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (word.length() > 0) {
+            words.add(word.toString());
+        }
+        return words.toArray(new String[0]);
+    }
+
+    /**
+     * Adds the trigrams of a word, padded with two spaces in front and one behind.
+     */
+    private static void addTrigrams(String word, Set<String> trigrams) {
+        String padded = "  " + word + " ";
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+    }
+
+    /**
+     * Collects texts and builds the index. Not thread-safe.
+     *
+     * @param <T> the type of the values
+     */
+    public static class Builder<T> {
+        private final Map<String, List<Integer>> postings = new HashMap<>();
+        private final List<T> values = new ArrayList<>();
+        private final List<String[]> words = new ArrayList<>();
+        private final List<Long> ranks = new ArrayList<>();
+
+        /**
+         * Adds a text.
+         *
+         * @param text  the text to search, e.g. a product name and brand
+         * @param value the value returned when the text matches
+         * @param rank  the rank of the value among equally close matches; higher first
+         * @return this builder
+         */
+        public Builder<T> add(String text, T value, long rank) {
+            String[] textWords = splitWords(text);
+            if (textWords.length == 0) {
+                return this;
+            }
+            int id = values.size();
+            values.add(value);
+            words.add(textWords);
+            ranks.add(rank);
+            Set<String> trigrams = new LinkedHashSet<>();
+            for (String word : textWords) {
+                addTrigrams(word, trigrams);
+            }
+            for (String trigram : trigrams) {
+                postings.computeIfAbsent(trigram, key -> new ArrayList<>()).add(id);
+            }
+            return this;
+        }
+
+        /**
+         * Builds the immutable index.
+         *
+         * @return the index
+         */
+        public TrigramIndex<T> build() {
+            Map<String, int[]> frozen = new HashMap<>(postings.size() * 2);
+            for (Map.Entry<String, List<Integer>> posting : postings.entrySet()) {
+                int[] ids = new int[posting.getValue().size()];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = posting.getValue().get(i);
+                }
+                frozen.put(posting.getKey(), ids);
+            }
+            long[] rankArray = new long[ranks.size()];
+            for (int i = 0; i < rankArray.length; i++) {
+                rankArray[i] = ranks.get(i);
+            }
+            return new TrigramIndex<>(frozen, new ArrayList<>(values), words.toArray(new String[0][]), rankArray);
+        }
+    }
+}
@@ -1,19 +1,26 @@
 package com.scentedbliss.util;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.time.LocalDate;
 import java.time.Period;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.regex.Pattern;
-import com.scentedbliss.config.DbConfig;
 import jakarta.servlet.http.Part;
 
 /**
  * @author 23049172 Sabin Devkota
  */
 
+/**
+ * Form field checks used by the registration and profile pages.
+ * The simple formats are checked by hand-written scanners that do not allocate; the email
+ * format uses a Pattern compiled once, instead of compiling the regex on every call.
+ */
 public class ValidationUtil {
 
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[\\w-\\.]+@([\\w-]+\\.)+[\\w-]{2,4}$");
+    private static final String PASSWORD_SYMBOLS = "@$!%*?&"; // Symbols allowed (and one required) in passwords
+    private static final int MIN_PASSWORD_LENGTH = 8;
+
     // 1. Validate if a field is null or empty
     public static boolean isNullOrEmpty(String value) {
         return value == null || value.trim().isEmpty();
@@ -21,16 +28,33 @@ public class ValidationUtil {
 
     // 2. Validate if a string contains only letters
     public static boolean isAlphabetic(String firstName) {
-        return firstName != null && firstName.matches("^[a-zA-Z]+$");
+        if (firstName == null || firstName.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < firstName.length(); i++) {
+            if (!isAsciiLetter(firstName.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
     
     public static boolean isAlphabeticOnly(String lastName) {
-        return lastName != null && lastName.matches("^[a-zA-Z]+$");
+        return isAlphabetic(lastName);
     }
 
     // 3. Validate if a string starts with a letter and is composed of letters and numbers
     public static boolean isAlphanumericStartingWithLetter(String username) {
-        return username != null && username.matches("^[a-zA-Z][a-zA-Z0-9]*$");
+        if (username == null || username.isEmpty() || !isAsciiLetter(username.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < username.length(); i++) {
+            char c = username.charAt(i);
+            if (!isAsciiLetter(c) && !isAsciiDigit(c)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     // 4. Validate if a string is "male" or "female" (case insensitive)
@@ -40,19 +64,43 @@ public class ValidationUtil {
 
     // 5. Validate if a string is a valid email address
     public static boolean isValidEmail(String email) {
-        String emailRegex = "^[\\w-\\.]+@([\\w-]+\\.)+[\\w-]{2,4}$";
-        return email != null && Pattern.matches(emailRegex, email);
+        return email != null && EMAIL_PATTERN.matcher(email).matches();
     }
 
     // 6. Validate if a number is of 10 digits and starts with 98
     public static boolean isValidPhoneNumber(String phoneNumber) {
-        return phoneNumber != null && phoneNumber.matches("^98\\d{8}$");
+        if (phoneNumber == null || phoneNumber.length() != 10 || !phoneNumber.startsWith("98")) {
+            return false;
+        }
+        for (int i = 2; i < phoneNumber.length(); i++) {
+            if (!isAsciiDigit(phoneNumber.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     // 7. Validate if a password is composed of at least 1 capital letter, 1 number, and 1 symbol
     public static boolean isValidPassword(String password) {
-        String passwordRegex = "^(?=.*[A-Z])(?=.*\\d)(?=.*[@$!%*?&])[A-Za-z\\d@$!%*?&]{8,}$";
-        return password != null && password.matches(passwordRegex);
+        if (password == null || password.length() < MIN_PASSWORD_LENGTH) {
+            return false;
+        }
+        boolean hasUpper = false;
+        boolean hasDigit = false;
+        boolean hasSymbol = false;
+        for (int i = 0; i < password.length(); i++) {
+            char c = password.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                hasUpper = true;
+            } else if (isAsciiDigit(c)) {
+                hasDigit = true;
+            } else if (PASSWORD_SYMBOLS.indexOf(c) >= 0) {
+                hasSymbol = true;
+            } else if (c < 'a' || c > 'z') {
+                return false; // Character outside the allowed set
+            }
+        }
+        return hasUpper && hasDigit && hasSymbol;
     }
 
     // 8. Validate if a Part's file extension matches with image extensions (jpg, jpeg, png, gif)
@@ -78,52 +126,41 @@ public class ValidationUtil {
         return Period.between(dob, today).getYears() >= 16;
     }
 
-
-//11. Validate if the Email already exists
-public static boolean isEmailUnique(String email) {
-    try (Connection conn = DbConfig.getDbConnection();
-         PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM users WHERE email = ?")) {
-        
-        stmt.setString(1, email);
-        ResultSet rs = stmt.executeQuery();
-        if (rs.next()) {
-            return rs.getInt(1) == 0; // return true if count is 0 (email not used)
-        }
-    } catch (Exception e) {
-        e.printStackTrace();
+    // 11. Validate the format of all registration text fields in one pass
+    /**
+     * Checks the formats of the registration text fields together, so a form can report
+     * every problem at once. Fields are checked in the order they appear on the form.
+     *
+     * @return The error message per field name in form order; empty if all fields are valid
+     */
+    public static Map<String, String> validateRegistrationFields(String firstName, String lastName, String username,
+            String gender, String email, String phoneNumber, String password, String retypePassword) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        if (!isAlphabetic(firstName))
+            errors.put("firstName", "First name must contain only letters.");
+        if (!isAlphabeticOnly(lastName))
+            errors.put("lastName", "Last name must contain only letters.");
+        if (!isAlphanumericStartingWithLetter(username))
+            errors.put("username", "Username must start with a letter and contain only letters and numbers.");
+        if (!isValidGender(gender))
+            errors.put("gender", "Gender must be 'male' or 'female'.");
+        if (!isValidEmail(email))
+            errors.put("email", "Invalid email format.");
+        if (!isValidPhoneNumber(phoneNumber))
+            errors.put("phoneNumber", "Phone number must be 10 digits and start with 98.");
+        if (!isValidPassword(password))
+            errors.put("password", "Password must be at least 8 characters long, with 1 uppercase letter, 1 number, and 1 symbol.");
+        if (!doPasswordsMatch(password, retypePassword))
+            errors.put("retypePassword", "Passwords do not match.");
+        return errors;
     }
-    return false; // default to false on error
-}
 
-// Check if phone number is already used
-public static boolean isPhoneUnique(String phone) {
-    try (Connection conn = DbConfig.getDbConnection();
-         PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM users WHERE phoneNumber = ?")) {
-        
-        stmt.setString(1, phone);
-        ResultSet rs = stmt.executeQuery();
-        if (rs.next()) {
-            return rs.getInt(1) == 0;
-        }
-    } catch (Exception e) {
-        e.printStackTrace();
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
     }
-    return false;
-}
 
-public static boolean isUsernameUnique(String username) {
-    String query = "SELECT COUNT(*) FROM users WHERE username = ?";
-    try (Connection conn = DbConfig.getDbConnection();
-         PreparedStatement stmt = conn.prepareStatement(query)) {
-        stmt.setString(1, username);
-        try (ResultSet rs = stmt.executeQuery()) {
-            if (rs.next()) {
-                return rs.getInt(1) == 0;  // If count is 0, the username is unique
-            }
-        }
-    } catch (Exception e) {
-        e.printStackTrace();
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
     }
-    return false;  // In case of error or exception, assume username is not unique
-}
+
 }
@@ -0,0 +1,9 @@
+--
+-- Last-change time of each cart, used by AbandonedCartSweeper to find idle carts.
+-- Databases imported from an older dump do not have this column yet.
+--
+
+ALTER TABLE `cart`
+  ADD COLUMN IF NOT EXISTS `updatedAt` datetime NOT NULL DEFAULT current_timestamp() ON UPDATE current_timestamp() AFTER `createdAt`;
+
+CREATE INDEX IF NOT EXISTS `idx_cart_updatedAt` ON `cart` (`updatedAt`, `cartId`);
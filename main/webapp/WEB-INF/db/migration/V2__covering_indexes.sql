@@ -0,0 +1,14 @@
+--
+-- Indexes for the frequent queries in the services that had none.
+-- Lookups by users.username, cart.userId, cart_product (cartId, productId) and
+-- orderitems.orderId are already served by the primary, unique and foreign keys.
+--
+
+-- DashboardService weekly/monthly sales: range on orderDate, totalAmount is read from the index
+CREATE INDEX IF NOT EXISTS `idx_orders_orderDate` ON `orders` (`orderDate`, `totalAmount`);
+
+-- ProductService brand filter sorted by price, and SELECT DISTINCT brand from the index alone
+CREATE INDEX IF NOT EXISTS `idx_products_brand_price` ON `products` (`brand`, `price`);
+
+-- DashboardService customer count is counted from the index; UserService customer list filters on it
+CREATE INDEX IF NOT EXISTS `idx_users_role` ON `users` (`role`);
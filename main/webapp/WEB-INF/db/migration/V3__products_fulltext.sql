@@ -0,0 +1,7 @@
+--
+-- Full-text index for the ProductService search when search.mode is natural or boolean.
+-- Without it those modes fail and ProductService falls back to the LIKE search.
+--
+
+-- ProductService.getFilteredProducts: MATCH(productName, productDescription, brand) AGAINST (...)
+CREATE FULLTEXT INDEX IF NOT EXISTS `idx_products_fulltext` ON `products` (`productName`, `productDescription`, `brand`);
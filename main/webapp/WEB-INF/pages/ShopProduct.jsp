@@ -8,6 +8,7 @@
 <%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
 <%-- Import JSTL core for conditional and looping constructs --%>
 <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core"%>
+<%@ taglib prefix="asset" uri="/WEB-INF/asset.tld" %>
 
 <!DOCTYPE html>
 <html>
@@ -16,9 +17,9 @@
     <meta charset="UTF-8">
     <meta name="viewport" content="width=device-width, initial-scale=1.0">
     <%-- Include CSS stylesheets for header, shop product, and footer styling --%>
-    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}/css/header.css" />
-    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}/css/ShopProduct.css" />
-    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}/css/footer.css" />
+    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}${asset:url('/css/header.css')}" />
+    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}${asset:url('/css/ShopProduct.css')}" />
+    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}${asset:url('/css/footer.css')}" />
     <%-- Include Font Awesome for icons (e.g., search, heart) --%>
     <link rel="stylesheet" href="https://cdnjs.cloudflare.com/ajax/libs/font-awesome/6.0.0/css/all.min.css" />
     <title>Fragrances Store</title>
@@ -37,8 +38,8 @@
                     <p class="banner-subtitle">FRAGRANCE AS RARE AS YOU</p>
                 </div>
                 <div class="banner-images">
-                    <img src="${pageContext.request.contextPath}/resources/images/system/Photo2.jpg" alt="Product 1" />
-                    <img src="${pageContext.request.contextPath}/resources/images/system/Photo1.jpg" alt="Product 2" />
+                    <img src="${pageContext.request.contextPath}${asset:url('/resources/images/system/Photo2.jpg')}" alt="Product 1" />
+                    <img src="${pageContext.request.contextPath}${asset:url('/resources/images/system/Photo1.jpg')}" alt="Product 2" />
                 </div>
             </div>
             <div class="banner-divider"></div>
@@ -63,7 +64,9 @@
                 <form id="search-form" action="${pageContext.request.contextPath}/ShopProduct" method="get">
                     <%-- Search input and button --%>
                     <div class="search-container">
-                        <input type="text" id="search-input" name="search" value="${searchTerm}" placeholder="Search products..." />
+                        <input type="text" id="search-input" name="search" value="${searchTerm}" placeholder="Search products..." list="search-suggestions" autocomplete="off" />
+                        <%-- Filled while typing from /api/suggest --%>
+                        <datalist id="search-suggestions"></datalist>
                         <button type="submit" id="search-btn"><i class="fas fa-search"></i></button>
                     </div>
                     <%-- Sort dropdown for price ordering --%>
@@ -92,41 +95,8 @@
                 <c:if test="${empty products}">
                     <p class="not-found">Oops, it seems that product is unavailable right now.</p>
                 </c:if>
-                <%-- Iterate over products, limiting to 8 unless showMore is true --%>
-                <c:forEach var="product" items="${products}" varStatus="status">
-                    <c:if test="${status.index < 8 || showMore}">
-                        <div class="product-card" data-price="${product.price}" data-type="${product.brand}" data-product-id="${product.productId}">
-                            <div class="product-image-wrapper">
-                                <%-- Link to product detail page --%>
-                                <c:if test="${not empty product.productId}">
-                                    <a href="${pageContext.request.contextPath}/productDetail?productId=${product.productId}" class="product-link">
-                                        <img src="${pageContext.request.contextPath}${product.productImage}" alt="${product.productName}" class="product-image"/>
-                                    </a>
-                                </c:if>
-                                <%-- Wishlist form --%>
-                                <form action="${pageContext.request.contextPath}/wishlist" method="post">
-                                    <input type="hidden" name="productId" value="${product.productId}" />
-                                    <button type="submit" class="wishlist-button"><i class="far fa-heart"></i></button>
-                                </form>
-                            </div>
-                            <h3 class="product-name">${product.productName}</h3>
-                            <p class="product-type">${product.brand}</p>
-                            <p class="price">$${product.price}</p>
-                            <%-- Cart controls for adding to cart --%>
-                            <div class="cart-controls">
-                                <form action="${pageContext.request.contextPath}/addtocart" method="post">
-                                    <input type="hidden" name="productId" value="${product.productId}" />
-                                    <input type="hidden" name="productName" value="${product.productName}" />
-                                    <input type="hidden" name="price" value="${product.price}" />
-                                    <input type="hidden" name="brand" value="${product.brand}" />
-                                    <input type="hidden" name="productImage" value="${product.productImage}" />
-                                    <input type="number" name="quantity" class="quantity-input" min="1" value="1" style="width: 60px; margin-right: 10px;" />
-                                    <button type="submit" class="add-to-bag">ADD TO CART</button>
-                                </form>
-                            </div>
-                        </div>
-                    </c:if>
-                </c:forEach>
+                <%-- Product cards, assembled by the controller from cached card HTML (8 unless showMore is true) --%>
+                ${productGrid}
             </div>
 
             <%-- Check if more products are available for load more --%>
@@ -148,5 +118,49 @@
 
     <%-- Include footer content from footer.jsp --%>
     <jsp:include page="footer.jsp"/>
+
+    <script>
+        var suggestApi = '${pageContext.request.contextPath}/api/suggest';
+        var searchInput = document.getElementById('search-input');
+        var suggestionList = document.getElementById('search-suggestions');
+        var brandSuggestions = {}; // Suggested brands, which are searched with the brand filter
+        var suggestTimer = null;
+
+        // Fetches suggestions for the typed text, at most one request per pause in typing
+        searchInput.addEventListener('input', function () {
+            clearTimeout(suggestTimer);
+            var query = searchInput.value.trim();
+            if (query === '' || brandSuggestions[query]) {
+                return;
+            }
+            suggestTimer = setTimeout(function () {
+                fetch(suggestApi + '?q=' + encodeURIComponent(query))
+                    .then(function (res) { return res.json(); })
+                    .then(function (data) {
+                        if (!data.ok || searchInput.value.trim() !== query) return; // Outdated answer
+                        suggestionList.innerHTML = '';
+                        brandSuggestions = {};
+                        data.suggestions.forEach(function (suggestion) {
+                            var option = document.createElement('option');
+                            option.value = suggestion.text;
+                            option.label = suggestion.type === 'brand' ? 'Brand' : '';
+                            suggestionList.appendChild(option);
+                            if (suggestion.type === 'brand') brandSuggestions[suggestion.text] = true;
+                        });
+                    })
+                    .catch(function () { /* Suggestions are optional; the form still works */ });
+            }, 150);
+        });
+
+        // Product names are searched by name; a chosen brand selects the brand filter instead
+        document.getElementById('search-form').addEventListener('submit', function () {
+            var value = searchInput.value.trim();
+            var filterSelect = document.getElementById('filter-select');
+            if (brandSuggestions[value] && filterSelect.querySelector('option[value="' + CSS.escape(value) + '"]')) {
+                filterSelect.value = value;
+                searchInput.value = '';
+            }
+        });
+    </script>
 </body>
 </html>
\ No newline at end of file
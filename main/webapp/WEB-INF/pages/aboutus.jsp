@@ -2,6 +2,7 @@
 members and company philosophy. Uses header.jsp and footer.jsp for consistent
 navigation and footer content. Author: Sabin Devkota --%> <%@ page
 language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ taglib prefix="asset" uri="/WEB-INF/asset.tld" %>
 <!DOCTYPE html>
 <html>
   <head>
@@ -12,17 +13,17 @@ language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
     <link
       rel="stylesheet"
       type="text/css"
-      href="${pageContext.request.contextPath}/css/header.css"
+      href="${pageContext.request.contextPath}${asset:url('/css/header.css')}"
     />
     <link
       rel="stylesheet"
       type="text/css"
-      href="${pageContext.request.contextPath}/css/aboutus.css"
+      href="${pageContext.request.contextPath}${asset:url('/css/aboutus.css')}"
     />
     <link
       rel="stylesheet"
       type="text/css"
-      href="${pageContext.request.contextPath}/css/footer.css"
+      href="${pageContext.request.contextPath}${asset:url('/css/footer.css')}"
     />
   </head>
   <body>
@@ -43,7 +44,7 @@ language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
           <%-- Team member 1 --%>
           <div class="team-member">
             <img
-              src="${pageContext.request.contextPath}/resources/images/system/soniya.jpeg"
+              src="${pageContext.request.contextPath}${asset:url('/resources/images/system/soniya.jpeg')}"
               alt="Soniya Sapkota"
             />
             <p>Soniya Sapkota</p>
@@ -51,7 +52,7 @@ language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
           <%-- Team member 2 --%>
           <div class="team-member">
             <img
-              src="${pageContext.request.contextPath}/resources/images/system/ishpa.jpeg"
+              src="${pageContext.request.contextPath}${asset:url('/resources/images/system/ishpa.jpeg')}"
               alt="Ishpa Maharjan"
             />
             <p>Ishpa Maharjan</p>
@@ -59,7 +60,7 @@ language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
           <%-- Team member 3 --%>
           <div class="team-member">
             <img
-              src="${pageContext.request.contextPath}/resources/images/system/raghav.jpeg"
+              src="${pageContext.request.contextPath}${asset:url('/resources/images/system/raghav.jpeg')}"
               alt="Raghav Chaulagain"
             />
             <p>Raghav Chaulagain</p>
@@ -67,7 +68,7 @@ language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
           <%-- Team member 4 --%>
           <div class="team-member">
             <img
-              src="${pageContext.request.contextPath}/resources/images/system/sadiksha.JPG"
+              src="${pageContext.request.contextPath}${asset:url('/resources/images/system/sadiksha.JPG')}"
               alt="Sadiksha Karki"
             />
             <p>Sadiksha Karki</p>
@@ -75,7 +76,7 @@ language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
           <%-- Team member 5 --%>
           <div class="team-member">
             <img
-              src="${pageContext.request.contextPath}/resources/images/system/sabin.jpeg"
+              src="${pageContext.request.contextPath}${asset:url('/resources/images/system/sabin.jpeg')}"
               alt="Sabin Devkota"
             />
             <p>Sabin Devkota</p>
@@ -94,7 +95,7 @@ language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
         <div class="philosophy-content">
           <%-- Image related to the philosophy content --%>
           <img
-            src="${pageContext.request.contextPath}/resources/images/system/aboutuscontent.jpg"
+            src="${pageContext.request.contextPath}${asset:url('/resources/images/system/aboutuscontent.jpg')}"
             alt="Perfume Bottle"
           />
           <%-- Description of Scented Bliss's mission and services --%>
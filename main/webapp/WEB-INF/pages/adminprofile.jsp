@@ -2,14 +2,15 @@
     pageEncoding="UTF-8"%>
     
     <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core"%>
+    <%@ taglib prefix="asset" uri="/WEB-INF/asset.tld" %>
 
 <!DOCTYPE html>
 <html>
 <head>
     <title>My Profile - Scented Bliss</title>
-    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}/css/header.css" />
-    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}/css/productlist.css" />
-    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}/css/userProfile.css">
+    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}${asset:url('/css/header.css')}" />
+    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}${asset:url('/css/productlist.css')}" />
+    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}${asset:url('/css/userProfile.css')}">
 </head>
 <body>
 	 <div class="container">
@@ -71,12 +72,12 @@
         <div class="profile-icon">
             <c:choose>
                 <c:when test="${not empty user.imageUrl}">
-                    <img src="${pageContext.request.contextPath}${user.imageUrl}"  style="width:100px; height:100px; border-radius:50%;">
+                    <img src="${pageContext.request.contextPath}${asset:image(user.imageUrl, 'thumb')}"  style="width:100px; height:100px; border-radius:50%;">
                  
                 </c:when>
                
                 <c:otherwise>
-                    <img src="${pageContext.request.contextPath}/resources/images/system/Photo1.png" alt="Default Profile" style="width:100px; height:100px; border-radius:50%;">
+                    <img src="${pageContext.request.contextPath}${asset:url('/resources/images/system/Photo1.png')}" alt="Default Profile" style="width:100px; height:100px; border-radius:50%;">
                 </c:otherwise>
             </c:choose>
         </div>
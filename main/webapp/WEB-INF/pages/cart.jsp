@@ -9,6 +9,7 @@
 <%-- Import JSTL core and formatting tags --%>
 <%@ taglib uri="http://java.sun.com/jsp/jstl/core" prefix="c" %>
 <%@ taglib uri="http://java.sun.com/jsp/jstl/fmt" prefix="fmt" %>
+<%@ taglib prefix="asset" uri="/WEB-INF/asset.tld" %>
 
 <!DOCTYPE html>
 <html lang="en">
@@ -17,9 +18,9 @@
     <meta charset="UTF-8"/>
     <title>Your Shopping Cart</title>
     <%-- Include CSS stylesheets for header, footer, and cart-specific styling --%>
-    <link rel="stylesheet" href="${pageContext.request.contextPath}/css/header.css"/>
-    <link rel="stylesheet" href="${pageContext.request.contextPath}/css/footer.css"/>
-    <link rel="stylesheet" href="${pageContext.request.contextPath}/css/cart.css"/>
+    <link rel="stylesheet" href="${pageContext.request.contextPath}${asset:url('/css/header.css')}"/>
+    <link rel="stylesheet" href="${pageContext.request.contextPath}${asset:url('/css/footer.css')}"/>
+    <link rel="stylesheet" href="${pageContext.request.contextPath}${asset:url('/css/cart.css')}"/>
     <%-- Include Font Awesome for icons (e.g., plus, minus, remove) --%>
     <link rel="stylesheet" href="https://cdnjs.cloudflare.com/ajax/libs/font-awesome/5.15.4/css/all.min.css"/>
 
@@ -54,24 +55,70 @@
         }
     </style>
 
-    <%-- JavaScript functions for updating quantity and deleting items --%>
+    <%-- JavaScript functions for updating quantity and deleting items in place via the JSON cart API --%>
     <script>
-        // Updates the quantity of a cart item and redirects to the cart servlet
-        function updateQty(productId, qty) {
+        var cartApi = '${pageContext.request.contextPath}/api/cart';
+        var currency = new Intl.NumberFormat(undefined, { style: 'currency', currency: 'USD' });
+
+        // Sends a cart change to the API; falls back to the full-page flow if the call fails
+        function callCart(action, params, fallbackUrl) {
+            return fetch(cartApi + '/' + action, {
+                method: 'POST',
+                headers: { 'Content-Type': 'application/x-www-form-urlencoded' },
+                body: new URLSearchParams(params)
+            }).then(function (res) {
+                return res.json().then(function (data) {
+                    if (!res.ok || !data.ok) throw new Error(data.error || 'Request failed');
+                    return data;
+                });
+            }).catch(function () {
+                window.location.href = fallbackUrl;
+            });
+        }
+
+        // Updates the totals in the summary box and the header cart badge
+        function renderSummary(summary) {
+            var badge = document.getElementById('cart-badge');
+            if (badge) {
+                badge.textContent = summary.items;
+                badge.hidden = summary.items === 0;
+            }
+            if (summary.lines === 0) {
+                window.location.reload(); // Show the empty cart state
+                return;
+            }
+            document.getElementById('summary-lines').textContent = summary.lines;
+            document.getElementById('item-count').textContent = summary.lines + ' Items';
+            document.getElementById('summary-subtotal').textContent = currency.format(summary.subtotal);
+            document.getElementById('summary-total').textContent = currency.format(summary.total);
+        }
+
+        // Changes the quantity of a cart item by +1 / -1
+        function changeQty(productId, delta) {
+            var row = document.getElementById('cart-item-' + productId);
+            var qty = parseInt(row.querySelector('.quantity').textContent, 10) + delta;
             if (qty < 1) qty = 1; // Ensure quantity is at least 1
-            window.location.href = 
-                '${pageContext.request.contextPath}/cart'
-                + '?action=updateQuantity'
-                + '&productId=' + productId
-                + '&quantity=' + qty;
+            callCart('quantity', { productId: productId, quantity: qty },
+                '${pageContext.request.contextPath}/cart?action=updateQuantity&productId=' + productId + '&quantity=' + qty)
+                .then(function (data) {
+                    if (!data) return;
+                    row.querySelector('.quantity').textContent = data.line.quantity;
+                    row.querySelector('.item-price').textContent = currency.format(data.line.lineTotal);
+                    row.querySelector('.qty-minus').disabled = data.line.quantity <= 1;
+                    renderSummary(data.summary);
+                });
         }
-        // Confirms and deletes a cart item, redirecting to the cart servlet
+
+        // Confirms and deletes a cart item
         function deleteItem(productId) {
             if (confirm('Remove this item from your cart?')) {
-                window.location.href = 
-                    '${pageContext.request.contextPath}/cart'
-                    + '?action=delete'
-                    + '&productId=' + productId;
+                callCart('remove', { productId: productId },
+                    '${pageContext.request.contextPath}/cart?action=delete&productId=' + productId)
+                    .then(function (data) {
+                        if (!data) return;
+                        document.getElementById('cart-item-' + productId).remove();
+                        renderSummary(data.summary);
+                    });
             }
         }
     </script>
@@ -94,7 +141,7 @@
                 </c:when>
                 <c:otherwise>
                     <%-- Display the number of items in the cart --%>
-                    <p class="item-count">${cartList != null ? cartList.size() : 0} Items</p>
+                    <p class="item-count" id="item-count">${cartList != null ? cartList.size() : 0} Items</p>
 
                     <%-- Display success message from session, if present --%>
                     <c:if test="${not empty sessionScope.success}">
@@ -130,14 +177,10 @@
 
                         <%-- Iterate over cart items to display each one --%>
                         <c:forEach var="item" items="${cartList}">
-                            <%-- Calculate previous and next quantities for buttons --%>
-                            <c:set var="prevQty" value="${item.quantity > 1 ? item.quantity - 1 : 1}"/>
-                            <c:set var="nextQty" value="${item.quantity + 1}"/>
-
                             <%-- Cart item container --%>
-                            <div class="cart-item">
+                            <div class="cart-item" id="cart-item-${item.productId}">
                                 <%-- Product image --%>
-                                <img src="${pageContext.request.contextPath}${item.productImage}" 
+                                <img src="${pageContext.request.contextPath}${asset:image(item.productImage, 'thumb')}" 
                                      alt="${item.productName}" />
 
                                 <%-- Item details (name and quantity controls) --%>
@@ -145,8 +188,8 @@
                                     <p>${item.productName}</p>
                                     <div class="quantity-controls">
                                         <%-- Decrease quantity button --%>
-                                        <button type="button"
-                                                onclick="updateQty(${item.productId}, ${prevQty})"
+                                        <button type="button" class="qty-minus"
+                                                onclick="changeQty(${item.productId}, -1)"
                                                 ${item.quantity <= 1 ? 'disabled' : ''}>
                                             <i class="fas fa-minus"></i>
                                         </button>
@@ -154,7 +197,7 @@
                                         <span class="quantity">${item.quantity}</span>
                                         <%-- Increase quantity button --%>
                                         <button type="button"
-                                                onclick="updateQty(${item.productId}, ${nextQty})">
+                                                onclick="changeQty(${item.productId}, 1)">
                                             <i class="fas fa-plus"></i>
                                         </button>
                                     </div>
@@ -181,17 +224,17 @@
         <c:if test="${not empty cartList}">
             <div class="summary">
                 <%-- Total number of items --%>
-                <p>Items: <strong>${cartList.size()}</strong></p>
+                <p>Items: <strong id="summary-lines">${cartList.size()}</strong></p>
                 <%-- Subtotal for all items --%>
                 <p>Subtotal: 
-                    <strong><fmt:formatNumber value="${subtotal}" type="currency"/></strong>
+                    <strong id="summary-subtotal"><fmt:formatNumber value="${subtotal}" type="currency"/></strong>
                 </p>
                 <%-- Shipping fee (default to $10 if not set) --%>
                 <p>Shipping: <strong><fmt:formatNumber value="${sessionScope.shippingFee != null ? sessionScope.shippingFee : 10.00}" type="currency"/></strong></p>
                 <%-- Total price (subtotal + shipping) --%>
                 <p class="total-price">
                     TOTAL: 
-                    <strong><fmt:formatNumber 
+                    <strong id="summary-total"><fmt:formatNumber 
                                 value="${subtotal + (sessionScope.shippingFee != null ? sessionScope.shippingFee : 10.00)}" 
                                 type="currency"/></strong>
                 </p>
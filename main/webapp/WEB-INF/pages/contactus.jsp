@@ -2,6 +2,7 @@
 contact form and company contact information. Uses header.jsp and footer.jsp for
 consistent navigation and footer content. Author: Sabin Devkota --%> <%@ page
 language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ taglib prefix="asset" uri="/WEB-INF/asset.tld" %>
 <!DOCTYPE html>
 <html lang="en">
   <head>
@@ -12,17 +13,17 @@ language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
     <link
       rel="stylesheet"
       type="text/css"
-      href="${pageContext.request.contextPath}/css/header.css"
+      href="${pageContext.request.contextPath}${asset:url('/css/header.css')}"
     />
     <link
       rel="stylesheet"
       type="text/css"
-      href="${pageContext.request.contextPath}/css/contactus.css"
+      href="${pageContext.request.contextPath}${asset:url('/css/contactus.css')}"
     />
     <link
       rel="stylesheet"
       type="text/css"
-      href="${pageContext.request.contextPath}/css/footer.css"
+      href="${pageContext.request.contextPath}${asset:url('/css/footer.css')}"
     />
   </head>
   <body>
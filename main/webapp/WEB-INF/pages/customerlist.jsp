@@ -8,6 +8,7 @@
 <%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
 <%-- Import JSTL core for conditional and looping constructs --%>
 <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core"%>
+<%@ taglib prefix="asset" uri="/WEB-INF/asset.tld" %>
 <%-- Import classes for session and request handling --%>
 <%@ page import="jakarta.servlet.http.HttpSession"%>
 <%@ page import="jakarta.servlet.http.HttpServletRequest"%>
@@ -47,9 +48,9 @@ System.out.println("customerlist.jsp - Username from cookie: " + username);
     <meta name="viewport" content="width=device-width, initial-scale=1.0"/>
     <title>Perfume Shop - Customer List</title>
     <%-- Include CSS stylesheets for dashboard, header, and customer list styling --%>
-    <link rel="stylesheet" type="text/css" href="${contextPath}/css/dashboard.css" />
-    <link rel="stylesheet" type="text/css" href="${contextPath}/css/header.css" />
-    <link rel="stylesheet" type="text/css" href="${contextPath}/css/customerlist.css" />
+    <link rel="stylesheet" type="text/css" href="${contextPath}${asset:url('/css/dashboard.css')}" />
+    <link rel="stylesheet" type="text/css" href="${contextPath}${asset:url('/css/header.css')}" />
+    <link rel="stylesheet" type="text/css" href="${contextPath}${asset:url('/css/customerlist.css')}" />
     <%-- Include Google Fonts for typography --%>
     <link href="https://fonts.googleapis.com/css2?family=Playfair+Display:wght@600&display=swap" rel="stylesheet">
     <%-- Include Font Awesome for icons --%>
@@ -148,7 +149,7 @@ System.out.println("customerlist.jsp - Username from cookie: " + username);
                                                 <input type="hidden" name="username" value="${customer.username}">
                                                 <input type="hidden" name="action" value="delete">
                                                 <button class="action-btn" type="submit">
-                                                    <img src="${contextPath}/resources/images/system/delete.avif" alt="Delete" title="Delete" />
+                                                    <img src="${contextPath}${asset:url('/resources/images/system/delete.avif')}" alt="Delete" title="Delete" />
                                                 </button>
                                             </form>
                                         </td>
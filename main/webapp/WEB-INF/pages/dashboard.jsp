@@ -5,7 +5,9 @@ for sales visualization. Author: Sabin Devkota --%> <%@ page language="java"
 contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%> <%-- Import JSTL
 core and formatting tags --%> <%@ taglib prefix="c"
 uri="http://java.sun.com/jsp/jstl/core"%> <%@ taglib prefix="fmt"
-uri="http://java.sun.com/jsp/jstl/fmt"%> <%-- Import classes for session
+uri="http://java.sun.com/jsp/jstl/fmt"%>
+<%@ taglib prefix="asset" uri="/WEB-INF/asset.tld" %>
+<%-- Import classes for session
 handling --%> <%@ page import="jakarta.servlet.http.HttpSession"%> <%@ page
 import="jakarta.servlet.http.HttpServletRequest"%> <% // Initialize session and
 retrieve user role HttpSession userSession = request.getSession(false); String
@@ -26,17 +28,17 @@ contextPath variable for consistent URL referencing --%>
     <link
       rel="stylesheet"
       type="text/css"
-      href="${contextPath}/css/dashboard.css"
+      href="${contextPath}${asset:url('/css/dashboard.css')}"
     />
     <link
       rel="stylesheet"
       type="text/css"
-      href="${contextPath}/css/productlist.css"
+      href="${contextPath}${asset:url('/css/productlist.css')}"
     />
     <link
       rel="stylesheet"
       type="text/css"
-      href="${contextPath}/css/header.css"
+      href="${contextPath}${asset:url('/css/header.css')}"
     />
     <%-- Include Google Fonts for typography --%>
     <link
@@ -47,8 +47,11 @@ pageContext.setAttribute("currentUser", currentUser); %>
         </c:if>
 
         <c:if test="${not empty currentUser}">
-          <a href="${pageContext.request.contextPath}/addtocart">
+          <a href="${pageContext.request.contextPath}/addtocart" class="cart-link">
             <i class="fa-solid fa-cart-shopping" aria-hidden="true"></i>
+            <%-- Item count comes from the session cart counters, so rendering it needs no database query --%>
+            <span id="cart-badge" class="cart-badge"
+              ${empty sessionScope.cart or sessionScope.cart.itemCount == 0 ? 'hidden' : ''}>${not empty sessionScope.cart ? sessionScope.cart.itemCount : 0}</span>
           </a>
         </c:if>
       </div>
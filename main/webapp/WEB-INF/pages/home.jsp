@@ -2,6 +2,7 @@
 best-selling products, and a quote. Uses header.jsp and footer.jsp for
 consistent navigation and footer content. Author: Sabin Devkota --%> <%@ page
 language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ taglib prefix="asset" uri="/WEB-INF/asset.tld" %>
 <!DOCTYPE html>
 <html>
   <head>
@@ -12,17 +13,17 @@ language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
     <link
       rel="stylesheet"
       type="text/css"
-      href="${pageContext.request.contextPath}/css/header.css"
+      href="${pageContext.request.contextPath}${asset:url('/css/header.css')}"
     />
     <link
       rel="stylesheet"
       type="text/css"
-      href="${pageContext.request.contextPath}/css/home.css"
+      href="${pageContext.request.contextPath}${asset:url('/css/home.css')}"
     />
     <link
       rel="stylesheet"
       type="text/css"
-      href="${pageContext.request.contextPath}/css/footer.css"
+      href="${pageContext.request.contextPath}${asset:url('/css/footer.css')}"
     />
   </head>
   <body>
@@ -33,20 +34,20 @@ language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
     <section class="main">
       <div class="main-item1">
         <img
-          src="${pageContext.request.contextPath}/resources/images/system/coco_bestselling.jpg"
+          src="${pageContext.request.contextPath}${asset:url('/resources/images/system/coco_bestselling.jpg')}"
           alt="Chanel Perfume"
         />
       </div>
       <div class="main-logo">
         <img
-          src="${pageContext.request.contextPath}/resources/images/system/Photo5.jpg"
+          src="${pageContext.request.contextPath}${asset:url('/resources/images/system/Photo5.jpg')}"
           alt="Scented Bliss Logo"
         />
         <p>A Fragrance collection that embodies the house.</p>
       </div>
       <div class="main-item2">
         <img
-          src="${pageContext.request.contextPath}/resources/images/system/ariana.jpg"
+          src="${pageContext.request.contextPath}${asset:url('/resources/images/system/ariana.jpg')}"
           alt="Victoria's Secret"
         />
       </div>
@@ -59,7 +60,7 @@ language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
         <%-- Product card 1 --%>
         <div class="product-card">
           <img
-            src="${pageContext.request.contextPath}/resources/images/system/sauvage.jpg"
+            src="${pageContext.request.contextPath}${asset:url('/resources/images/system/sauvage.jpg')}"
             alt="Dior Sauvage"
           />
           <p>Sale Price: $89.13</p>
@@ -70,7 +71,7 @@ language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
         <%-- Product card 2 --%>
         <div class="product-card">
           <img
-            src="${pageContext.request.contextPath}/resources/images/system/victoria.jpg"
+            src="${pageContext.request.contextPath}${asset:url('/resources/images/system/victoria.jpg')}"
             alt="Juicy Couture"
           />
           <p>Sale Price: $45.00</p>
@@ -81,7 +82,7 @@ language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
         <%-- Product card 3 --%>
         <div class="product-card">
           <img
-            src="${pageContext.request.contextPath}/resources/images/system/blue_channel.jpg"
+            src="${pageContext.request.contextPath}${asset:url('/resources/images/system/blue_channel.jpg')}"
             alt="Coco Chanel"
           />
           <p>Sale Price: $90.50</p>
@@ -104,15 +105,15 @@ language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
       </p>
       <div class="quote-images">
         <img
-          src="${pageContext.request.contextPath}/resources/images/system/coco_channel.jpg"
+          src="${pageContext.request.contextPath}${asset:url('/resources/images/system/coco_channel.jpg')}"
           alt="Bleu de Chanel"
         />
         <img
-          src="${pageContext.request.contextPath}/resources/images/system/miss_dior.jpg"
+          src="${pageContext.request.contextPath}${asset:url('/resources/images/system/miss_dior.jpg')}"
           alt="Miss Dior"
         />
         <img
-          src="${pageContext.request.contextPath}/resources/images/system/perfumeing.jpg"
+          src="${pageContext.request.contextPath}${asset:url('/resources/images/system/perfumeing.jpg')}"
           alt="Pretty"
         />
       </div>
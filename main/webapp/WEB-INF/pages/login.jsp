@@ -4,6 +4,7 @@ and prefill the username field. Author: Sabin Devkota --%> <%@ page
 language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
 <%-- Import JSTL core for conditional rendering --%> <%@ taglib prefix="c"
 uri="http://java.sun.com/jsp/jstl/core"%>
+<%@ taglib prefix="asset" uri="/WEB-INF/asset.tld" %>
 
 <!DOCTYPE html>
 <html>
@@ -15,7 +16,7 @@ uri="http://java.sun.com/jsp/jstl/core"%>
     <link
       rel="stylesheet"
       type="text/css"
-      href="${pageContext.request.contextPath}/css/login.css"
+      href="${pageContext.request.contextPath}${asset:url('/css/login.css')}"
     />
   </head>
   <body>
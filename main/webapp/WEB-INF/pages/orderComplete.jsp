@@ -2,6 +2,7 @@
 placement. Provides a link to return to the homepage. Author: Sabin Devkota --%>
 <%@ page language="java" contentType="text/html; charset=UTF-8"
 pageEncoding="UTF-8"%>
+<%@ taglib prefix="asset" uri="/WEB-INF/asset.tld" %>
 <!DOCTYPE html>
 <html lang="en">
   <head>
@@ -12,7 +13,7 @@ pageEncoding="UTF-8"%>
     <link
       rel="stylesheet"
       type="text/css"
-      href="${pageContext.request.contextPath}/css/orderComplete.css"
+      href="${pageContext.request.contextPath}${asset:url('/css/orderComplete.css')}"
     />
     <title>Order Complete</title>
   </head>
@@ -4,7 +4,9 @@ functionality. Uses JSTL for conditional rendering and looping through order
 items. Author: Sabin Devkota --%> <%@ page language="java"
 contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%> <%-- Import JSTL
 core for conditional and looping constructs --%> <%@ taglib prefix="c"
-uri="http://java.sun.com/jsp/jstl/core"%> <%-- Set contextPath variable for
+uri="http://java.sun.com/jsp/jstl/core"%>
+<%@ taglib prefix="asset" uri="/WEB-INF/asset.tld" %>
+<%-- Set contextPath variable for
 consistent URL referencing --%>
 <c:set var="contextPath" value="${pageContext.request.contextPath}" />
 
@@ -20,17 +22,17 @@ consistent URL referencing --%>
     <link
       rel="stylesheet"
       type="text/css"
-      href="${contextPath}/css/orderItems.css"
+      href="${contextPath}${asset:url('/css/orderItems.css')}"
     />
     <link
       rel="stylesheet"
       type="text/css"
-      href="${contextPath}/css/productlist.css"
+      href="${contextPath}${asset:url('/css/productlist.css')}"
     />
     <link
       rel="stylesheet"
       type="text/css"
-      href="${contextPath}/css/header.css"
+      href="${contextPath}${asset:url('/css/header.css')}"
     />
     <%-- Include Google Fonts for typography --%>
     <link
@@ -8,6 +8,7 @@
 <%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
 <%-- Import JSTL core for conditional and looping constructs --%>
 <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core"%>
+<%@ taglib prefix="asset" uri="/WEB-INF/asset.tld" %>
 <%-- Import classes for session, request, and order handling --%>
 <%@ page import="jakarta.servlet.http.HttpSession"%>
 <%@ page import="jakarta.servlet.http.HttpServletRequest"%>
@@ -55,9 +56,9 @@ pageContext.setAttribute("orders", orders);
     <meta name="viewport" content="width=device-width, initial-scale=1.0"/>
     <title>Perfume Shop - Orders</title>
     <%-- Include CSS stylesheets for product list, orders, and header styling --%>
-    <link rel="stylesheet" type="text/css" href="${contextPath}/css/productlist.css" />
-    <link rel="stylesheet" type="text/css" href="${contextPath}/css/orders.css" />
-    <link rel="stylesheet" type="text/css" href="${contextPath}/css/header.css" />
+    <link rel="stylesheet" type="text/css" href="${contextPath}${asset:url('/css/productlist.css')}" />
+    <link rel="stylesheet" type="text/css" href="${contextPath}${asset:url('/css/orders.css')}" />
+    <link rel="stylesheet" type="text/css" href="${contextPath}${asset:url('/css/header.css')}" />
     <%-- Include Google Fonts for typography --%>
     <link href="https://fonts.googleapis.com/css2?family=Playfair+Display:wght@600&display=swap" rel="stylesheet">
     <%-- Include Font Awesome for icons --%>
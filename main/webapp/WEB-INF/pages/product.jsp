@@ -8,6 +8,7 @@
 <%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
 <%-- Import JSTL core for conditional and looping constructs --%>
 <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core"%>
+<%@ taglib prefix="asset" uri="/WEB-INF/asset.tld" %>
 
 <!DOCTYPE html>
 <html>
@@ -18,7 +19,7 @@
     <%-- Set contextPath variable for consistent URL referencing --%>
     <c:set var="contextPath" value="${pageContext.request.contextPath}" />
     <%-- Include CSS stylesheet for product form styling --%>
-    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}/css/product.css" />
+    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}${asset:url('/css/product.css')}" />
 </head>
 <body>
     <%-- Main container with image and form sections --%>
@@ -94,7 +95,7 @@
                         <input type="file" id="productImage" name="productImage" accept="image/*">
                         <c:if test="${isEdit && product.productImage != null}">
                             <%-- Display current image when editing --%>
-                            <p>Current Image: <img src="${pageContext.request.contextPath}${product.productImage}" alt="Current Image" style="max-width: 100px;"/></p>
+                            <p>Current Image: <img src="${pageContext.request.contextPath}${asset:image(product.productImage, 'thumb')}" alt="Current Image" style="max-width: 100px;"/></p>
                         </c:if>
                     </div>
                     <div class="col">
@@ -8,6 +8,7 @@
 <%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
 <%-- Import JSTL core for conditional and looping constructs --%>
 <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core"%>
+<%@ taglib prefix="asset" uri="/WEB-INF/asset.tld" %>
 
 <!DOCTYPE html>
 <html>
@@ -16,9 +17,9 @@
     <meta charset="UTF-8">
     <meta name="viewport" content="width=device-width, initial-scale=1.0">
     <%-- Include CSS stylesheets for header, product detail, and footer styling --%>
-    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}/css/header.css" />
-    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}/css/productDetail.css" />
-    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}/css/footer.css" />
+    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}${asset:url('/css/header.css')}" />
+    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}${asset:url('/css/productDetail.css')}" />
+    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}${asset:url('/css/footer.css')}" />
     <%-- Include Font Awesome for icons (e.g., heart, arrow) --%>
     <link rel="stylesheet" href="https://cdnjs.cloudflare.com/ajax/libs/font-awesome/6.0.0/css/all.min.css" />
     <%-- Dynamic title based on product name --%>
@@ -38,7 +39,7 @@
                     <div class="product-detail">
                         <%-- Product image section --%>
                         <div class="product-detail-image">
-                            <img src="${pageContext.request.contextPath}${product.productImage}" alt="${product.productName}" class="product-image"/>
+                            <img src="${pageContext.request.contextPath}${asset:image(product.productImage, 'detail')}" alt="${product.productName}" class="product-image"/>
                         </div>
                         <%-- Product information section --%>
                         <div class="product-detail-info">
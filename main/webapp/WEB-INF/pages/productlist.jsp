@@ -8,6 +8,7 @@
 <%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
 <%-- Import JSTL core for conditional and looping constructs --%>
 <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core"%>
+<%@ taglib prefix="asset" uri="/WEB-INF/asset.tld" %>
 <%-- Import ProductModel class for product data handling --%>
 <%@ page import="com.scentedbliss.model.ProductModel" %>
 
@@ -22,8 +23,8 @@
     <meta name="viewport" content="width=device-width, initial-scale=1.0"/>
     <title>Perfume Shop Product List</title>
     <%-- Include CSS stylesheets for product list and header styling --%>
-    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}/css/productlist.css" />
-    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}/css/header.css" />
+    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}${asset:url('/css/productlist.css')}" />
+    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}${asset:url('/css/header.css')}" />
     <%-- Include Google Fonts for typography --%>
     <link href="https://fonts.googleapis.com/css2?family=Playfair+Display:wght@600&display=swap" rel="stylesheet">
     <%-- Include Font Awesome for icons --%>
@@ -115,7 +116,7 @@
                         <%-- Iterate over products list --%>
                         <c:forEach var="product" items="${products}">
                             <tr>
-                                <td><img src="${pageContext.request.contextPath}${product.productImage}" alt="${product.productName}"/></td>
+                                <td><img src="${pageContext.request.contextPath}${asset:image(product.productImage, 'thumb')}" alt="${product.productName}"/></td>
                                 <td>${product.productName}</td>
                                 <td>${product.stock}</td>
                                 <td>$ ${product.price}</td>
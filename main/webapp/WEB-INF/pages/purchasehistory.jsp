@@ -6,6 +6,7 @@ language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
 <%-- Import JSTL core and formatting tags for conditional rendering and
 formatting --%> <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
 <%@ taglib prefix="fmt" uri="http://java.sun.com/jsp/jstl/fmt" %>
+<%@ taglib prefix="asset" uri="/WEB-INF/asset.tld" %>
 
 <!DOCTYPE html>
 <html>
@@ -17,17 +18,17 @@ formatting --%> <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
     styling --%>
     <link
       rel="stylesheet"
-      href="${pageContext.request.contextPath}/css/purchasehistory.css"
+      href="${pageContext.request.contextPath}${asset:url('/css/purchasehistory.css')}"
     />
     <link
       rel="stylesheet"
       type="text/css"
-      href="${pageContext.request.contextPath}/css/header.css"
+      href="${pageContext.request.contextPath}${asset:url('/css/header.css')}"
     />
     <link
       rel="stylesheet"
       type="text/css"
-      href="${pageContext.request.contextPath}/css/footer.css"
+      href="${pageContext.request.contextPath}${asset:url('/css/footer.css')}"
     />
   </head>
   <body>
@@ -71,7 +72,7 @@ formatting --%> <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
           <div class="order-item">
             <div class="item-image">
               <img
-                src="${pageContext.request.contextPath}/resources/images/system/sauvage.jpg"
+                src="${pageContext.request.contextPath}${asset:url('/resources/images/system/sauvage.jpg')}"
                 alt="Gentleman's Essence"
               />
             </div>
@@ -98,7 +99,7 @@ formatting --%> <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
           <div class="order-item">
             <div class="item-image">
               <img
-                src="${pageContext.request.contextPath}/resources/images/system/ariana.jpg"
+                src="${pageContext.request.contextPath}${asset:url('/resources/images/system/ariana.jpg')}"
                 alt="Floral Elegance"
               />
             </div>
@@ -8,6 +8,7 @@
 <%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
 <%-- Import JSTL core for conditional rendering --%>
 <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core"%>
+<%@ taglib prefix="asset" uri="/WEB-INF/asset.tld" %>
 
 <!DOCTYPE html>
 <html>
@@ -18,7 +19,7 @@
     <%-- Set contextPath variable for consistent URL referencing --%>
     <c:set var="contextPath" value="${pageContext.request.contextPath}" />
     <%-- Include CSS stylesheet for registration form styling --%>
-    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}/css/register.css" />
+    <link rel="stylesheet" type="text/css" href="${pageContext.request.contextPath}${asset:url('/css/register.css')}" />
 </head>
 <body>
     <%-- Main container with image and form sections --%>
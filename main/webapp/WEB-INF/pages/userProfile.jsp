@@ -4,7 +4,9 @@ non-admin users, with a sidebar for admins. Uses JSTL for conditional rendering
 and session handling for role-based access. Author: Sabin Devkota --%> <%@ page
 language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
 <%-- Import JSTL core for conditional rendering --%> <%@ taglib prefix="c"
-uri="http://java.sun.com/jsp/jstl/core"%> <%-- Import classes for session
+uri="http://java.sun.com/jsp/jstl/core"%>
+<%@ taglib prefix="asset" uri="/WEB-INF/asset.tld" %>
+<%-- Import classes for session
 handling --%> <%@ page import="jakarta.servlet.http.HttpSession"%> <%@ page
 import="jakarta.servlet.http.HttpServletRequest"%> <% // Initialize session and
 retrieve user role HttpSession userSession = request.getSession(false); String
@@ -27,24 +29,24 @@ contextPath variable for consistent URL referencing --%>
         <link
           rel="stylesheet"
           type="text/css"
-          href="${contextPath}/css/productlist.css"
+          href="${contextPath}${asset:url('/css/productlist.css')}"
         />
         <link
           rel="stylesheet"
           type="text/css"
-          href="${contextPath}/css/header.css"
+          href="${contextPath}${asset:url('/css/header.css')}"
         />
       </c:when>
       <c:otherwise>
         <link
           rel="stylesheet"
           type="text/css"
-          href="${contextPath}/css/header.css"
+          href="${contextPath}${asset:url('/css/header.css')}"
         />
         <link
           rel="stylesheet"
           type="text/css"
-          href="${contextPath}/css/footer.css"
+          href="${contextPath}${asset:url('/css/footer.css')}"
         />
       </c:otherwise>
     </c:choose>
@@ -52,7 +54,7 @@ contextPath variable for consistent URL referencing --%>
     <link
       rel="stylesheet"
       type="text/css"
-      href="${contextPath}/css/userProfile.css"
+      href="${contextPath}${asset:url('/css/userProfile.css')}"
     />
     <%-- Include Google Fonts for typography --%>
     <link
@@ -142,15 +144,15 @@ contextPath variable for consistent URL referencing --%>
                     <c:when test="${not empty user.imageUrl}">
                       <%-- Show user-uploaded profile picture with fallback --%>
                       <img
-                        src="${contextPath}${user.imageUrl}"
+                        src="${contextPath}${asset:image(user.imageUrl, 'thumb')}"
                         style="width: 100px; height: 100px; border-radius: 50%"
-                        onerror="this.src='${contextPath}/resources/images/system/Photo1.png'"
+                        onerror="this.src='${contextPath}${asset:url('/resources/images/system/Photo1.png')}'"
                       />
                     </c:when>
                     <c:otherwise>
                       <%-- Show default profile picture --%>
                       <img
-                        src="${contextPath}/resources/images/system/Photo1.png"
+                        src="${contextPath}${asset:url('/resources/images/system/Photo1.png')}"
                         alt="Default Profile"
                         style="width: 100px; height: 100px; border-radius: 50%"
                       />
@@ -280,15 +282,15 @@ contextPath variable for consistent URL referencing --%>
                 <c:when test="${not empty user.imageUrl}">
                   <%-- Show user-uploaded profile picture with fallback --%>
                   <img
-                    src="${contextPath}${user.imageUrl}"
+                    src="${contextPath}${asset:image(user.imageUrl, 'thumb')}"
                     style="width: 100px; height: 100px; border-radius: 50%"
-                    onerror="this.src='${contextPath}/resources/images/system/Photo1.png'"
+                    onerror="this.src='${contextPath}${asset:url('/resources/images/system/Photo1.png')}'"
                   />
                 </c:when>
                 <c:otherwise>
                   <%-- Show default profile picture --%>
                   <img
-                    src="${contextPath}/resources/images/system/Photo1.png"
+                    src="${contextPath}${asset:url('/resources/images/system/Photo1.png')}"
                     alt="Default Profile"
                     style="width: 100px; height: 100px; border-radius: 50%"
                   />
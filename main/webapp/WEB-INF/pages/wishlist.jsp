@@ -3,6 +3,7 @@ add items to cart or clear the wishlist. Includes a breadcrumb for navigation
 and a features section for promotional content. Includes header and footer for
 consistent layout. Author: Sabin Devkota --%> <%@ page
 contentType="text/html;charset=UTF-8" language="java" %>
+<%@ taglib prefix="asset" uri="/WEB-INF/asset.tld" %>
 <!DOCTYPE html>
 <html>
   <head>
@@ -12,17 +13,17 @@ contentType="text/html;charset=UTF-8" language="java" %>
     <link
       rel="stylesheet"
       type="text/css"
-      href="${pageContext.request.contextPath}/css/header.css"
+      href="${pageContext.request.contextPath}${asset:url('/css/header.css')}"
     />
     <link
       rel="stylesheet"
       type="text/css"
-      href="${pageContext.request.contextPath}/css/footer.css"
+      href="${pageContext.request.contextPath}${asset:url('/css/footer.css')}"
     />
     <link
       rel="stylesheet"
       type="text/css"
-      href="${pageContext.request.contextPath}/css/wishlist.css"
+      href="${pageContext.request.contextPath}${asset:url('/css/wishlist.css')}"
     />
   </head>
   <body>
@@ -53,7 +54,7 @@ contentType="text/html;charset=UTF-8" language="java" %>
               <td>
                 <div class="product-info">
                   <img
-                    src="${pageContext.request.contextPath}/resources/images/system/sauvage.jpg"
+                    src="${pageContext.request.contextPath}${asset:url('/resources/images/system/sauvage.jpg')}"
                     alt="Dior Sauvage"
                   />
                   <div>
@@ -84,7 +85,7 @@ contentType="text/html;charset=UTF-8" language="java" %>
         <div class="features">
           <div class="feature-item">
             <img
-              src="${pageContext.request.contextPath}/resources/images/system/victoria.jpg"
+              src="${pageContext.request.contextPath}${asset:url('/resources/images/system/victoria.jpg')}"
               alt="Free Shipping"
             />
             <p>
@@ -94,7 +95,7 @@ contentType="text/html;charset=UTF-8" language="java" %>
           </div>
           <div class="feature-item">
             <img
-              src="${pageContext.request.contextPath}/resources/images/system/miss_dior.jpg"
+              src="${pageContext.request.contextPath}${asset:url('/resources/images/system/miss_dior.jpg')}"
               alt="Flexible Payment"
             />
             <p>
@@ -104,7 +105,7 @@ contentType="text/html;charset=UTF-8" language="java" %>
           </div>
           <div class="feature-item">
             <img
-              src="${pageContext.request.contextPath}/resources/images/system/blue_channel.jpg"
+              src="${pageContext.request.contextPath}${asset:url('/resources/images/system/blue_channel.jpg')}"
               alt="24x7 Support"
             />
             <p>
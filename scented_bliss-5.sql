@@ -30,6 +30,7 @@ SET time_zone = "+00:00";
 CREATE TABLE `cart` (
   `cartId` int(11) NOT NULL,
   `createdAt` datetime NOT NULL DEFAULT current_timestamp(),
+  `updatedAt` datetime NOT NULL DEFAULT current_timestamp() ON UPDATE current_timestamp(),
   `userId` int(11) NOT NULL
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 
@@ -288,7 +289,8 @@ CREATE TABLE `user_product` (
 --
 ALTER TABLE `cart`
   ADD PRIMARY KEY (`cartId`),
-  ADD KEY `FK_cart_user` (`userId`);
+  ADD KEY `FK_cart_user` (`userId`),
+  ADD KEY `idx_cart_updatedAt` (`updatedAt`,`cartId`);
 
 --
 -- Indexes for table `cart_product`
@@ -324,7 +326,8 @@ ALTER TABLE `orderitems`
 --
 ALTER TABLE `orders`
   ADD PRIMARY KEY (`orderId`),
-  ADD KEY `Fk_Order_User` (`userId`);
+  ADD KEY `Fk_Order_User` (`userId`),
+  ADD KEY `idx_orders_orderDate` (`orderDate`,`totalAmount`);
 
 --
 -- Indexes for table `order_user`
@@ -345,7 +348,9 @@ ALTER TABLE `payments`
 -- Indexes for table `products`
 --
 ALTER TABLE `products`
-  ADD PRIMARY KEY (`productId`);
+  ADD PRIMARY KEY (`productId`),
+  ADD KEY `idx_products_brand_price` (`brand`,`price`),
+  ADD FULLTEXT KEY `idx_products_fulltext` (`productName`,`productDescription`,`brand`);
 
 --
 -- Indexes for table `review`
@@ -368,7 +373,8 @@ ALTER TABLE `users`
   ADD PRIMARY KEY (`userId`),
   ADD UNIQUE KEY `email` (`email`),
   ADD UNIQUE KEY `phoneNo` (`phoneNumber`),
-  ADD UNIQUE KEY `username` (`username`);
+  ADD UNIQUE KEY `username` (`username`),
+  ADD KEY `idx_users_role` (`role`);
 
 --
 -- Indexes for table `user_product`